@@ -0,0 +1,84 @@
+package com.pi.math;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.pi.math.matrix.Affine3f;
+import com.pi.math.matrix.Matrix4;
+import com.pi.math.vector.Quatf;
+import com.pi.math.vector.Vec3f;
+import com.pi.math.vector.VectorBuff3;
+
+/**
+ * Immutable value types against the buffer types with {@link Heap}
+ * temporaries. Run with {@code -prof gc} to see the allocation rate.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ValueTypeBench {
+	private VectorBuff3 o, d, v0, v1, v2, hit, p, out;
+	private Vec3f vo, vd, vv0, vv1, vv2, vp;
+	private Matrix4 a, b;
+	private Affine3f va, vb;
+
+	@Setup
+	public void setup() {
+		vo = new Vec3f(.2f, .3f, -1);
+		vd = new Vec3f(0, 0, 1);
+		vv0 = new Vec3f(0, 0, 0);
+		vv1 = new Vec3f(1, 0, 0);
+		vv2 = new Vec3f(0, 1, 0);
+		vp = new Vec3f(1, 2, 3);
+		o = vo.into(new VectorBuff3());
+		d = vd.into(new VectorBuff3());
+		v0 = vv0.into(new VectorBuff3());
+		v1 = vv1.into(new VectorBuff3());
+		v2 = vv2.into(new VectorBuff3());
+		p = vp.into(new VectorBuff3());
+		hit = new VectorBuff3();
+		out = new VectorBuff3();
+		va = Affine3f.rotation(Quatf.axisAngle(.5f, new Vec3f(0, .6f, .8f))).mul(Affine3f.translation(vp));
+		vb = Affine3f.rotation(Quatf.axisAngle(-.3f, new Vec3f(.8f, 0, .6f)));
+		a = va.into(new Matrix4());
+		b = vb.into(new Matrix4());
+	}
+
+	@Benchmark
+	public void rayTriangleHeap(Blackhole bh) {
+		bh.consume(MathUtil.rayIntersectsTriangle(hit, o, d, v0, v1, v2));
+	}
+
+	@Benchmark
+	public float rayTriangleValue() {
+		// Consume a component so the result needn't be materialized.
+		final Vec3f h = MathUtil.rayIntersectsTriangle(vo, vd, vv0, vv1, vv2);
+		return h == null ? 0 : h.z;
+	}
+
+	@Benchmark
+	public void composeTransformHeap(Blackhole bh) {
+		try (Heap.Frame f = Heap.frame()) {
+			bh.consume(f.mat4().mul(a, b).transform4(out, p));
+		}
+	}
+
+	@Benchmark
+	public float composeTransformValue() {
+		return va.mul(vb).transformPoint(vp).x;
+	}
+}
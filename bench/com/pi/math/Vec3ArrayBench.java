@@ -0,0 +1,81 @@
+package com.pi.math;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.pi.math.vector.Vec3Array;
+import com.pi.math.vector.VectorBuff3;
+
+/**
+ * A particle integration step (position += dt * velocity, then a
+ * nearest-distance query) over {@link VectorBuff3} objects and over a
+ * {@link Vec3Array}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class Vec3ArrayBench {
+	@Param({ "100000" })
+	public int count;
+
+	private VectorBuff3[] pos, vel;
+	private Vec3Array sPos, sVel;
+	private float[] dist;
+
+	@Setup
+	public void setup() {
+		Random rand = new Random(1);
+		pos = new VectorBuff3[count];
+		vel = new VectorBuff3[count];
+		sPos = new Vec3Array(count);
+		sVel = new Vec3Array(count);
+		dist = new float[count];
+		for (int i = 0; i < count; i++) {
+			pos[i] = new VectorBuff3();
+			vel[i] = new VectorBuff3();
+			pos[i].setV(rand.nextFloat(), rand.nextFloat(), rand.nextFloat());
+			vel[i].setV(rand.nextFloat(), rand.nextFloat(), rand.nextFloat());
+			sPos.x[i] = pos[i].get(0);
+			sPos.y[i] = pos[i].get(1);
+			sPos.z[i] = pos[i].get(2);
+			sVel.x[i] = vel[i].get(0);
+			sVel.y[i] = vel[i].get(1);
+			sVel.z[i] = vel[i].get(2);
+		}
+	}
+
+	@Benchmark
+	public void objects(Blackhole bh) {
+		float best = Float.POSITIVE_INFINITY;
+		for (int i = 0; i < count; i++) {
+			pos[i].linearComb(1, vel[i], 1e-3f);
+			best = Math.min(best, pos[i].mag2());
+		}
+		bh.consume(best);
+	}
+
+	@Benchmark
+	public void soa(Blackhole bh) {
+		sPos.scaleAdd(1e-3f, sVel);
+		float best = Float.POSITIVE_INFINITY;
+		for (float d : sPos.distSquared(0, 0, 0, dist))
+			best = Math.min(best, d);
+		bh.consume(best);
+	}
+}
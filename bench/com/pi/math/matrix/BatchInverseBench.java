@@ -0,0 +1,83 @@
+package com.pi.math.matrix;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Inverse and normal matrices of a skinning palette: one
+ * {@link Trans3D#invertInto} call per {@link Matrix4} against
+ * {@link Matrix4Array#invertBatch}. With {@code mix=scaled} every other bone
+ * carries a non-uniform scale.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public class BatchInverseBench {
+	@Param({ "4096" })
+	public int count;
+
+	@Param({ "rigid", "scaled" })
+	public String mix;
+
+	private Matrix4[] bones, results;
+	private Matrix4Array packedBones, packedResults;
+
+	@Setup
+	public void setup() {
+		Random rand = new Random(1);
+		bones = new Matrix4[count];
+		results = new Matrix4[count];
+		packedBones = new Matrix4Array(count);
+		packedResults = new Matrix4Array(count);
+		for (int i = 0; i < count; i++) {
+			Trans3D[] pool = MatrixSamples.pool(MatrixSamples.Kind.Matrix4, true, i / MatrixSamples.POOL);
+			bones[i] = new Matrix4();
+			pool[i & MatrixSamples.MASK].copyTo(bones[i]);
+			if (mix.equals("scaled") && (i & 1) == 1)
+				bones[i].postMultiplyScale(.5f + rand.nextFloat(), .5f + rand.nextFloat(), .5f + rand.nextFloat());
+			results[i] = new Matrix4();
+			packedBones.store(i, bones[i]);
+		}
+	}
+
+	@Benchmark
+	public void invertObjects(Blackhole bh) {
+		for (int i = 0; i < count; i++)
+			bones[i].invertInto(results[i]);
+		bh.consume(results);
+	}
+
+	@Benchmark
+	public void invertBatch(Blackhole bh) {
+		bh.consume(Matrix4Array.invertBatch(packedResults, packedBones));
+	}
+
+	@Benchmark
+	public void normalObjects(Blackhole bh) {
+		for (int i = 0; i < count; i++)
+			bones[i].normalInto(results[i]);
+		bh.consume(results);
+	}
+
+	@Benchmark
+	public void normalBatch(Blackhole bh) {
+		bh.consume(Matrix4Array.normalBatch(packedResults, packedBones));
+	}
+}
@@ -0,0 +1,76 @@
+package com.pi.math.matrix;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.pi.math.matrix.MatrixSamples.Kind;
+
+/**
+ * A projection * view * parent * local * offset chain, multiplied left to
+ * right with {@link Matrix#postMul(Matrix)} against
+ * {@link Trans3D#chain(Trans3D...)}, and one {@link TransformChain} built in
+ * setup over fixed operands, as for a scene graph updated in place.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+@SuppressWarnings("rawtypes")
+public class ChainBench {
+	@Param({ "true", "false" })
+	public boolean flagged;
+
+	private Matrix4 projection, offset, dest;
+	private Trans3D[] view, parent, local;
+	private TransformChain builtOnce;
+	private int cursor;
+
+	@Setup
+	public void setup() {
+		projection = new Matrix4();
+		SpecialMatrix.perspective(projection, -1, 1, -1, 1, .1f, 100);
+		offset = new Matrix4().setTranslation(0, .5f, 0);
+		if (!flagged)
+			offset.makeDirty();
+		view = MatrixSamples.pool(Kind.Matrix4, flagged, 1);
+		parent = MatrixSamples.pool(Kind.Matrix4, flagged, 2);
+		local = MatrixSamples.pool(Kind.Matrix4, flagged, 3);
+		dest = new Matrix4();
+		builtOnce = new TransformChain(projection, view[0], parent[0], local[0], offset);
+	}
+
+	private int next() {
+		return cursor = (cursor + 1) & MatrixSamples.MASK;
+	}
+
+	@Benchmark
+	public void postMul(Blackhole bh) {
+		final int i = next();
+		bh.consume(dest.set(projection).postMul(view[i]).postMul(parent[i]).postMul(local[i]).postMul(offset));
+	}
+
+	@Benchmark
+	public void chain(Blackhole bh) {
+		final int i = next();
+		bh.consume(Trans3D.chain(projection, view[i], parent[i], local[i], offset).into(dest));
+	}
+
+	@Benchmark
+	public void builtOnce(Blackhole bh) {
+		bh.consume(builtOnce.into(dest));
+	}
+}
@@ -0,0 +1,68 @@
+package com.pi.math.matrix;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Square {@link MatrixN} products against a naive triple loop over the same
+ * column-major arrays. GFLOP/s = 2 n^3 / time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class GemmBench {
+	@Param({ "128", "512", "1024" })
+	public int n;
+
+	private MatrixN a, b, c;
+
+	@Setup
+	public void setup() {
+		Random rand = new Random(1);
+		a = new MatrixN(n, n);
+		b = new MatrixN(n, n);
+		c = new MatrixN(n, n);
+		for (int i = 0; i < n * n; i++) {
+			a.data()[i] = rand.nextFloat() * 2 - 1;
+			b.data()[i] = rand.nextFloat() * 2 - 1;
+		}
+	}
+
+	@Benchmark
+	public MatrixN naive() {
+		final float[] x = a.data(), y = b.data(), z = c.data();
+		for (int i = 0; i < n; i++)
+			for (int j = 0; j < n; j++) {
+				float s = 0;
+				for (int p = 0; p < n; p++)
+					s += x[p * n + i] * y[j * n + p];
+				z[j * n + i] = s;
+			}
+		return c;
+	}
+
+	@Benchmark
+	public MatrixN mul() {
+		return c.mul(a, b);
+	}
+
+	@Benchmark
+	public MatrixN mulTransposeLeft() {
+		return c.mulTransposeLeft(a, b);
+	}
+}
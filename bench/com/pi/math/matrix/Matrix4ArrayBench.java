@@ -0,0 +1,70 @@
+package com.pi.math.matrix;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.pi.math.matrix.MatrixSamples.Kind;
+
+/**
+ * One view-projection times many model matrices: separate {@link Matrix4}
+ * objects against a packed {@link Matrix4Array}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+@SuppressWarnings("rawtypes")
+public class Matrix4ArrayBench {
+	@Param({ "4096" })
+	public int count;
+
+	@Param({ "true", "false" })
+	public boolean flagged;
+
+	private Matrix4 viewProj;
+	private Matrix4[] models, results;
+	private Matrix4Array packedModels, packedResults;
+
+	@Setup
+	public void setup() {
+		viewProj = (Matrix4) MatrixSamples.pool(Kind.Matrix4, flagged, 1)[0];
+		models = new Matrix4[count];
+		results = new Matrix4[count];
+		packedModels = new Matrix4Array(count);
+		packedResults = new Matrix4Array(count);
+		for (int i = 0; i < count; i += MatrixSamples.POOL) {
+			Trans3D[] pool = MatrixSamples.pool(Kind.Matrix4, flagged, 2 + i);
+			for (int k = 0; k < pool.length && i + k < count; k++) {
+				models[i + k] = (Matrix4) pool[k];
+				results[i + k] = new Matrix4();
+				packedModels.store(i + k, models[i + k]);
+			}
+		}
+	}
+
+	@Benchmark
+	public void objects(Blackhole bh) {
+		for (int i = 0; i < count; i++)
+			results[i].mul(viewProj, models[i]);
+		bh.consume(results);
+	}
+
+	@Benchmark
+	public void packed(Blackhole bh) {
+		bh.consume(Matrix4Array.mulBatch(packedResults, viewProj, packedModels));
+	}
+}
@@ -0,0 +1,85 @@
+package com.pi.math.matrix;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.pi.math.matrix.MatrixSamples.Kind;
+
+/**
+ * Two-operand matrix operations for every pair of {@link Matrix3},
+ * {@link Matrix34} and {@link Matrix4}, with and without {@link Trans3D} flags.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public class MatrixPairBench {
+	@Param({ "Matrix3", "Matrix34", "Matrix4" })
+	public Kind lhsType;
+
+	@Param({ "Matrix3", "Matrix34", "Matrix4" })
+	public Kind rhsType;
+
+	@Param({ "true", "false" })
+	public boolean flagged;
+
+	private Trans3D[] lhs, rhs;
+	private float[] scalars;
+	private Trans3D dest, other;
+	private int cursor;
+
+	@Setup
+	public void setup() {
+		lhs = MatrixSamples.pool(lhsType, flagged, 1);
+		rhs = MatrixSamples.pool(rhsType, flagged, 2);
+		scalars = MatrixSamples.scalars(3);
+		dest = lhsType.make();
+		other = rhsType.make();
+	}
+
+	private int next() {
+		return cursor = (cursor + 1) & MatrixSamples.MASK;
+	}
+
+	@Benchmark
+	public void mul(Blackhole bh) {
+		final int i = next();
+		bh.consume(dest.mul(lhs[i], rhs[i]));
+	}
+
+	@Benchmark
+	public void invertInto(Blackhole bh) {
+		bh.consume(lhs[next()].invertInto(other));
+	}
+
+	@Benchmark
+	public void normalInto(Blackhole bh) {
+		bh.consume(lhs[next()].normalInto(other));
+	}
+
+	@Benchmark
+	public void copyTo(Blackhole bh) {
+		bh.consume(lhs[next()].copyTo(other));
+	}
+
+	@Benchmark
+	public void linearComb(Blackhole bh) {
+		final int i = next();
+		bh.consume(dest.linearComb(lhs[i], scalars[i], rhs[i], scalars[(i + 1) & MatrixSamples.MASK]));
+	}
+}
@@ -0,0 +1,71 @@
+package com.pi.math.matrix;
+
+import java.util.Random;
+
+/**
+ * Pre-generated benchmark inputs. Every pool is filled once during setup from a
+ * fixed seed, so no allocation or random number generation happens inside a
+ * measured method.
+ */
+@SuppressWarnings("rawtypes")
+public final class MatrixSamples {
+	// Pool size is a power of two so the cursor can wrap with a mask.
+	public static final int POOL = 64;
+	public static final int MASK = POOL - 1;
+
+	public enum Kind {
+		Matrix3, Matrix34, Matrix4;
+
+		public Trans3D make() {
+			switch (this) {
+			case Matrix3:
+				return new Matrix3();
+			case Matrix34:
+				return new Matrix34();
+			default:
+				return new Matrix4();
+			}
+		}
+	}
+
+	/**
+	 * Builds a pool of rigid transforms (rotation, plus translation where the
+	 * matrix has a fourth column).
+	 *
+	 * @param kind
+	 *            matrix type
+	 * @param flagged
+	 *            if false every matrix is forced to
+	 *            {@link Trans3D#FLAG_GENERAL}, disabling the fast paths.
+	 * @param seed
+	 *            random seed
+	 */
+	public static Trans3D[] pool(Kind kind, boolean flagged, long seed) {
+		Random rand = new Random(seed);
+		Trans3D[] res = new Trans3D[POOL];
+		for (int i = 0; i < POOL; i++) {
+			Trans3D m = kind.make();
+			float x = rand.nextFloat() - .5f, y = rand.nextFloat() - .5f, z = rand.nextFloat() - .5f;
+			float len = (float) Math.sqrt(x * x + y * y + z * z);
+			m.setAxisAngle(rand.nextFloat() * 6.2831855f, x / len, y / len, z / len);
+			if (m.columns() > 3)
+				SpecialMatrix.translation(m, rand.nextFloat() * 20 - 10, rand.nextFloat() * 20 - 10,
+						rand.nextFloat() * 20 - 10);
+			if (!flagged)
+				m.makeDirty();
+			res[i] = m;
+		}
+		return res;
+	}
+
+	public static float[] scalars(long seed) {
+		Random rand = new Random(seed);
+		float[] res = new float[POOL];
+		for (int i = 0; i < POOL; i++)
+			res[i] = rand.nextFloat() * 2 - 1;
+		return res;
+	}
+
+	private MatrixSamples() {
+	}
+}
@@ -0,0 +1,81 @@
+package com.pi.math.matrix;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.pi.math.matrix.MatrixSamples.Kind;
+
+/**
+ * Single-operand matrix operations for {@link Matrix3}, {@link Matrix34} and
+ * {@link Matrix4}, with and without {@link Trans3D} flags.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+@SuppressWarnings("rawtypes")
+public class MatrixUnaryBench {
+	@Param({ "Matrix3", "Matrix34", "Matrix4" })
+	public Kind type;
+
+	@Param({ "true", "false" })
+	public boolean flagged;
+
+	private Trans3D[] src;
+	private float[] scalars;
+	private int cursor;
+
+	@Setup
+	public void setup() {
+		src = MatrixSamples.pool(type, flagged, 1);
+		scalars = MatrixSamples.scalars(3);
+	}
+
+	private int next() {
+		return cursor = (cursor + 1) & MatrixSamples.MASK;
+	}
+
+	@Benchmark
+	public void transposeInPlace(Blackhole bh) {
+		// Transposing twice restores the pooled input's values, but its flags
+		// only grow, so put them back too or flagged runs turn general.
+		final Trans3D m = src[next()];
+		final int flags = m.flags;
+		bh.consume(m.transposeInPlace().transposeInPlace());
+		m.flags = flags;
+	}
+
+	@Benchmark
+	public void setFlags(Blackhole bh) {
+		final Trans3D m = src[next()];
+		m.setFlags();
+		bh.consume(m.flags);
+		if (!flagged)
+			m.makeDirty();
+	}
+
+	@Benchmark
+	public void multiply(Blackhole bh) {
+		final int i = next();
+		final Trans3D m = src[i];
+		final int flags = m.flags;
+		final float s = scalars[i];
+		// Scaling by s and 1/s keeps the pooled input bounded.
+		bh.consume(m.multiply(s).multiply(1 / s));
+		m.flags = flags;
+	}
+}
@@ -0,0 +1,70 @@
+package com.pi.math.matrix;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.pi.math.vector.VectorBuff3;
+
+/**
+ * The same matrix and vector math on direct-buffer storage and on
+ * {@code onHeap()} float-array storage.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StorageBench {
+	@Param({ "direct", "heap" })
+	public String storage;
+
+	private Matrix4 a, b, dest, inv;
+	private VectorBuff3 v, out;
+
+	@Setup
+	public void setup() {
+		final boolean heap = storage.equals("heap");
+		a = heap ? Matrix4.onHeap() : new Matrix4();
+		b = heap ? Matrix4.onHeap() : new Matrix4();
+		dest = heap ? Matrix4.onHeap() : new Matrix4();
+		inv = heap ? Matrix4.onHeap() : new Matrix4();
+		v = heap ? VectorBuff3.onHeap() : new VectorBuff3();
+		out = heap ? VectorBuff3.onHeap() : new VectorBuff3();
+		a.setAxisAngle(.5f, 0, .6f, .8f).addTranslation(1, 2, 3).makeDirty();
+		b.setAxisAngle(-.3f, .8f, 0, .6f).addTranslation(-1, 0, 2).makeDirty();
+		v.setV(1, 2, 3);
+	}
+
+	@Benchmark
+	public void mul(Blackhole bh) {
+		bh.consume(dest.mul(a, b));
+	}
+
+	@Benchmark
+	public void invert(Blackhole bh) {
+		bh.consume(a.invertInto(inv));
+	}
+
+	@Benchmark
+	public void transform(Blackhole bh) {
+		bh.consume(a.transform4(out, v));
+	}
+
+	@Benchmark
+	public void vectorOps(Blackhole bh) {
+		bh.consume(out.set(v).add(v).multiply(.5f).normalize());
+	}
+}
@@ -0,0 +1,89 @@
+package com.pi.math.matrix;
+
+import java.nio.FloatBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.pi.math.BufferProvider;
+import com.pi.math.vector.VectorBuff3;
+
+/**
+ * Transforming an interleaved position/normal vertex buffer one
+ * {@link VectorBuff3} at a time against {@link Trans3D#transformPoints} and
+ * {@link Trans3D#transformPointsParallel}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TransformPointsBench {
+	// Floats per vertex: position, normal
+	private static final int STRIDE = 6;
+
+	@Param({ "65536" })
+	public int count;
+
+	@Param({ "translation", "rigid", "general" })
+	public String shape;
+
+	private Matrix4 m;
+	private FloatBuffer src, dst;
+	private VectorBuff3 in, out;
+
+	@Setup
+	public void setup() {
+		m = new Matrix4().makeIdentity();
+		if (shape.equals("translation")) {
+			m.setTranslation(1, 2, 3);
+		} else {
+			m.setAxisAngle(.5f, 0, .6f, .8f).addTranslation(1, 2, 3);
+			if (shape.equals("general"))
+				m.makeDirty();
+		}
+		Random rand = new Random(1);
+		src = BufferProvider.createFloatBuffer(count * STRIDE);
+		dst = BufferProvider.createFloatBuffer(count * STRIDE);
+		for (int i = 0; i < count * STRIDE; i++)
+			src.put(i, rand.nextFloat());
+		in = new VectorBuff3();
+		out = new VectorBuff3();
+	}
+
+	@Benchmark
+	public void perVertex(Blackhole bh) {
+		for (int i = 0; i < count; i++) {
+			final int o = i * STRIDE;
+			in.setV(src.get(o), src.get(o + 1), src.get(o + 2));
+			m.transform4(out, in);
+			dst.put(o, out.get(0));
+			dst.put(o + 1, out.get(1));
+			dst.put(o + 2, out.get(2));
+		}
+		bh.consume(dst);
+	}
+
+	@Benchmark
+	public void bulk(Blackhole bh) {
+		bh.consume(m.transformPoints(src, 0, STRIDE, dst, 0, STRIDE, count));
+	}
+
+	@Benchmark
+	public void bulkParallel(Blackhole bh) {
+		bh.consume(m.transformPointsParallel(src, 0, STRIDE, dst, 0, STRIDE, count));
+	}
+}
@@ -0,0 +1,107 @@
+package com.pi.math.vector;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * {@link Vector} operations called through a {@code Vector} reference. With
+ * {@code mix=mono} every call site sees one class; with {@code mix=mega} they
+ * see VectorBuff2, VectorBuff3, VectorBuff4 and ByteVector4.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class VectorDispatchBench {
+	private static final int COUNT = 1024;
+
+	@Param({ "mono", "mega" })
+	public String mix;
+
+	private Vector[] a, b, dest;
+
+	private static Vector make(int kind, Random rand) {
+		final Vector v;
+		switch (kind) {
+		case 0:
+			v = new VectorBuff3();
+			break;
+		case 1:
+			v = new VectorBuff2();
+			break;
+		case 2:
+			v = new VectorBuff4();
+			break;
+		default:
+			v = new ByteVector4();
+			break;
+		}
+		for (int i = 0; i < v.dimension(); i++)
+			v.set(i, rand.nextFloat());
+		return v;
+	}
+
+	@Setup
+	public void setup() {
+		Random rand = new Random(1);
+		a = new Vector[COUNT];
+		b = new Vector[COUNT];
+		dest = new Vector[COUNT];
+		for (int i = 0; i < COUNT; i++) {
+			final int kind = mix.equals("mono") ? 0 : i & 3;
+			a[i] = make(kind, rand);
+			b[i] = make(kind, rand);
+			dest[i] = make(kind, rand);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(COUNT)
+	public void dot(Blackhole bh) {
+		float s = 0;
+		for (int i = 0; i < COUNT; i++)
+			s += a[i].dot(b[i]);
+		bh.consume(s);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(COUNT)
+	public void linearComb(Blackhole bh) {
+		for (int i = 0; i < COUNT; i++)
+			dest[i].linearComb(a[i], .5f, b[i], .25f);
+		bh.consume(dest);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(COUNT)
+	public void addSubtract(Blackhole bh) {
+		for (int i = 0; i < COUNT; i++)
+			dest[i].add(a[i]).subtract(b[i]);
+		bh.consume(dest);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(COUNT)
+	public void distSquared(Blackhole bh) {
+		float s = 0;
+		for (int i = 0; i < COUNT; i++)
+			s += a[i].distSquared(b[i]);
+		bh.consume(s);
+	}
+}
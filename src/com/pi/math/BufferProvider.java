@@ -1,8 +1,17 @@
 package com.pi.math;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
 import java.nio.FloatBuffer;
 
+/**
+ * Source of the direct buffers backing vectors and matrices. The default
+ * makes one native-order direct allocation per request;
+ * {@link SlabBufferProvider} packs small buffers into shared chunks.
+ * {@link #createHeapFloatBuffer(int)} bypasses the provider for storage that
+ * stays on the Java heap.
+ */
 public abstract class BufferProvider {
 	private static BufferProvider provider = new DefaultBufferProvider();
 
@@ -14,6 +23,22 @@ public abstract class BufferProvider {
 		return provider.nFloatBuffer(n);
 	}
 
+	public static DoubleBuffer createDoubleBuffer(int n) {
+		return provider.nDoubleBuffer(n);
+	}
+
+	public static DoubleBuffer createHeapDoubleBuffer(int n) {
+		return DoubleBuffer.wrap(new double[n]);
+	}
+
+	/**
+	 * @return a buffer over a plain {@code float[]}. Use it for math that never
+	 *         leaves the JVM; it can't be handed to native code.
+	 */
+	public static FloatBuffer createHeapFloatBuffer(int n) {
+		return FloatBuffer.wrap(new float[n]);
+	}
+
 	public static void provider(BufferProvider pvd) {
 		provider = pvd;
 	}
@@ -22,6 +47,10 @@ public abstract class BufferProvider {
 
 	protected abstract FloatBuffer nFloatBuffer(int n);
 
+	protected DoubleBuffer nDoubleBuffer(int n) {
+		return nByteBuffer(n * 8).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+	}
+
 	private static class DefaultBufferProvider extends BufferProvider {
 		@Override
 		protected ByteBuffer nByteBuffer(int n) {
@@ -30,7 +59,7 @@ public abstract class BufferProvider {
 
 		@Override
 		protected FloatBuffer nFloatBuffer(int n) {
-			return ByteBuffer.allocateDirect(n * 4).asFloatBuffer();
+			return ByteBuffer.allocateDirect(n * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
 		}
 	}
 }
@@ -1,45 +1,102 @@
 package com.pi.math;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Map.Entry;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 import com.pi.math.matrix.Matrix;
 import com.pi.math.matrix.Matrix3;
 import com.pi.math.matrix.Matrix34;
 import com.pi.math.matrix.Matrix4;
 import com.pi.math.vector.VectorBuff;
+import com.pi.math.vector.VectorBuff2;
 import com.pi.math.vector.VectorBuff3;
+import com.pi.math.vector.VectorBuff4;
 
+/**
+ * Pools of temporary vectors and matrices.
+ * <p>
+ * Each thread checks objects in and out of its own magazine (a small stack per
+ * type), so the fast path is uncontended. When a magazine runs dry it swaps in
+ * a full one from a shared lock-free depot; when it overflows it hands the full
+ * magazine to the depot. Objects checked out on one thread may be checked in on
+ * another. When a thread checks in more objects than its magazine holds,
+ * having held that many at once, the magazine grows toward that count, at most
+ * doubling per step. Objects checked in on another thread, or not checked in
+ * within a window of checkouts, stop counting against the thread that took
+ * them, so hand-offs and leaks don't ratchet it. Hits, misses and drops are counted per pool (see
+ * {@link #stats()} and {@link #registerMBeans()}).
+ * <p>
+ * Objects that are never checked back in can be found at runtime with
+ * {@link #leakDetection(int)}, which records the call site of a sample of
+ * checkouts and reports those that are garbage collected while still out.
+ * <p>
+ * Temporaries that don't outlive a method are better served by a
+ * {@link Frame}, which needs no check-in:
+ *
+ * <pre>
+ * try (Heap.Frame f = Heap.frame()) {
+ * 	VectorBuff3 a = f.vec3();
+ * 	...
+ * }
+ * </pre>
+ */
 @SuppressWarnings({ "unchecked", "rawtypes" })
 public class Heap {
-	// 1-4D vectors
-	private static final int[] VECTOR_HEAP_SIZE = new int[4];
-	private static final VectorBuff[][] VECTOR_HEAP = new VectorBuff[4][];
+	// 1-4D vectors, then 0 -> Matrix4, 1 -> Matrix3, 2 -> Matrix34
+	private static final int VECTOR_POOLS = 4;
+	private static final int MATRIX_POOLS = 3;
+	private static final Pool[] POOLS = new Pool[VECTOR_POOLS + MATRIX_POOLS];
+
+	// Full magazines the depot holds per pool beyond which check-ins are
+	// dropped.
+	private static final int DEPOT_LIMIT = 8;
+	// Magazines grow to the observed high-water mark, up to this size.
+	private static final int MAX_CAPACITY = 4096;
+	// Checkouts per thread after which objects held since the window began
+	// are no longer counted as outstanding.
+	private static final int WINDOW = 1024;
 
 	static {
-		for (int d = 0; d < VECTOR_HEAP.length; d++) {
-			VECTOR_HEAP[d] = new VectorBuff[d + 1 == 3 ? 128 : 16];
-			while (VECTOR_HEAP_SIZE[d] < VECTOR_HEAP[d].length)
-				VECTOR_HEAP[d][VECTOR_HEAP_SIZE[d]++] = VectorBuff.make(d + 1);
+		for (int d = 0; d < VECTOR_POOLS; d++)
+			POOLS[d] = new Pool(d, "Vector" + (d + 1), d + 1 == 3 ? 128 : 16);
+		POOLS[VECTOR_POOLS] = new Pool(VECTOR_POOLS, "Matrix4", 8);
+		POOLS[VECTOR_POOLS + 1] = new Pool(VECTOR_POOLS + 1, "Matrix3", 8);
+		POOLS[VECTOR_POOLS + 2] = new Pool(VECTOR_POOLS + 2, "Matrix34", 8);
+		// Same initial population as one thread's worth of magazines.
+		for (int p = 0; p < POOLS.length; p++) {
+			Object[] full = new Object[POOLS[p].capacity.get()];
+			for (int i = 0; i < full.length; i++)
+				full[i] = make(p);
+			POOLS[p].offer(full);
 		}
 	}
 
-	// 3D and 4D matrices
-	// 0 -> Matrix4, 1 -> Matrix3
-	private static final int[] MATRIX_HEAP_SIZE = new int[4];
-	private static final Matrix[][] MATRIX_HEAP = new Matrix[4][];
-
-	static {
-		for (int d = 0; d < MATRIX_HEAP.length; d++) {
-			MATRIX_HEAP[d] = new Matrix[8];
-			while (MATRIX_HEAP_SIZE[d] < MATRIX_HEAP[d].length)
-				MATRIX_HEAP[d][MATRIX_HEAP_SIZE[d]++] = makeM(d);
+	private static final ThreadLocal<Magazine[]> MAGAZINES = ThreadLocal.withInitial(new Supplier<Magazine[]>() {
+		@Override
+		public Magazine[] get() {
+			Magazine[] res = new Magazine[POOLS.length];
+			for (int p = 0; p < res.length; p++)
+				res[p] = new Magazine(POOLS[p]);
+			return res;
 		}
-	}
+	});
 
-	private static final boolean HEAP_WATCH = false;
-	private static final Map<Integer, Data> owner = new HashMap<>();
+	private static final ThreadLocal<Arena> ARENAS = ThreadLocal.withInitial(new Supplier<Arena>() {
+		@Override
+		public Arena get() {
+			return new Arena();
+		}
+	});
 
 	public static void checkin(Matrix... vs) {
 		for (Matrix v : vs) {
@@ -55,35 +112,36 @@ public class Heap {
 	}
 
 	public static void checkin(Matrix m, int dim) {
-		if (dim < 0 || dim >= MATRIX_HEAP.length || MATRIX_HEAP_SIZE[dim] >= MATRIX_HEAP[dim].length)
+		if (dim < 0 || dim >= MATRIX_POOLS)
 			return;
-		MATRIX_HEAP[dim][MATRIX_HEAP_SIZE[dim]++] = m;
-		if (HEAP_WATCH)
-			unwatch(m);
+		if (LeakDetector.sampleEvery > 0)
+			LeakDetector.checkin(m);
+		MAGAZINES.get()[VECTOR_POOLS + dim].put(m);
 	}
 
 	public static void checkin(VectorBuff... vs) {
+		Magazine[] mags = null;
 		for (VectorBuff v : vs) {
 			if (v == null)
 				continue;
 			int dim = v.dimension();
-			if (dim <= 0 || dim > VECTOR_HEAP.length || VECTOR_HEAP_SIZE[dim - 1] >= VECTOR_HEAP[dim - 1].length)
+			if (dim <= 0 || dim > VECTOR_POOLS)
 				continue;
-			VECTOR_HEAP[dim - 1][VECTOR_HEAP_SIZE[dim - 1]++] = v;
-			if (HEAP_WATCH)
-				unwatch(v);
+			if (mags == null)
+				mags = MAGAZINES.get();
+			if (LeakDetector.sampleEvery > 0)
+				LeakDetector.checkin(v);
+			mags[dim - 1].put(v);
 		}
 	}
 
 	public static <T extends VectorBuff> T checkout(int dim) {
-		if (dim <= 0 || dim > VECTOR_HEAP.length || VECTOR_HEAP_SIZE[dim - 1] <= 0) {
-			T res = (T) VectorBuff.make(dim);
-			System.out.println("Vector heap miss " + res.getClass().getSimpleName());
-			return res;
-		}
-		T tt = (T) VECTOR_HEAP[dim - 1][--VECTOR_HEAP_SIZE[dim - 1]];
-		if (HEAP_WATCH)
-			watch(tt);
+		if (dim <= 0 || dim > VECTOR_POOLS)
+			return (T) VectorBuff.make(dim);
+		T tt = (T) MAGAZINES.get()[dim - 1].take();
+		final int every = LeakDetector.sampleEvery;
+		if (every > 0)
+			LeakDetector.checkout(tt, every);
 		return tt;
 	}
 
@@ -92,14 +150,12 @@ public class Heap {
 	}
 
 	public static Matrix checkoutM(int dim) {
-		if (dim < 0 || dim >= MATRIX_HEAP.length || MATRIX_HEAP_SIZE[dim] <= 0) {
-			Matrix res = makeM(dim);
-			System.out.println("Matrix heap miss " + res.getClass().getSimpleName());
-			return res;
-		}
-		Matrix o = MATRIX_HEAP[dim][--MATRIX_HEAP_SIZE[dim]];
-		if (HEAP_WATCH)
-			watch(o);
+		if (dim < 0 || dim >= MATRIX_POOLS)
+			return null;
+		Matrix o = (Matrix) MAGAZINES.get()[VECTOR_POOLS + dim].take();
+		final int every = LeakDetector.sampleEvery;
+		if (every > 0)
+			LeakDetector.checkout(o, every);
 		return o;
 	}
 
@@ -115,6 +171,75 @@ public class Heap {
 		return (Matrix4) checkoutM(0);
 	}
 
+	/**
+	 * Opens a scope on this thread's temporary stack. Everything handed out by
+	 * the frame is released when it is closed; frames must be closed in the
+	 * reverse order they were opened, and only the innermost open frame may
+	 * hand out objects.
+	 */
+	public static Frame frame() {
+		return ARENAS.get().push();
+	}
+
+	/**
+	 * Registers a {@link HeapPoolMXBean} for every pool with the platform MBean
+	 * server. Pools that are already registered are skipped.
+	 */
+	public static void registerMBeans() {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		for (Pool p : POOLS) {
+			try {
+				ObjectName name = new ObjectName("com.pi.math:type=Heap,pool=" + p.name);
+				if (!server.isRegistered(name))
+					server.registerMBean(p, name);
+			} catch (JMException e) {
+				throw new IllegalStateException("Failed to register heap pool " + p.name, e);
+			}
+		}
+	}
+
+	/**
+	 * @return live counters for each pool: 1-4D vectors, then Matrix4,
+	 *         Matrix3 and Matrix34.
+	 */
+	public static List<HeapPoolMXBean> stats() {
+		return Collections.unmodifiableList(Arrays.<HeapPoolMXBean> asList(POOLS));
+	}
+
+	/**
+	 * Turns sampled leak detection on or off. One in every {@code sampleEvery}
+	 * checkouts records its call site; a sampled object that is garbage
+	 * collected before being checked in is counted against that site by
+	 * {@link #leaks()}. Zero turns detection off and forgets everything
+	 * recorded so far. Frame temporaries are never sampled.
+	 */
+	public static void leakDetection(int sampleEvery) {
+		if (sampleEvery < 0)
+			throw new IllegalArgumentException("Sample rate must be non-negative: " + sampleEvery);
+		LeakDetector.sampleEvery = sampleEvery;
+		if (sampleEvery == 0)
+			LeakDetector.reset();
+	}
+
+	/**
+	 * @return the current leak detection sample rate, or 0 if it is off
+	 */
+	public static int leakDetection() {
+		return LeakDetector.sampleEvery;
+	}
+
+	/**
+	 * @return the call sites of sampled objects that were garbage collected
+	 *         without being checked in, with how many times each leaked
+	 */
+	public static List<Leak> leaks() {
+		return LeakDetector.report();
+	}
+
+	private static Object make(int pool) {
+		return pool < VECTOR_POOLS ? VectorBuff.make(pool + 1) : makeM(pool - VECTOR_POOLS);
+	}
+
 	private static Matrix makeM(int dim) {
 		switch (dim) {
 		case 0:
@@ -129,39 +254,325 @@ public class Heap {
 	}
 
 	public static void printHeapDebug() {
-		// System.out.print(" - Vector Heaps \t");
-		// for (int k = 0; k < VECTOR_HEAP.length; k++)
-		// System.out.print(VECTOR_HEAP_SIZE[k] + "\t");
-		// System.out.println();
-		// System.out.print(" - Matrix Heaps \t");
-		// for (int k = 0; k < MATRIX_HEAP.length; k++)
-		// System.out.print(MATRIX_HEAP_SIZE[k] + "\t");
-		// System.out.println();
-		if (HEAP_WATCH) {
-			for (Entry<Integer, Data> e : owner.entrySet()) {
-				System.err.println(e.getValue().o.getClass().getSimpleName());
-				for (int k = 3; k < Math.min(10, e.getValue().d.length); k++) {
-					System.err.println(" " + e.getValue().d[k]);
-				}
-			}
+		if (LeakDetector.sampleEvery == 0)
+			return;
+		System.err.println("Heap: " + LeakDetector.outstanding() + " sampled objects checked out");
+		for (Leak l : leaks()) {
+			System.err.println(l.type + " leaked " + l.count + "x from");
+			for (int k = 0; k < Math.min(7, l.site.length); k++)
+				System.err.println(" " + l.site[k]);
+		}
+	}
+
+	/**
+	 * A call site that checked out objects which were never checked in.
+	 */
+	public static final class Leak {
+		/**
+		 * Simple class name of the leaked objects.
+		 */
+		public final String type;
+		/**
+		 * Stack at the checkout, starting with the caller of {@link Heap}.
+		 */
+		public final StackTraceElement[] site;
+		/**
+		 * Number of sampled objects from this site that leaked.
+		 */
+		public final long count;
+
+		Leak(String type, StackTraceElement[] site, long count) {
+			this.type = type;
+			this.site = site;
+			this.count = count;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Leak))
+				return false;
+			Leak l = (Leak) o;
+			return type.equals(l.type) && Arrays.equals(site, l.site);
+		}
+
+		@Override
+		public int hashCode() {
+			return type.hashCode() * 31 + Arrays.hashCode(site);
+		}
+	}
+
+	/**
+	 * A scope of temporaries bump-allocated from a per-thread stack. Objects
+	 * keep whatever values they last held.
+	 */
+	public static final class Frame implements AutoCloseable {
+		private final Arena arena;
+		private final int depth;
+		private final int[] marks = new int[POOLS.length];
+
+		private Frame(Arena arena, int depth) {
+			this.arena = arena;
+			this.depth = depth;
+		}
+
+		@Override
+		public void close() {
+			arena.pop(this);
+		}
+
+		public Matrix3 mat3() {
+			return (Matrix3) arena.next(this, VECTOR_POOLS + 1);
+		}
+
+		public Matrix34 mat34() {
+			return (Matrix34) arena.next(this, VECTOR_POOLS + 2);
+		}
+
+		public Matrix4 mat4() {
+			return (Matrix4) arena.next(this, VECTOR_POOLS);
+		}
+
+		/**
+		 * @return a vector of the given dimension. Dimensions above 4 aren't
+		 *         stacked and are freshly allocated.
+		 */
+		public <T extends VectorBuff> T vec(int dim) {
+			if (dim <= 0 || dim > VECTOR_POOLS)
+				return (T) VectorBuff.make(dim);
+			return (T) arena.next(this, dim - 1);
+		}
+
+		public VectorBuff2 vec2() {
+			return (VectorBuff2) arena.next(this, 1);
+		}
+
+		public VectorBuff3 vec3() {
+			return (VectorBuff3) arena.next(this, 2);
+		}
+
+		public VectorBuff4 vec4() {
+			return (VectorBuff4) arena.next(this, 3);
 		}
 	}
 
-	private static void unwatch(Object o) {
-		owner.remove(System.identityHashCode(o));
+	// Thread-confined stacks backing Frame.
+	private static final class Arena {
+		private final Object[][] stacks = new Object[POOLS.length][16];
+		private final int[] top = new int[POOLS.length];
+		private Frame[] frames = new Frame[8];
+		private int depth;
+
+		private Object next(Frame f, int pool) {
+			if (f.depth != depth - 1)
+				throw new IllegalStateException("Frame is closed or not the innermost frame");
+			Object[] stack = stacks[pool];
+			final int t = top[pool]++;
+			if (t == stack.length)
+				stack = stacks[pool] = Arrays.copyOf(stack, stack.length * 2);
+			if (stack[t] == null)
+				stack[t] = make(pool);
+			return stack[t];
+		}
+
+		private void pop(Frame f) {
+			if (f.depth != depth - 1)
+				throw new IllegalStateException("Frames must be closed innermost first");
+			System.arraycopy(f.marks, 0, top, 0, top.length);
+			depth--;
+		}
+
+		private Frame push() {
+			if (depth == frames.length)
+				frames = Arrays.copyOf(frames, frames.length * 2);
+			Frame f = frames[depth];
+			if (f == null)
+				f = frames[depth] = new Frame(this, depth);
+			System.arraycopy(top, 0, f.marks, 0, top.length);
+			depth++;
+			return f;
+		}
 	}
 
-	private static void watch(Object o) {
-		owner.put(System.identityHashCode(o), new Data(o));
+	// Shared depot of full magazines and counters for one object type.
+	private static final class Pool implements HeapPoolMXBean {
+		private final String name;
+		private final int pool;
+		// Only ever raised, through grow.
+		private final AtomicInteger capacity;
+		private final ConcurrentLinkedQueue<Object[]> depot = new ConcurrentLinkedQueue<>();
+		private final AtomicInteger depotSize = new AtomicInteger();
+		private final AtomicInteger highWater = new AtomicInteger();
+		// Check-ins on threads that had nothing outstanding, not yet claimed
+		// by the threads that checked the objects out.
+		private final AtomicInteger handedBack = new AtomicInteger();
+		private final LongAdder hits = new LongAdder(), misses = new LongAdder(), drops = new LongAdder();
+
+		private Pool(int pool, String name, int capacity) {
+			this.pool = pool;
+			this.name = name;
+			this.capacity = new AtomicInteger(capacity);
+		}
+
+		@Override
+		public int getCapacity() {
+			return capacity.get();
+		}
+
+		@Override
+		public long getDrops() {
+			return drops.sum();
+		}
+
+		@Override
+		public int getHighWaterMark() {
+			return highWater.get();
+		}
+
+		@Override
+		public long getHits() {
+			return hits.sum();
+		}
+
+		@Override
+		public long getMisses() {
+			return misses.sum();
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+
+		// Takes up to max check-ins that other threads made on our behalf.
+		private int claim(int max) {
+			int n;
+			while (max > 0 && (n = handedBack.get()) > 0) {
+				final int k = Math.min(n, max);
+				if (handedBack.compareAndSet(n, n - k))
+					return k;
+			}
+			return 0;
+		}
+
+		private void handBack() {
+			if (handedBack.get() < MAX_CAPACITY)
+				handedBack.incrementAndGet();
+		}
+
+		// Raises capacity to at least n, up to MAX_CAPACITY.
+		private int grow(int n) {
+			return capacity.accumulateAndGet(Math.min(MAX_CAPACITY, n), Math::max);
+		}
+
+		// Called when a thread's outstanding count passes its previous best
+		// in the current window.
+		private void observe(int outstanding) {
+			int prev;
+			while (outstanding > (prev = highWater.get()))
+				if (highWater.compareAndSet(prev, outstanding))
+					return;
+		}
+
+		@Override
+		public void reset() {
+			hits.reset();
+			misses.reset();
+			drops.reset();
+		}
+
+		private boolean offer(Object[] full) {
+			if (depotSize.incrementAndGet() > DEPOT_LIMIT) {
+				depotSize.decrementAndGet();
+				return false;
+			}
+			depot.offer(full);
+			return true;
+		}
+
+		private Object[] poll() {
+			Object[] full = depot.poll();
+			if (full != null)
+				depotSize.decrementAndGet();
+			return full;
+		}
 	}
 
-	private static class Data {
-		private StackTraceElement[] d;
-		private Object o;
+	// Thread-confined stack of pooled objects.
+	private static final class Magazine {
+		private final Pool pool;
+		private Object[] items;
+		private int size;
+		// Objects this thread has checked out and not returned, its peak and
+		// its low point in the current window, and checkouts in the window.
+		private int outstanding, highWater, low, takes;
+
+		private Magazine(Pool pool) {
+			this.pool = pool;
+			this.items = new Object[pool.capacity.get()];
+		}
+
+		private void put(Object o) {
+			if (outstanding > 0) {
+				if (--outstanding < low)
+					low = outstanding;
+			} else {
+				// Checked out on another thread; let that thread's count fall.
+				pool.handBack();
+			}
+			if (size == items.length) {
+				final int capacity = pool.capacity.get();
+				if (items.length < capacity) {
+					// Pool has grown since this magazine was made.
+					items = Arrays.copyOf(items, capacity);
+				} else if (highWater > items.length && items.length < MAX_CAPACITY) {
+					// This thread has held more than fits. Grow only here, where
+					// objects come back, so leaks and hand-offs never grow it.
+					items = Arrays.copyOf(items, pool.grow(Math.min(highWater, items.length * 2)));
+				} else if (pool.offer(items)) {
+					// Handed the full magazine to the depot.
+					items = new Object[pool.capacity.get()];
+					size = 0;
+				} else {
+					pool.drops.increment();
+					return;
+				}
+			}
+			items[size++] = o;
+		}
+
+		private Object take() {
+			if (++outstanding > highWater) {
+				outstanding -= pool.claim(outstanding - 1);
+				if (outstanding < low)
+					low = outstanding;
+				if (outstanding > highWater) {
+					highWater = outstanding;
+					pool.observe(outstanding);
+				}
+			}
+			if (++takes == WINDOW)
+				endWindow();
+			if (size == 0) {
+				Object[] full = pool.poll();
+				if (full == null) {
+					pool.misses.increment();
+					return make(pool.pool);
+				}
+				items = full;
+				size = full.length;
+			}
+			pool.hits.increment();
+			Object o = items[--size];
+			items[size] = null;
+			return o;
+		}
 
-		public Data(Object o) {
-			this.o = o;
-			this.d = Thread.currentThread().getStackTrace();
+		// Objects held the whole window were handed off or leaked; stop
+		// counting them and start measuring the peak afresh.
+		private void endWindow() {
+			outstanding -= low;
+			highWater = low = outstanding;
+			takes = 0;
 		}
 	}
 }
@@ -0,0 +1,39 @@
+package com.pi.math;
+
+/**
+ * Counters for one {@link Heap} pool. Registered under
+ * {@code com.pi.math:type=Heap,pool=<name>} by {@link Heap#registerMBeans()}.
+ */
+public interface HeapPoolMXBean {
+	/**
+	 * @return checkouts served from the pool
+	 */
+	public long getHits();
+
+	/**
+	 * @return checkouts that had to allocate a new object
+	 */
+	public long getMisses();
+
+	/**
+	 * @return check-ins discarded because the pool was full
+	 */
+	public long getDrops();
+
+	/**
+	 * @return the most objects any one thread has had checked out at once
+	 */
+	public int getHighWaterMark();
+
+	/**
+	 * @return the current per-thread magazine capacity
+	 */
+	public int getCapacity();
+
+	public String getName();
+
+	/**
+	 * Zeroes the hit, miss and drop counters.
+	 */
+	public void reset();
+}
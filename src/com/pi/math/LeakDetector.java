@@ -0,0 +1,144 @@
+package com.pi.math;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Sampling detector for Heap objects that are garbage collected without being
+// checked back in. Only touched when sampleEvery > 0.
+final class LeakDetector {
+	static volatile int sampleEvery;
+
+	private static final ReferenceQueue<Object> collected = new ReferenceQueue<>();
+	// Sampled objects, chained by identity hash under a lock per bucket.
+	// Lookups compare referents, so a check-in needs no probe object.
+	private static final int BUCKETS = 256;
+	private static final Tracked[] buckets = new Tracked[BUCKETS];
+	private static final Object[] locks = new Object[BUCKETS];
+	private static final AtomicInteger count = new AtomicInteger();
+	private static final ConcurrentHashMap<Heap.Leak, LongAdder> leaks = new ConcurrentHashMap<>();
+
+	static {
+		for (int b = 0; b < BUCKETS; b++)
+			locks[b] = new Object();
+	}
+
+	private static int bucket(int hash) {
+		return hash & (BUCKETS - 1);
+	}
+
+	// Removes and returns the entry of bucket b that is node, or whose
+	// referent is o. Caller holds locks[b].
+	private static Tracked unlink(int b, Tracked node, Object o) {
+		Tracked prev = null;
+		for (Tracked t = buckets[b]; t != null; prev = t, t = t.next)
+			if (t == node || (o != null && t.get() == o)) {
+				if (prev == null)
+					buckets[b] = t.next;
+				else
+					prev.next = t.next;
+				count.decrementAndGet();
+				return t;
+			}
+		return null;
+	}
+
+	static void checkin(Object o) {
+		if (count.get() == 0)
+			return;
+		final int b = bucket(System.identityHashCode(o));
+		synchronized (locks[b]) {
+			unlink(b, null, o);
+		}
+	}
+
+	static void checkout(Object o, int every) {
+		if (ThreadLocalRandom.current().nextInt(every) != 0)
+			return;
+		StackTraceElement[] trace = new Throwable().getStackTrace();
+		// Trim the frames inside the pool itself.
+		int from = 0;
+		while (from < trace.length && (trace[from].getClassName().equals(LeakDetector.class.getName())
+				|| trace[from].getClassName().startsWith(Heap.class.getName())))
+			from++;
+		Tracked t = new Tracked(o, collected, new Heap.Leak(o.getClass().getSimpleName(),
+				Arrays.copyOfRange(trace, from, trace.length), 0));
+		final int b = bucket(t.hash);
+		synchronized (locks[b]) {
+			// A re-sample replaces the old entry, so the leak is charged to the
+			// latest checkout.
+			unlink(b, null, o);
+			t.next = buckets[b];
+			buckets[b] = t;
+			count.incrementAndGet();
+		}
+		drain();
+	}
+
+	private static void drain() {
+		Object r;
+		while ((r = collected.poll()) != null) {
+			final Tracked t = (Tracked) r;
+			final int b = bucket(t.hash);
+			final Tracked found;
+			synchronized (locks[b]) {
+				found = unlink(b, t, null);
+			}
+			if (found != null) {
+				LongAdder n = leaks.get(t.site);
+				if (n == null) {
+					LongAdder fresh = new LongAdder();
+					n = leaks.putIfAbsent(t.site, fresh);
+					if (n == null)
+						n = fresh;
+				}
+				n.increment();
+			}
+		}
+	}
+
+	static int outstanding() {
+		drain();
+		return count.get();
+	}
+
+	static List<Heap.Leak> report() {
+		drain();
+		List<Heap.Leak> res = new ArrayList<>(leaks.size());
+		for (Entry<Heap.Leak, LongAdder> e : leaks.entrySet())
+			res.add(new Heap.Leak(e.getKey().type, e.getKey().site, e.getValue().sum()));
+		return res;
+	}
+
+	static void reset() {
+		for (int b = 0; b < BUCKETS; b++)
+			synchronized (locks[b]) {
+				while (buckets[b] != null)
+					unlink(b, buckets[b], null);
+			}
+		leaks.clear();
+	}
+
+	// Weak handle on a sampled object, chained within its bucket.
+	private static final class Tracked extends WeakReference<Object> {
+		private final int hash;
+		private final Heap.Leak site;
+		private Tracked next;
+
+		private Tracked(Object o, ReferenceQueue<Object> q, Heap.Leak site) {
+			super(o, q);
+			this.hash = System.identityHashCode(o);
+			this.site = site;
+		}
+	}
+
+	private LeakDetector() {
+	}
+}
@@ -1,15 +1,17 @@
 package com.pi.math;
 
+import com.pi.math.vector.Vec3f;
 import com.pi.math.vector.VectorBuff3;
 
 public class MathUtil {
 	public static VectorBuff3 getPointOnRay(VectorBuff3 dest, VectorBuff3 origin, VectorBuff3 normal,
 			VectorBuff3 near) {
-		VectorBuff3 pointNormal = subtract(near, origin);
-		float distOnLine = pointNormal.dot(normal);
-		dest.linearComb(origin, 1, normal, distOnLine);
-		Heap.checkin(pointNormal);
-		return dest;
+		try (Heap.Frame f = Heap.frame()) {
+			VectorBuff3 pointNormal = subtract(f, near, origin);
+			float distOnLine = pointNormal.dot(normal);
+			dest.linearComb(origin, 1, normal, distOnLine);
+			return dest;
+		}
 	}
 
 	// axis, collision rad, height
@@ -31,8 +33,8 @@ public class MathUtil {
 	}
 
 	public static boolean rayIntersectsBox(VectorBuff3 O, VectorBuff3 D, VectorBuff3 min, VectorBuff3 max) {
-		VectorBuff3 maxT = Heap.checkout(3);
-		try {
+		try (Heap.Frame f = Heap.frame()) {
+			VectorBuff3 maxT = f.vec3();
 			boolean inside = true;
 			for (int i = 0; i < maxT.dimension(); i++)
 				maxT.set(i, -1);
@@ -74,17 +76,16 @@ public class MathUtil {
 				}
 			}
 			return true; // ray hits box
-		} finally {
-			Heap.checkin(maxT);
 		}
 	}
 
 	public static boolean rayIntersectsSphere(VectorBuff3 O, VectorBuff3 D, VectorBuff3 center, float radius) {
-		VectorBuff3 oMC = subtract(O, center);
-		float b = D.dot(oMC);
-		float c = D.mag2() * (oMC.mag2() - radius * radius);
-		Heap.checkin(oMC);
-		return (b * b - c) > -EpsMath.EPSILON;
+		try (Heap.Frame f = Heap.frame()) {
+			VectorBuff3 oMC = subtract(f, O, center);
+			float b = D.dot(oMC);
+			float c = D.mag2() * (oMC.mag2() - radius * radius);
+			return (b * b - c) > -EpsMath.EPSILON;
+		}
 	}
 
 	public static VectorBuff3 rayIntersectsTriangle(VectorBuff3 dest, VectorBuff3 O, VectorBuff3 D, VectorBuff3 v0,
@@ -92,19 +93,16 @@ public class MathUtil {
 		// Moller-Trumbore ray-triangle intersection algorithm
 		// http://en.wikipedia.org/wiki/M%C3%B6ller%E2%80%93Trumbore_intersection_algorithm
 
-		VectorBuff3 e1 = null, e2 = null; // Edge1, Edge2
-		VectorBuff3 P = null, Q = null, T = null;
 		float det, inv_det, u, v;
 		float t;
 
-		try {
+		try (Heap.Frame f = Heap.frame()) {
 			// Find vectors for two edges sharing V1
-			e1 = subtract(v1, v0);
-			e2 = subtract(v2, v0);
+			VectorBuff3 e1 = subtract(f, v1, v0); // Edge1
+			VectorBuff3 e2 = subtract(f, v2, v0); // Edge2
 			// Begin calculating determinant - also used to calculate u
 			// parameter
-			P = Heap.checkout(3);
-			P.cross(D, e2);
+			VectorBuff3 P = f.vec3().cross(D, e2);
 
 			// if determinant is near zero, ray lies in plane of triangle
 			det = e1.dot(P);
@@ -113,7 +111,7 @@ public class MathUtil {
 			inv_det = 1.f / det;
 
 			// calculate distance from V1 to ray origin
-			T = subtract(O, v0);
+			VectorBuff3 T = subtract(f, O, v0);
 
 			// Calculate u parameter and test bound
 			u = T.dot(P) * inv_det;
@@ -122,8 +120,7 @@ public class MathUtil {
 				return null;
 
 			// Prepare to test v parameter
-			Q = Heap.checkout(3);
-			Q.cross(T, e1);
+			VectorBuff3 Q = f.vec3().cross(T, e1);
 
 			// Calculate V parameter and test bound
 			v = D.dot(Q) * inv_det;
@@ -139,90 +136,107 @@ public class MathUtil {
 
 			// No hit, no win
 			return null;
-		} finally {
-			Heap.checkin(e1);
-			Heap.checkin(e2);
-			Heap.checkin(P);
-			if (T != null)
-				Heap.checkin(T);
-			if (Q != null)
-				Heap.checkin(Q);
 		}
 	}
 
+	/**
+	 * Value-type form of
+	 * {@link #rayIntersectsTriangle(VectorBuff3, VectorBuff3, VectorBuff3, VectorBuff3, VectorBuff3, VectorBuff3)}.
+	 * Needs no pool and, once inlined, allocates nothing.
+	 *
+	 * @return the hit point, or null
+	 */
+	public static Vec3f rayIntersectsTriangle(Vec3f O, Vec3f D, Vec3f v0, Vec3f v1, Vec3f v2) {
+		// Moller-Trumbore, as above
+		final Vec3f e1 = v1.sub(v0), e2 = v2.sub(v0);
+		final Vec3f P = D.cross(e2);
+		final float det = e1.dot(P);
+		if (det > -EpsMath.EPSILON && det < EpsMath.EPSILON)
+			return null;
+		final float inv_det = 1.f / det;
+		final Vec3f T = O.sub(v0);
+		final float u = T.dot(P) * inv_det;
+		if (u < 0.f || u > 1.f)
+			return null;
+		final Vec3f Q = T.cross(e1);
+		final float v = D.dot(Q) * inv_det;
+		if (v < 0.f || u + v > 1.f)
+			return null;
+		final float t = e2.dot(Q) * inv_det;
+		return t > EpsMath.EPSILON ? O.addScaled(D, t) : null;
+	}
+
 	public static float segmentDistanceSegment(final VectorBuff3 rayA, final VectorBuff3 rayB, final VectorBuff3 segA,
 			final VectorBuff3 segB) {
 		// http://geomalgorithms.com/a07-_distance.html#dist3D_Segment_to_Segment()
-		VectorBuff3 u = subtract(rayB, rayA);
-		VectorBuff3 v = subtract(segB, segA);
-		VectorBuff3 w = subtract(rayA, segA);
-		float uMag2 = u.mag2(); // always >= 0
-		float uDotV = u.dot(v);
-		float vMag2 = v.mag2(); // always >= 0
-		float uDotW = u.dot(w);
-		float vDotW = v.dot(w);
-		float D = uMag2 * vMag2 - uDotV * uDotV; // always >= 0
-		float sc, sN, sD = D; // sc = sN / sD, default sD = D >= 0
-		float tc, tN, tD = D; // tc = tN / tD, default tD = D >= 0
-
-		// compute the line parameters of the two closest points
-		if (EpsMath.zero(D)) { // the lines are almost parallel
-			sN = 0.0f; // force using point P0 on segment S1
-			sD = 1.0f; // to prevent possible division by 0.0 later
-			tN = vDotW;
-			tD = vMag2;
-		} else { // get the closest points on the infinite lines
-			sN = (uDotV * vDotW - vMag2 * uDotW);
-			tN = (uMag2 * vDotW - uDotV * uDotW);
-			if (sN < 0.0) { // sc < 0 => the s=0 edge is visible
-				sN = 0.0f;
+		try (Heap.Frame f = Heap.frame()) {
+			VectorBuff3 u = subtract(f, rayB, rayA);
+			VectorBuff3 v = subtract(f, segB, segA);
+			VectorBuff3 w = subtract(f, rayA, segA);
+			float uMag2 = u.mag2(); // always >= 0
+			float uDotV = u.dot(v);
+			float vMag2 = v.mag2(); // always >= 0
+			float uDotW = u.dot(w);
+			float vDotW = v.dot(w);
+			float D = uMag2 * vMag2 - uDotV * uDotV; // always >= 0
+			float sc, sN, sD = D; // sc = sN / sD, default sD = D >= 0
+			float tc, tN, tD = D; // tc = tN / tD, default tD = D >= 0
+
+			// compute the line parameters of the two closest points
+			if (EpsMath.zero(D)) { // the lines are almost parallel
+				sN = 0.0f; // force using point P0 on segment S1
+				sD = 1.0f; // to prevent possible division by 0.0 later
 				tN = vDotW;
 				tD = vMag2;
-			} else if (sN > sD) { // sc > 1 => the s=1 edge is visible
-				sN = sD;
-				tN = vDotW + uDotV;
-				tD = vMag2;
+			} else { // get the closest points on the infinite lines
+				sN = (uDotV * vDotW - vMag2 * uDotW);
+				tN = (uMag2 * vDotW - uDotV * uDotW);
+				if (sN < 0.0) { // sc < 0 => the s=0 edge is visible
+					sN = 0.0f;
+					tN = vDotW;
+					tD = vMag2;
+				} else if (sN > sD) { // sc > 1 => the s=1 edge is visible
+					sN = sD;
+					tN = vDotW + uDotV;
+					tD = vMag2;
+				}
 			}
-		}
 
-		if (tN < 0.0) { // tc < 0 => the t=0 edge is visible
-			tN = 0.0f;
-			// recompute sc for this edge
-			if (-uDotW < 0.0f)
-				sN = 0.0f;
-			else if (-uDotW > uMag2)
-				sN = sD;
-			else {
-				sN = -uDotW;
-				sD = uMag2;
-			}
-		} else if (tN > tD) { // tc > 1 => the t=1 edge is visible
-			tN = tD;
-			// recompute sc for this edge
-			if ((-uDotW + uDotV) < 0.0)
-				sN = 0;
-			else if ((-uDotW + uDotV) > uMag2)
-				sN = sD;
-			else {
-				sN = (-uDotW + uDotV);
-				sD = uMag2;
+			if (tN < 0.0) { // tc < 0 => the t=0 edge is visible
+				tN = 0.0f;
+				// recompute sc for this edge
+				if (-uDotW < 0.0f)
+					sN = 0.0f;
+				else if (-uDotW > uMag2)
+					sN = sD;
+				else {
+					sN = -uDotW;
+					sD = uMag2;
+				}
+			} else if (tN > tD) { // tc > 1 => the t=1 edge is visible
+				tN = tD;
+				// recompute sc for this edge
+				if ((-uDotW + uDotV) < 0.0)
+					sN = 0;
+				else if ((-uDotW + uDotV) > uMag2)
+					sN = sD;
+				else {
+					sN = (-uDotW + uDotV);
+					sD = uMag2;
+				}
 			}
+			// finally do the division to get sc and tc
+			sc = (EpsMath.zero(sN) ? 0.0f : sN / sD);
+			tc = (EpsMath.zero(tN) ? 0.0f : tN / tD);
+
+			VectorBuff3 tmp = f.vec3().linearComb(w, 1, u, sc);
+			tmp.linearComb(1, v, -tc);
+			return tmp.magnitude();
 		}
-		// finally do the division to get sc and tc
-		sc = (EpsMath.zero(sN) ? 0.0f : sN / sD);
-		tc = (EpsMath.zero(tN) ? 0.0f : tN / tD);
-
-		VectorBuff3 tmp = Heap.checkout3().linearComb(w, 1, u, sc);
-		tmp.linearComb(1, v, -tc);
-		float fv = tmp.magnitude();
-		Heap.checkin(tmp, u, v, w);
-		return fv;
 	}
 
-	private static VectorBuff3 subtract(VectorBuff3 lhs, VectorBuff3 rhs) {
-		VectorBuff3 dest = Heap.checkout(3);
-		dest.linearComb(lhs, 1, rhs, -1);
-		return dest;
+	private static VectorBuff3 subtract(Heap.Frame f, VectorBuff3 lhs, VectorBuff3 rhs) {
+		return f.vec3().linearComb(lhs, 1, rhs, -1);
 	}
 
 	/**
@@ -0,0 +1,117 @@
+package com.pi.math;
+
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+import com.pi.math.matrix.Matrix3;
+import com.pi.math.matrix.Matrix34;
+import com.pi.math.matrix.Matrix4;
+import com.pi.math.vector.VectorBuff;
+
+import jdk.incubator.foreign.MemoryAccess;
+import jdk.incubator.foreign.MemorySegment;
+import jdk.incubator.foreign.ResourceScope;
+
+/**
+ * A native float array that can exceed 2 GB and is freed explicitly, backed by
+ * a {@link MemorySegment}. Elements are addressed by {@code long} index.
+ * Vectors, matrices and FloatBuffers made from the store are views of it;
+ * using them after {@link #close()} throws {@link IllegalStateException}.
+ * <p>
+ * Needs {@code --add-modules jdk.incubator.foreign}. Nothing else in the
+ * library loads this class. On JDK 17 the allocation counts against
+ * {@code -XX:MaxDirectMemorySize}.
+ *
+ * <pre>
+ * try (NativeFloats store = NativeFloats.allocate(3L * points)) {
+ * 	VectorBuff3 p = (VectorBuff3) store.vector(3L * i, 3);
+ * 	...
+ * }
+ * </pre>
+ */
+public final class NativeFloats implements AutoCloseable {
+	private final ResourceScope scope;
+	private final MemorySegment segment;
+	private final long length;
+
+	private NativeFloats(ResourceScope scope, MemorySegment segment) {
+		this.scope = scope;
+		this.segment = segment;
+		this.length = segment.byteSize() / 4;
+	}
+
+	/**
+	 * Allocates a zeroed store. It may be read and written from any thread, and
+	 * is freed by {@link #close()}.
+	 *
+	 * @param length number of floats
+	 */
+	public static NativeFloats allocate(long length) {
+		if (length < 0)
+			throw new IllegalArgumentException("Length must be non-negative: " + length);
+		ResourceScope scope = ResourceScope.newSharedScope();
+		return new NativeFloats(scope, MemorySegment.allocateNative(length * 4, 16, scope));
+	}
+
+	public long length() {
+		return length;
+	}
+
+	public float get(long i) {
+		return MemoryAccess.getFloatAtIndex(segment, i);
+	}
+
+	public void set(long i, float f) {
+		MemoryAccess.setFloatAtIndex(segment, i, f);
+	}
+
+	/**
+	 * @return a native-order FloatBuffer over {@code count} floats starting at
+	 *         {@code offset}
+	 */
+	public FloatBuffer buffer(long offset, int count) {
+		return segment.asSlice(offset * 4, count * 4L).asByteBuffer().order(ByteOrder.nativeOrder()).asFloatBuffer();
+	}
+
+	public VectorBuff vector(long offset, int dim) {
+		return VectorBuff.make(buffer(offset, dim), 0, dim);
+	}
+
+	public Matrix3 matrix3(long offset) {
+		return new Matrix3(buffer(offset, 9), 0);
+	}
+
+	public Matrix34 matrix34(long offset) {
+		return new Matrix34(buffer(offset, 12), 0);
+	}
+
+	public Matrix4 matrix4(long offset) {
+		return new Matrix4(buffer(offset, 16), 0);
+	}
+
+	/**
+	 * Copies the remaining floats of {@code src} into this store at
+	 * {@code offset}, without moving {@code src}'s position.
+	 */
+	public void copyFrom(long offset, FloatBuffer src) {
+		buffer(offset, src.remaining()).put(src.duplicate());
+	}
+
+	/**
+	 * Copies floats from this store at {@code offset} into the remaining space
+	 * of {@code dst}, without moving {@code dst}'s position.
+	 */
+	public void copyTo(long offset, FloatBuffer dst) {
+		dst.duplicate().put(buffer(offset, dst.remaining()));
+	}
+
+	/**
+	 * Frees the native memory. Fails if another thread is accessing it; does
+	 * nothing if already closed.
+	 */
+	@Override
+	public void close() {
+		if (scope.isAlive())
+			scope.close();
+	}
+}
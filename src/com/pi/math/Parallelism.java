@@ -0,0 +1,40 @@
+package com.pi.math;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Settings shared by the opt-in parallel batch operations.
+ */
+public final class Parallelism {
+	// Volatile: set from any thread, read by pool workers.
+	private static volatile ForkJoinPool pool = ForkJoinPool.commonPool();
+	// ~8k vertices of position+normal data fits comfortably in L2.
+	private static volatile int threshold = 8192;
+
+	public static ForkJoinPool pool() {
+		return pool;
+	}
+
+	public static void pool(ForkJoinPool p) {
+		if (p == null)
+			throw new IllegalArgumentException("Pool must not be null");
+		pool = p;
+	}
+
+	/**
+	 * @return the largest number of elements processed as a single task.
+	 *         Batches no larger than this run on the calling thread.
+	 */
+	public static int threshold() {
+		return threshold;
+	}
+
+	public static void threshold(int n) {
+		if (n <= 0)
+			throw new IllegalArgumentException("Threshold must be positive");
+		threshold = n;
+	}
+
+	private Parallelism() {
+	}
+}
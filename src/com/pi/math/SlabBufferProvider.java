@@ -0,0 +1,127 @@
+package com.pi.math;
+
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jdk.incubator.foreign.MemorySegment;
+import jdk.incubator.foreign.ResourceScope;
+
+/**
+ * Carves native-order buffers out of large native chunks instead of making one
+ * direct allocation per vector or matrix. Install with
+ * {@code BufferProvider.provider(new SlabBufferProvider())}.
+ * <p>
+ * Each thread fills its own chunk, so allocation is uncontended, and a buffer
+ * costs no more than a slice of it. Buffers are 8-byte aligned, so double
+ * views are too. Memory is recycled a chunk at a time: once every buffer
+ * carved from a chunk (and every view of those buffers) is unreachable, the
+ * chunk is kept for reuse, zeroed, or freed if enough are spare already. One
+ * long-lived buffer therefore keeps its whole chunk; pick a chunk size to
+ * suit. Requests larger than a quarter of a chunk get their own allocation.
+ * <p>
+ * Needs {@code --add-modules jdk.incubator.foreign}.
+ */
+public class SlabBufferProvider extends BufferProvider {
+	/**
+	 * Default chunk size, in bytes.
+	 */
+	public static final int DEFAULT_CHUNK = 64 * 1024;
+
+	// Alignment of every buffer.
+	private static final int ALIGN = 8;
+	// Unreachable chunks kept for reuse; any more are freed.
+	private static final int MAX_SPARE = 16;
+	private static final Cleaner CLEANER = Cleaner.create();
+
+	private final int chunkSize;
+	private final ConcurrentLinkedQueue<MemorySegment> spare = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger spareCount = new AtomicInteger();
+	private final ThreadLocal<Slab> slabs = new ThreadLocal<>();
+
+	public SlabBufferProvider() {
+		this(DEFAULT_CHUNK);
+	}
+
+	/**
+	 * @param chunkSize bytes per native chunk
+	 */
+	public SlabBufferProvider(int chunkSize) {
+		if (chunkSize < 64)
+			throw new IllegalArgumentException("Chunk size too small: " + chunkSize);
+		this.chunkSize = chunkSize;
+	}
+
+	@Override
+	protected ByteBuffer nByteBuffer(int n) {
+		return carve(n);
+	}
+
+	@Override
+	protected FloatBuffer nFloatBuffer(int n) {
+		return carve(n * 4).asFloatBuffer();
+	}
+
+	private ByteBuffer carve(int bytes) {
+		if (bytes > chunkSize >> 2)
+			return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+		Slab s = slabs.get();
+		if (s == null || s.used + bytes > chunkSize) {
+			s = new Slab(newChunk());
+			slabs.set(s);
+		}
+		// Slices keep the chunk, not themselves, as their root, so the chunk's
+		// Cleaner runs once nothing carved from it is reachable.
+		final ByteBuffer res = s.chunk.slice(s.used, bytes).order(ByteOrder.nativeOrder());
+		s.used = (s.used + bytes + ALIGN - 1) & -ALIGN;
+		return res;
+	}
+
+	private ByteBuffer newChunk() {
+		MemorySegment seg = spare.poll();
+		if (seg != null) {
+			spareCount.decrementAndGet();
+			seg.fill((byte) 0);
+		} else {
+			seg = MemorySegment.allocateNative(chunkSize, ALIGN, ResourceScope.newImplicitScope());
+		}
+		final ByteBuffer chunk = seg.asByteBuffer();
+		CLEANER.register(chunk, new Recycle(spare, spareCount, seg));
+		return chunk;
+	}
+
+	// Keeps a chunk's memory once its buffer is unreachable, or lets the
+	// implicit scope free it. Must not reference the buffer.
+	private static final class Recycle implements Runnable {
+		private final ConcurrentLinkedQueue<MemorySegment> spare;
+		private final AtomicInteger spareCount;
+		private final MemorySegment seg;
+
+		private Recycle(ConcurrentLinkedQueue<MemorySegment> spare, AtomicInteger spareCount, MemorySegment seg) {
+			this.spare = spare;
+			this.spareCount = spareCount;
+			this.seg = seg;
+		}
+
+		@Override
+		public void run() {
+			if (spareCount.incrementAndGet() <= MAX_SPARE)
+				spare.offer(seg);
+			else
+				spareCount.decrementAndGet();
+		}
+	}
+
+	// Thread-confined fill state for one chunk.
+	private static final class Slab {
+		private final ByteBuffer chunk;
+		private int used;
+
+		private Slab(ByteBuffer chunk) {
+			this.chunk = chunk;
+		}
+	}
+}
@@ -0,0 +1,164 @@
+package com.pi.math.matrix;
+
+import com.pi.math.vector.Quatf;
+import com.pi.math.vector.Vec3f;
+
+/**
+ * Immutable affine transform: a 3x3 linear part and a translation, with an
+ * implicit [0 0 0 1] bottom row. Element {@code mRC} is row R, column C, as in
+ * {@link Matrix#get(int, int)}. See {@link Vec3f} for why it is immutable.
+ */
+@SuppressWarnings("rawtypes")
+public final class Affine3f {
+	public static final Affine3f IDENTITY = new Affine3f(1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1, 0);
+
+	public final float m00, m01, m02, m03;
+	public final float m10, m11, m12, m13;
+	public final float m20, m21, m22, m23;
+
+	public Affine3f(float m00, float m01, float m02, float m03, float m10, float m11, float m12, float m13, float m20,
+			float m21, float m22, float m23) {
+		this.m00 = m00;
+		this.m01 = m01;
+		this.m02 = m02;
+		this.m03 = m03;
+		this.m10 = m10;
+		this.m11 = m11;
+		this.m12 = m12;
+		this.m13 = m13;
+		this.m20 = m20;
+		this.m21 = m21;
+		this.m22 = m22;
+		this.m23 = m23;
+	}
+
+	public static Affine3f translation(Vec3f t) {
+		return new Affine3f(1, 0, 0, t.x, 0, 1, 0, t.y, 0, 0, 1, t.z);
+	}
+
+	public static Affine3f scale(Vec3f s) {
+		return new Affine3f(s.x, 0, 0, 0, 0, s.y, 0, 0, 0, 0, s.z, 0);
+	}
+
+	/**
+	 * @param q unit quaternion
+	 */
+	public static Affine3f rotation(Quatf q) {
+		final float xx = q.x * q.x, yy = q.y * q.y, zz = q.z * q.z;
+		final float xy = q.x * q.y, xz = q.x * q.z, yz = q.y * q.z;
+		final float wx = q.w * q.x, wy = q.w * q.y, wz = q.w * q.z;
+		return new Affine3f(1 - 2 * (yy + zz), 2 * (xy - wz), 2 * (xz + wy), 0, 2 * (xy + wz), 1 - 2 * (xx + zz),
+				2 * (yz - wx), 0, 2 * (xz - wy), 2 * (yz + wx), 1 - 2 * (xx + yy), 0);
+	}
+
+	/**
+	 * @return the top three rows of m. Columns m doesn't have read as identity.
+	 */
+	public static Affine3f of(Matrix m) {
+		return new Affine3f(m.get(0, 0), m.get(0, 1), m.get(0, 2), m.get(0, 3), m.get(1, 0), m.get(1, 1), m.get(1, 2),
+				m.get(1, 3), m.get(2, 0), m.get(2, 1), m.get(2, 2), m.get(2, 3));
+	}
+
+	/**
+	 * Writes this transform into a {@link Matrix34} or {@link Matrix4} and
+	 * recomputes its flags. A {@link Matrix3} only receives the linear part.
+	 */
+	public <T extends Trans3D> T into(T m) {
+		m.set(0, 0, m00);
+		m.set(1, 0, m10);
+		m.set(2, 0, m20);
+		m.set(0, 1, m01);
+		m.set(1, 1, m11);
+		m.set(2, 1, m21);
+		m.set(0, 2, m02);
+		m.set(1, 2, m12);
+		m.set(2, 2, m22);
+		if (m.columns() > 3) {
+			m.set(0, 3, m03);
+			m.set(1, 3, m13);
+			m.set(2, 3, m23);
+		}
+		if (m.rows() > 3) {
+			m.set(3, 0, 0);
+			m.set(3, 1, 0);
+			m.set(3, 2, 0);
+			m.set(3, 3, 1);
+		}
+		m.setFlags();
+		return m;
+	}
+
+	/**
+	 * @return the transform that applies r first, then this
+	 */
+	public Affine3f mul(Affine3f r) {
+		return new Affine3f(m00 * r.m00 + m01 * r.m10 + m02 * r.m20, m00 * r.m01 + m01 * r.m11 + m02 * r.m21,
+				m00 * r.m02 + m01 * r.m12 + m02 * r.m22, m00 * r.m03 + m01 * r.m13 + m02 * r.m23 + m03,
+				m10 * r.m00 + m11 * r.m10 + m12 * r.m20, m10 * r.m01 + m11 * r.m11 + m12 * r.m21,
+				m10 * r.m02 + m11 * r.m12 + m12 * r.m22, m10 * r.m03 + m11 * r.m13 + m12 * r.m23 + m13,
+				m20 * r.m00 + m21 * r.m10 + m22 * r.m20, m20 * r.m01 + m21 * r.m11 + m22 * r.m21,
+				m20 * r.m02 + m21 * r.m12 + m22 * r.m22, m20 * r.m03 + m21 * r.m13 + m22 * r.m23 + m23);
+	}
+
+	public Vec3f transformPoint(Vec3f v) {
+		return new Vec3f(m00 * v.x + m01 * v.y + m02 * v.z + m03, m10 * v.x + m11 * v.y + m12 * v.z + m13,
+				m20 * v.x + m21 * v.y + m22 * v.z + m23);
+	}
+
+	public Vec3f transformDirection(Vec3f v) {
+		return new Vec3f(m00 * v.x + m01 * v.y + m02 * v.z, m10 * v.x + m11 * v.y + m12 * v.z,
+				m20 * v.x + m21 * v.y + m22 * v.z);
+	}
+
+	public Vec3f getTranslation() {
+		return new Vec3f(m03, m13, m23);
+	}
+
+	public float determinant() {
+		return m00 * (m11 * m22 - m12 * m21) - m01 * (m10 * m22 - m12 * m20) + m02 * (m10 * m21 - m11 * m20);
+	}
+
+	/**
+	 * @return the inverse transform
+	 * @throws ArithmeticException if the linear part is singular
+	 */
+	public Affine3f inverse() {
+		final float det = determinant();
+		if (det == 0)
+			throw new ArithmeticException("Singular transform");
+		final float id = 1 / det;
+		final float i00 = (m11 * m22 - m12 * m21) * id, i01 = (m02 * m21 - m01 * m22) * id,
+				i02 = (m01 * m12 - m02 * m11) * id;
+		final float i10 = (m12 * m20 - m10 * m22) * id, i11 = (m00 * m22 - m02 * m20) * id,
+				i12 = (m02 * m10 - m00 * m12) * id;
+		final float i20 = (m10 * m21 - m11 * m20) * id, i21 = (m01 * m20 - m00 * m21) * id,
+				i22 = (m00 * m11 - m01 * m10) * id;
+		return new Affine3f(i00, i01, i02, -(i00 * m03 + i01 * m13 + i02 * m23), i10, i11, i12,
+				-(i10 * m03 + i11 * m13 + i12 * m23), i20, i21, i22, -(i20 * m03 + i21 * m13 + i22 * m23));
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof Affine3f))
+			return false;
+		Affine3f a = (Affine3f) o;
+		return Float.compare(m00, a.m00) == 0 && Float.compare(m01, a.m01) == 0 && Float.compare(m02, a.m02) == 0
+				&& Float.compare(m03, a.m03) == 0 && Float.compare(m10, a.m10) == 0 && Float.compare(m11, a.m11) == 0
+				&& Float.compare(m12, a.m12) == 0 && Float.compare(m13, a.m13) == 0 && Float.compare(m20, a.m20) == 0
+				&& Float.compare(m21, a.m21) == 0 && Float.compare(m22, a.m22) == 0 && Float.compare(m23, a.m23) == 0;
+	}
+
+	@Override
+	public int hashCode() {
+		int h = 7411;
+		for (float f : new float[] { m00, m01, m02, m03, m10, m11, m12, m13, m20, m21, m22, m23 })
+			h = h * 31 + Float.floatToIntBits(f);
+		return h;
+	}
+
+	@Override
+	public String toString() {
+		return "Affine3f[" + m00 + "," + m01 + "," + m02 + "," + m03 + "; " + m10 + "," + m11 + "," + m12 + "," + m13
+				+ "; " + m20 + "," + m21 + "," + m22 + "," + m23 + "]";
+	}
+}
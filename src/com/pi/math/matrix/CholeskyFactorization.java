@@ -0,0 +1,46 @@
+package com.pi.math.matrix;
+
+/**
+ * A = LL<sup>T</sup> for symmetric positive definite matrices. Only the lower
+ * triangle of the input is read.
+ */
+public final class CholeskyFactorization extends Factorization {
+	@Override
+	protected Status decompose() {
+		final int n = rows;
+		final double tiny = TOLERANCE * n * maxAbs();
+		for (int j = 0; j < n; j++) {
+			double d = a[j * n + j];
+			for (int k = 0; k < j; k++)
+				d -= a[j * n + k] * a[j * n + k];
+			if (d <= tiny)
+				return Status.NOT_POSITIVE_DEFINITE;
+			final double ljj = Math.sqrt(d);
+			a[j * n + j] = ljj;
+			for (int i = j + 1; i < n; i++) {
+				double s = a[i * n + j];
+				for (int k = 0; k < j; k++)
+					s -= a[i * n + k] * a[j * n + k];
+				a[i * n + j] = s / ljj;
+			}
+		}
+		return Status.OK;
+	}
+
+	@Override
+	protected void solve(double[] x) {
+		final int n = rows;
+		for (int i = 0; i < n; i++) {
+			double s = x[i];
+			for (int k = 0; k < i; k++)
+				s -= a[i * n + k] * x[k];
+			x[i] = s / a[i * n + i];
+		}
+		for (int i = n - 1; i >= 0; i--) {
+			double s = x[i];
+			for (int k = i + 1; k < n; k++)
+				s -= a[k * n + i] * x[k];
+			x[i] = s / a[i * n + i];
+		}
+	}
+}
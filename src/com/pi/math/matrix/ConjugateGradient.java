@@ -0,0 +1,167 @@
+package com.pi.math.matrix;
+
+import java.nio.FloatBuffer;
+
+import com.pi.math.BufferProvider;
+import com.pi.math.vector.VectorND;
+
+/**
+ * (Preconditioned) conjugate gradient for symmetric positive definite
+ * systems A x = b of a fixed size. All work buffers are allocated by the
+ * constructor and a {@link SparseMatrix} reuses its parallel task tree, so
+ * solves allocate nothing beyond what {@link java.util.concurrent.ForkJoinPool}
+ * needs to wait on a parallel product. x is both the initial guess and
+ * the result, so passing last frame's solution warm-starts the solve.
+ * Iteration stops when ||b - A x|| / ||b|| drops to the tolerance or the
+ * iteration budget runs out; the residual after every iteration is kept for
+ * tuning those two. An instance isn't safe for concurrent use.
+ */
+public final class ConjugateGradient {
+	private final int n;
+	private final FloatBuffer r, z, p, q;
+	private float tolerance = 1e-5f;
+	private int maxIterations;
+	private float[] residuals;
+	private int iterations;
+
+	public ConjugateGradient(int n) {
+		if (n <= 0)
+			throw new IllegalArgumentException("Size must be positive");
+		this.n = n;
+		r = BufferProvider.createHeapFloatBuffer(n);
+		z = BufferProvider.createHeapFloatBuffer(n);
+		p = BufferProvider.createHeapFloatBuffer(n);
+		q = BufferProvider.createHeapFloatBuffer(n);
+		maxIterations(n);
+	}
+
+	private double dot(FloatBuffer a, FloatBuffer b) {
+		double s = 0;
+		for (int i = 0; i < n; i++)
+			s += a.get(i) * b.get(i);
+		return s;
+	}
+
+	/**
+	 * @return iterations taken by the last solve
+	 */
+	public int iterations() {
+		return iterations;
+	}
+
+	public int maxIterations() {
+		return maxIterations;
+	}
+
+	public ConjugateGradient maxIterations(int max) {
+		if (max < 0)
+			throw new IllegalArgumentException("Iteration budget must not be negative");
+		maxIterations = max;
+		if (residuals == null || residuals.length < max + 1)
+			residuals = new float[max + 1];
+		return this;
+	}
+
+	/**
+	 * @return the relative residual after the last solve
+	 */
+	public float residual() {
+		return residuals[iterations];
+	}
+
+	/**
+	 * @return the relative residual before the first iteration (index 0) and
+	 *         after each one, up to {@link #iterations()} inclusive. The array
+	 *         is reused by the next solve.
+	 */
+	public float[] residuals() {
+		return residuals;
+	}
+
+	public int size() {
+		return n;
+	}
+
+	/**
+	 * Solves without a preconditioner.
+	 *
+	 * @return true if the tolerance was reached
+	 */
+	public boolean solve(LinearOperator a, FloatBuffer b, FloatBuffer x) {
+		return solve(a, null, b, x);
+	}
+
+	/**
+	 * @param m preconditioner, or null for plain CG
+	 * @return true if the tolerance was reached
+	 */
+	public boolean solve(LinearOperator a, Preconditioner m, FloatBuffer b, FloatBuffer x) {
+		final double bnorm = Math.sqrt(dot(b, b));
+		iterations = 0;
+		if (bnorm == 0) {
+			for (int i = 0; i < n; i++)
+				x.put(i, 0);
+			residuals[0] = 0;
+			return true;
+		}
+		// r = b - A x
+		a.apply(x, q);
+		for (int i = 0; i < n; i++)
+			r.put(i, b.get(i) - q.get(i));
+		final FloatBuffer zr = m == null ? r : z;
+		if (m != null)
+			m.apply(r, z);
+		for (int i = 0; i < n; i++)
+			p.put(i, zr.get(i));
+		double rz = dot(r, zr);
+		float res = (float) (Math.sqrt(dot(r, r)) / bnorm);
+		residuals[0] = res;
+		while (res > tolerance && iterations < maxIterations) {
+			a.apply(p, q);
+			final double pq = dot(p, q);
+			if (pq <= 0)
+				// Not positive definite along p; nothing sensible to do.
+				break;
+			final float alpha = (float) (rz / pq);
+			double rr = 0;
+			for (int i = 0; i < n; i++) {
+				x.put(i, x.get(i) + alpha * p.get(i));
+				final float ri = r.get(i) - alpha * q.get(i);
+				r.put(i, ri);
+				rr += (double) ri * ri;
+			}
+			res = (float) (Math.sqrt(rr) / bnorm);
+			residuals[++iterations] = res;
+			if (res <= tolerance)
+				break;
+			if (m != null)
+				m.apply(r, z);
+			final double rzNext = m == null ? rr : dot(r, z);
+			final float beta = (float) (rzNext / rz);
+			rz = rzNext;
+			for (int i = 0; i < n; i++)
+				p.put(i, zr.get(i) + beta * p.get(i));
+		}
+		return res <= tolerance;
+	}
+
+	public boolean solve(LinearOperator a, Preconditioner m, VectorND b, VectorND x) {
+		if (b.dimension() < n || x.dimension() < n)
+			throw new IllegalArgumentException("Need vectors of " + n + " components");
+		return solve(a, m, b.getAccessor(), x.getAccessor());
+	}
+
+	public float tolerance() {
+		return tolerance;
+	}
+
+	/**
+	 * @param tol relative residual ||b - A x|| / ||b|| to stop at
+	 */
+	public ConjugateGradient tolerance(float tol) {
+		if (!(tol >= 0))
+			throw new IllegalArgumentException("Tolerance must not be negative");
+		tolerance = tol;
+		return this;
+	}
+}
@@ -0,0 +1,136 @@
+package com.pi.math.matrix;
+
+import java.nio.FloatBuffer;
+
+/**
+ * A matrix factorization that can be computed once and used for many solves.
+ * Factors are kept in double precision. Failures are reported through
+ * {@link Status} rather than exceptions; a failed factorization leaves
+ * right-hand sides untouched. An instance may be refactored with a new
+ * matrix and isn't safe for concurrent use.
+ */
+public abstract class Factorization {
+	public enum Status {
+		OK,
+		/** Nothing has been factored yet. */
+		EMPTY,
+		/** LU found a zero pivot. */
+		SINGULAR,
+		/** Cholesky found a non-positive pivot. */
+		NOT_POSITIVE_DEFINITE,
+		/** QR found a zero diagonal in R. */
+		RANK_DEFICIENT
+	}
+
+	// Pivots below this fraction of the largest input magnitude count as zero:
+	// the inputs are floats, so anything smaller is rounding noise.
+	static final double TOLERANCE = 0x1p-23;
+
+	protected int rows, columns;
+	protected Status status = Status.EMPTY;
+	// Row-major factors, rows x columns.
+	protected double[] a = new double[0];
+	private double[] x = new double[0];
+
+	/**
+	 * Factors m, replacing any previous factorization.
+	 */
+	public final Status factor(MatrixN m) {
+		load(m.rows(), m.columns());
+		for (int r = 0; r < rows; r++)
+			for (int c = 0; c < columns; c++)
+				a[r * columns + c] = m.get(r, c);
+		return status = decompose();
+	}
+
+	/**
+	 * Factors a fixed-size matrix, replacing any previous factorization.
+	 */
+	@SuppressWarnings("rawtypes")
+	public final Status factor(Matrix m) {
+		load(m.rows(), m.columns());
+		for (int r = 0; r < rows; r++)
+			for (int c = 0; c < columns; c++)
+				a[r * columns + c] = m.get(r, c);
+		return status = decompose();
+	}
+
+	private void load(int r, int c) {
+		checkShape(r, c);
+		rows = r;
+		columns = c;
+		if (a.length < r * c)
+			a = new double[r * c];
+		if (x.length < r)
+			x = new double[r];
+	}
+
+	protected void checkShape(int r, int c) {
+		if (r != c)
+			throw new IllegalArgumentException(getClass().getSimpleName() + " needs a square matrix, got " + r + "x" + c);
+	}
+
+	// Factors a in place.
+	protected abstract Status decompose();
+
+	// Overwrites x[0, rows) with the solution in x[0, columns).
+	protected abstract void solve(double[] x);
+
+	protected final double maxAbs() {
+		double m = 0;
+		for (int i = 0; i < rows * columns; i++)
+			m = Math.max(m, Math.abs(a[i]));
+		return m;
+	}
+
+	public final int columns() {
+		return columns;
+	}
+
+	public final int rows() {
+		return rows;
+	}
+
+	/**
+	 * Solves A x = b in place: reads b from rhs[offset, offset + rows) and
+	 * writes x to rhs[offset, offset + columns). The buffer position is not
+	 * changed.
+	 */
+	public final Status solve(FloatBuffer rhs, int offset) {
+		if (status != Status.OK)
+			return status;
+		for (int i = 0; i < rows; i++)
+			x[i] = rhs.get(offset + i);
+		solve(x);
+		for (int i = 0; i < columns; i++)
+			rhs.put(offset + i, (float) x[i]);
+		return status;
+	}
+
+	/**
+	 * Solves A x = b in place, starting at the buffer's position.
+	 */
+	public final Status solve(FloatBuffer rhs) {
+		return solve(rhs, rhs.position());
+	}
+
+	/**
+	 * Solves A X = B in place for every column of rhs, which must have as many
+	 * rows as the factored matrix. Each solution is written to the top
+	 * {@link #columns()} rows of its column.
+	 */
+	public final Status solve(MatrixN rhs) {
+		if (rhs.rows() != rows)
+			throw new IllegalArgumentException("Right-hand side has " + rhs.rows() + " rows, need " + rows);
+		if (status != Status.OK)
+			return status;
+		final FloatBuffer f = rhs.accessor();
+		for (int c = 0; c < rhs.columns(); c++)
+			solve(f, c * rows);
+		return status;
+	}
+
+	public final Status status() {
+		return status;
+	}
+}
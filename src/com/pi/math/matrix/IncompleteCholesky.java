@@ -0,0 +1,86 @@
+package com.pi.math.matrix;
+
+import java.nio.FloatBuffer;
+
+/**
+ * IC(0) preconditioner: M = LL<sup>T</sup> where L keeps the sparsity of the
+ * lower triangle of A. Pivots that break down (non-positive) fall back to the
+ * diagonal of A, so M stays positive definite. Applying it does two
+ * triangular solves and allocates nothing; an instance isn't safe for
+ * concurrent use.
+ */
+public final class IncompleteCholesky implements Preconditioner {
+	private final int n;
+	// Rows of L in CSR form; the diagonal is the last entry of each row.
+	private final int[] rowStart, col;
+	private final float[] val;
+	private final float[] y;
+
+	public IncompleteCholesky(SparseMatrix a) {
+		if (a.rows() != a.columns())
+			throw new IllegalArgumentException("Needs a square matrix, got " + a.rows() + "x" + a.columns());
+		n = a.rows();
+		rowStart = new int[n + 1];
+		for (int i = 0; i < n; i++) {
+			int cnt = 1;
+			for (int k = a.rowStart[i]; k < a.rowStart[i + 1] && a.col[k] < i; k++)
+				cnt++;
+			rowStart[i + 1] = rowStart[i] + cnt;
+		}
+		col = new int[rowStart[n]];
+		val = new float[rowStart[n]];
+		y = new float[n];
+		for (int i = 0; i < n; i++) {
+			int out = rowStart[i];
+			for (int k = a.rowStart[i]; k < a.rowStart[i + 1] && a.col[k] < i; k++) {
+				final int j = a.col[k];
+				// L(i, j) = (A(i, j) - sum_m<j L(i, m) L(j, m)) / L(j, j)
+				final double s = a.val[k] - rowDot(rowStart[i], out, rowStart[j], rowStart[j + 1] - 1);
+				col[out] = j;
+				val[out] = (float) (s / val[rowStart[j + 1] - 1]);
+				out++;
+			}
+			final float aii = a.get(i, i);
+			double d = aii - rowDot(rowStart[i], out, rowStart[i], out);
+			if (d <= 0)
+				d = aii > 0 ? aii : 1;
+			col[out] = i;
+			val[out] = (float) Math.sqrt(d);
+		}
+	}
+
+	// Dot product of two sorted partial rows of L over their common columns.
+	private double rowDot(int a, int ae, int b, int be) {
+		double s = 0;
+		while (a < ae && b < be) {
+			final int ca = col[a], cb = col[b];
+			if (ca == cb)
+				s += (double) val[a++] * val[b++];
+			else if (ca < cb)
+				a++;
+			else
+				b++;
+		}
+		return s;
+	}
+
+	@Override
+	public void apply(FloatBuffer r, FloatBuffer z) {
+		// L y = r
+		for (int i = 0; i < n; i++) {
+			final int diag = rowStart[i + 1] - 1;
+			float s = r.get(i);
+			for (int k = rowStart[i]; k < diag; k++)
+				s -= val[k] * y[col[k]];
+			y[i] = s / val[diag];
+		}
+		// L^T z = y, column-oriented over the rows of L
+		for (int i = n - 1; i >= 0; i--) {
+			final int diag = rowStart[i + 1] - 1;
+			final float zi = y[i] / val[diag];
+			z.put(i, zi);
+			for (int k = rowStart[i]; k < diag; k++)
+				y[col[k]] -= val[k] * zi;
+		}
+	}
+}
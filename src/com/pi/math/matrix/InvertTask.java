@@ -0,0 +1,42 @@
+package com.pi.math.matrix;
+
+import java.util.concurrent.RecursiveAction;
+
+import com.pi.math.Parallelism;
+
+// Splits a batched inverse or normal-matrix computation into ranges of at
+// most Parallelism.threshold() elements.
+@SuppressWarnings("serial")
+class InvertTask extends RecursiveAction {
+	private final Matrix4Array dest, src;
+	private final boolean normal;
+	private final int from, to, threshold;
+
+	InvertTask(Matrix4Array dest, Matrix4Array src, boolean normal, int from, int to, int threshold) {
+		this.dest = dest;
+		this.src = src;
+		this.normal = normal;
+		this.from = from;
+		this.to = to;
+		this.threshold = threshold;
+	}
+
+	static void run(Matrix4Array dest, Matrix4Array src, boolean normal) {
+		final int threshold = Parallelism.threshold();
+		if (src.length() <= threshold)
+			Matrix4Array.invertRange(dest, src, 0, src.length(), normal);
+		else
+			Parallelism.pool().invoke(new InvertTask(dest, src, normal, 0, src.length(), threshold));
+	}
+
+	@Override
+	protected void compute() {
+		if (to - from <= threshold) {
+			Matrix4Array.invertRange(dest, src, from, to, normal);
+			return;
+		}
+		final int mid = (from + to) >>> 1;
+		invokeAll(new InvertTask(dest, src, normal, from, mid, threshold),
+				new InvertTask(dest, src, normal, mid, to, threshold));
+	}
+}
@@ -0,0 +1,82 @@
+package com.pi.math.matrix;
+
+/**
+ * PA = LU with partial pivoting, for square matrices.
+ */
+public final class LUFactorization extends Factorization {
+	private int[] pivot = new int[0];
+	private double[] y = new double[0];
+	private int pivotSign;
+
+	@Override
+	protected Status decompose() {
+		final int n = rows;
+		if (pivot.length < n) {
+			pivot = new int[n];
+			y = new double[n];
+		}
+		for (int i = 0; i < n; i++)
+			pivot[i] = i;
+		pivotSign = 1;
+		final double tiny = TOLERANCE * n * maxAbs();
+		for (int k = 0; k < n; k++) {
+			int p = k;
+			for (int i = k + 1; i < n; i++)
+				if (Math.abs(a[i * n + k]) > Math.abs(a[p * n + k]))
+					p = i;
+			if (Math.abs(a[p * n + k]) <= tiny)
+				return Status.SINGULAR;
+			if (p != k) {
+				for (int c = 0; c < n; c++) {
+					final double t = a[p * n + c];
+					a[p * n + c] = a[k * n + c];
+					a[k * n + c] = t;
+				}
+				final int t = pivot[p];
+				pivot[p] = pivot[k];
+				pivot[k] = t;
+				pivotSign = -pivotSign;
+			}
+			final double inv = 1 / a[k * n + k];
+			for (int i = k + 1; i < n; i++) {
+				final double l = a[i * n + k] *= inv;
+				if (l != 0)
+					for (int c = k + 1; c < n; c++)
+						a[i * n + c] -= l * a[k * n + c];
+			}
+		}
+		return Status.OK;
+	}
+
+	/**
+	 * @return the determinant of the factored matrix, or 0 if it was singular
+	 */
+	public double determinant() {
+		if (status == Status.SINGULAR)
+			return 0;
+		if (status != Status.OK)
+			throw new IllegalStateException("Nothing factored");
+		double d = pivotSign;
+		for (int k = 0; k < rows; k++)
+			d *= a[k * rows + k];
+		return d;
+	}
+
+	@Override
+	protected void solve(double[] x) {
+		final int n = rows;
+		// Permute into y, then forward-substitute with the unit lower factor.
+		for (int i = 0; i < n; i++) {
+			double s = x[pivot[i]];
+			for (int c = 0; c < i; c++)
+				s -= a[i * n + c] * y[c];
+			y[i] = s;
+		}
+		for (int i = n - 1; i >= 0; i--) {
+			double s = y[i];
+			for (int c = i + 1; c < n; c++)
+				s -= a[i * n + c] * x[c];
+			x[i] = s / a[i * n + i];
+		}
+	}
+}
@@ -0,0 +1,13 @@
+package com.pi.math.matrix;
+
+import java.nio.FloatBuffer;
+
+/**
+ * A square linear map y = A x over buffers of a fixed size, e.g.
+ * {@code SparseMatrix::mul} or a matrix-free stencil. Implementations must use
+ * absolute indices from 0 and must not keep references to the buffers.
+ */
+@FunctionalInterface
+public interface LinearOperator {
+	void apply(FloatBuffer x, FloatBuffer y);
+}
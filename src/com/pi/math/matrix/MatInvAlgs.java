@@ -1,5 +1,6 @@
 package com.pi.math.matrix;
 
+import java.nio.FloatBuffer;
 import java.util.function.Supplier;
 
 @SuppressWarnings("rawtypes")
@@ -73,26 +74,28 @@ public class MatInvAlgs {
 		}
 
 		det = 1.0F / det;
-		out.set(0, 0, ((in.get(1, 1) * in.get(2, 2) - in.get(2, 1) * in.get(1, 2)) * det));
-		out.set(0, 1, (-(in.get(0, 1) * in.get(2, 2) - in.get(2, 1) * in.get(0, 2)) * det));
-		out.set(0, 2, ((in.get(0, 1) * in.get(1, 2) - in.get(1, 1) * in.get(0, 2)) * det));
-		out.set(1, 0, (-(in.get(1, 0) * in.get(2, 2) - in.get(2, 0) * in.get(1, 2)) * det));
-		out.set(1, 1, ((in.get(0, 0) * in.get(2, 2) - in.get(2, 0) * in.get(0, 2)) * det));
-		out.set(1, 2, (-(in.get(0, 0) * in.get(1, 2) - in.get(1, 0) * in.get(0, 2)) * det));
-		out.set(2, 0, ((in.get(1, 0) * in.get(2, 1) - in.get(2, 0) * in.get(1, 1)) * det));
-		out.set(2, 1, (-(in.get(0, 0) * in.get(2, 1) - in.get(2, 0) * in.get(0, 1)) * det));
-		out.set(2, 2, ((in.get(0, 0) * in.get(1, 1) - in.get(1, 0) * in.get(0, 1)) * det));
+		out.put(0, 0, ((in.get(1, 1) * in.get(2, 2) - in.get(2, 1) * in.get(1, 2)) * det));
+		out.put(0, 1, (-(in.get(0, 1) * in.get(2, 2) - in.get(2, 1) * in.get(0, 2)) * det));
+		out.put(0, 2, ((in.get(0, 1) * in.get(1, 2) - in.get(1, 1) * in.get(0, 2)) * det));
+		out.put(1, 0, (-(in.get(1, 0) * in.get(2, 2) - in.get(2, 0) * in.get(1, 2)) * det));
+		out.put(1, 1, ((in.get(0, 0) * in.get(2, 2) - in.get(2, 0) * in.get(0, 2)) * det));
+		out.put(1, 2, (-(in.get(0, 0) * in.get(1, 2) - in.get(1, 0) * in.get(0, 2)) * det));
+		out.put(2, 0, ((in.get(1, 0) * in.get(2, 1) - in.get(2, 0) * in.get(1, 1)) * det));
+		out.put(2, 1, (-(in.get(0, 0) * in.get(2, 1) - in.get(2, 0) * in.get(0, 1)) * det));
+		out.put(2, 2, ((in.get(0, 0) * in.get(1, 1) - in.get(1, 0) * in.get(0, 1)) * det));
 	}
 
 	static void inv34(Matrix out, Matrix in) {
 		if (out.rows() > 3 || out.columns() > 4)
 			out.makeIdentity();
 		inv33(out, in);
+		if (out.columns() < 4)
+			return;
 
 		/* Do the translation part */
-		out.set(0, 3, -(in.get(0, 3) * out.get(0, 0) + in.get(1, 3) * out.get(0, 1) + in.get(2, 3) * out.get(0, 2)));
-		out.set(1, 3, -(in.get(0, 3) * out.get(1, 0) + in.get(1, 3) * out.get(1, 1) + in.get(2, 3) * out.get(1, 2)));
-		out.set(2, 3, -(in.get(0, 3) * out.get(2, 0) + in.get(1, 3) * out.get(2, 1) + in.get(2, 3) * out.get(2, 2)));
+		out.put(0, 3, -(in.get(0, 3) * out.get(0, 0) + in.get(1, 3) * out.get(0, 1) + in.get(2, 3) * out.get(0, 2)));
+		out.put(1, 3, -(in.get(0, 3) * out.get(1, 0) + in.get(1, 3) * out.get(1, 1) + in.get(2, 3) * out.get(1, 2)));
+		out.put(2, 3, -(in.get(0, 3) * out.get(2, 0) + in.get(1, 3) * out.get(2, 1) + in.get(2, 3) * out.get(2, 2)));
 	}
 
 	static void inv44(Matrix out, Matrix m) {
@@ -270,6 +273,146 @@ public class MatInvAlgs {
 				out.safeSet(i, j, r[i][j + 4]);
 	}
 
+	// Packed kernels over column-major 4x4 storage at s[so, so + 16), written
+	// to d[dO, dO + 16). Each reads its input before writing, so d may alias s.
+	// With normal set they write the normal matrix instead: the inverse
+	// transpose of the linear part, with no translation.
+
+	// Translation only: negate it. Normal matrix is the identity.
+	static void translation44(FloatBuffer s, int so, FloatBuffer d, int dO, boolean normal) {
+		final float tx = normal ? 0 : -s.get(so + 12), ty = normal ? 0 : -s.get(so + 13),
+				tz = normal ? 0 : -s.get(so + 14);
+		for (int k = 0; k < 12; k++)
+			d.put(dO + k, (k & 3) == k >> 2 ? 1 : 0);
+		d.put(dO + 12, tx);
+		d.put(dO + 13, ty);
+		d.put(dO + 14, tz);
+		d.put(dO + 15, 1);
+	}
+
+	// Rotation and translation: [R^T, -R^T t]. Normal matrix is R itself.
+	static void rigid44(FloatBuffer s, int so, FloatBuffer d, int dO, boolean normal) {
+		final float a = s.get(so), b = s.get(so + 4), c = s.get(so + 8);
+		final float e = s.get(so + 1), f = s.get(so + 5), g = s.get(so + 9);
+		final float h = s.get(so + 2), i = s.get(so + 6), j = s.get(so + 10);
+		final float tx = s.get(so + 12), ty = s.get(so + 13), tz = s.get(so + 14);
+		if (normal) {
+			put33(d, dO, a, e, h, b, f, i, c, g, j);
+			d.put(dO + 12, 0);
+			d.put(dO + 13, 0);
+			d.put(dO + 14, 0);
+		} else {
+			// Columns of R^T are the rows of R.
+			put33(d, dO, a, b, c, e, f, g, h, i, j);
+			d.put(dO + 12, -(a * tx + e * ty + h * tz));
+			d.put(dO + 13, -(b * tx + f * ty + i * tz));
+			d.put(dO + 14, -(c * tx + g * ty + j * tz));
+		}
+		d.put(dO + 15, 1);
+	}
+
+	/**
+	 * Affine: [A^-1, -A^-1 t] from the 3x3 adjugate, for a bottom row of
+	 * [0 0 0 1].
+	 *
+	 * @return false, leaving d untouched, if A is singular
+	 */
+	static boolean affine44(FloatBuffer s, int so, FloatBuffer d, int dO, boolean normal) {
+		final float a = s.get(so), b = s.get(so + 4), c = s.get(so + 8);
+		final float e = s.get(so + 1), f = s.get(so + 5), g = s.get(so + 9);
+		final float h = s.get(so + 2), i = s.get(so + 6), j = s.get(so + 10);
+		final float c00 = f * j - g * i, c01 = g * h - e * j, c02 = e * i - f * h;
+		final float det = a * c00 + b * c01 + c * c02;
+		if (det == 0)
+			return false;
+		final float id = 1 / det;
+		// inv(r, k) = cofactor(k, r) / det
+		final float i00 = c00 * id, i01 = (c * i - b * j) * id, i02 = (b * g - c * f) * id;
+		final float i10 = c01 * id, i11 = (a * j - c * h) * id, i12 = (c * e - a * g) * id;
+		final float i20 = c02 * id, i21 = (b * h - a * i) * id, i22 = (a * f - b * e) * id;
+		if (normal) {
+			put33(d, dO, i00, i01, i02, i10, i11, i12, i20, i21, i22);
+			d.put(dO + 12, 0);
+			d.put(dO + 13, 0);
+			d.put(dO + 14, 0);
+		} else {
+			final float tx = s.get(so + 12), ty = s.get(so + 13), tz = s.get(so + 14);
+			put33(d, dO, i00, i10, i20, i01, i11, i21, i02, i12, i22);
+			d.put(dO + 12, -(i00 * tx + i01 * ty + i02 * tz));
+			d.put(dO + 13, -(i10 * tx + i11 * ty + i12 * tz));
+			d.put(dO + 14, -(i20 * tx + i21 * ty + i22 * tz));
+		}
+		d.put(dO + 15, 1);
+		return true;
+	}
+
+	/**
+	 * Projective: full inverse by 2x2 sub-determinants. The normal matrix is
+	 * its transpose with the translation column and bottom row cleared, as in
+	 * {@link Trans3D#normalInto(Trans3D)}.
+	 *
+	 * @return false, leaving d untouched, if the matrix is singular
+	 */
+	static boolean general44(FloatBuffer s, int so, FloatBuffer d, int dO, boolean normal) {
+		final float a00 = s.get(so), a01 = s.get(so + 4), a02 = s.get(so + 8), a03 = s.get(so + 12);
+		final float a10 = s.get(so + 1), a11 = s.get(so + 5), a12 = s.get(so + 9), a13 = s.get(so + 13);
+		final float a20 = s.get(so + 2), a21 = s.get(so + 6), a22 = s.get(so + 10), a23 = s.get(so + 14);
+		final float a30 = s.get(so + 3), a31 = s.get(so + 7), a32 = s.get(so + 11), a33 = s.get(so + 15);
+		final float s0 = a00 * a11 - a10 * a01, s1 = a00 * a12 - a10 * a02, s2 = a00 * a13 - a10 * a03;
+		final float s3 = a01 * a12 - a11 * a02, s4 = a01 * a13 - a11 * a03, s5 = a02 * a13 - a12 * a03;
+		final float c5 = a22 * a33 - a32 * a23, c4 = a21 * a33 - a31 * a23, c3 = a21 * a32 - a31 * a22;
+		final float c2 = a20 * a33 - a30 * a23, c1 = a20 * a32 - a30 * a22, c0 = a20 * a31 - a30 * a21;
+		final float det = s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0;
+		if (det == 0)
+			return false;
+		final float id = 1 / det;
+		final float i00 = (a11 * c5 - a12 * c4 + a13 * c3) * id, i01 = (-a01 * c5 + a02 * c4 - a03 * c3) * id;
+		final float i02 = (a31 * s5 - a32 * s4 + a33 * s3) * id, i03 = (-a21 * s5 + a22 * s4 - a23 * s3) * id;
+		final float i10 = (-a10 * c5 + a12 * c2 - a13 * c1) * id, i11 = (a00 * c5 - a02 * c2 + a03 * c1) * id;
+		final float i12 = (-a30 * s5 + a32 * s2 - a33 * s1) * id, i13 = (a20 * s5 - a22 * s2 + a23 * s1) * id;
+		final float i20 = (a10 * c4 - a11 * c2 + a13 * c0) * id, i21 = (-a00 * c4 + a01 * c2 - a03 * c0) * id;
+		final float i22 = (a30 * s4 - a31 * s2 + a33 * s0) * id, i23 = (-a20 * s4 + a21 * s2 - a23 * s0) * id;
+		final float i30 = (-a10 * c3 + a11 * c1 - a12 * c0) * id, i31 = (a00 * c3 - a01 * c1 + a02 * c0) * id;
+		final float i32 = (-a30 * s3 + a31 * s1 - a32 * s0) * id, i33 = (a20 * s3 - a21 * s1 + a22 * s0) * id;
+		if (normal) {
+			put33(d, dO, i00, i01, i02, i10, i11, i12, i20, i21, i22);
+			d.put(dO + 3, 0);
+			d.put(dO + 7, 0);
+			d.put(dO + 11, 0);
+			d.put(dO + 12, 0);
+			d.put(dO + 13, 0);
+			d.put(dO + 14, 0);
+			d.put(dO + 15, i33);
+		} else {
+			put33(d, dO, i00, i10, i20, i01, i11, i21, i02, i12, i22);
+			d.put(dO + 3, i30);
+			d.put(dO + 7, i31);
+			d.put(dO + 11, i32);
+			d.put(dO + 12, i03);
+			d.put(dO + 13, i13);
+			d.put(dO + 14, i23);
+			d.put(dO + 15, i33);
+		}
+		return true;
+	}
+
+	// Writes a 3x3 block given column by column, and a zero bottom row.
+	private static void put33(FloatBuffer d, int o, float m00, float m10, float m20, float m01, float m11, float m21,
+			float m02, float m12, float m22) {
+		d.put(o, m00);
+		d.put(o + 1, m10);
+		d.put(o + 2, m20);
+		d.put(o + 3, 0);
+		d.put(o + 4, m01);
+		d.put(o + 5, m11);
+		d.put(o + 6, m21);
+		d.put(o + 7, 0);
+		d.put(o + 8, m02);
+		d.put(o + 9, m12);
+		d.put(o + 10, m22);
+		d.put(o + 11, 0);
+	}
+
 	private static final void swap(float[][] t, int a, int b) {
 		float[] k = t[a];
 		t[a] = t[b];
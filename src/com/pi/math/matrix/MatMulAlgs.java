@@ -5,84 +5,112 @@ public class MatMulAlgs {
 	// each i, j entry is given by multiplying the entries
 	// Aik (across row i of A) by the entries Bkj (down column j of B)
 
+	// True when the jdk.incubator.vector kernels in MatSimdAlgs can be used.
+	// Run with --add-modules jdk.incubator.vector to enable, or
+	// -Dcom.pi.math.noSimd=true to force the scalar kernels.
+	static final boolean SIMD = detectSimd();
+
+	private static boolean detectSimd() {
+		if (Boolean.getBoolean("com.pi.math.noSimd"))
+			return false;
+		try {
+			return MatSimdAlgs.available();
+		} catch (LinkageError e) {
+			// Vector API module isn't resolved.
+			return false;
+		}
+	}
+
+	private static boolean is(Matrix m, int r, int c) {
+		return m.rows == r && m.columns == c;
+	}
+
 	static void mul33(Matrix dest, Matrix lhs, Matrix rhs) {
 		if (rhs == dest) {
 			for (int i = 0; i < 3; i++) {
 				final float bi0 = rhs.get(0, i), bi1 = rhs.get(1, i), bi2 = rhs.get(2, i);
-				dest.set(0, i, lhs.get(0, 0) * bi0 + lhs.get(0, 1) * bi1 + lhs.get(0, 2) * bi2);
-				dest.set(1, i, lhs.get(1, 0) * bi0 + lhs.get(1, 1) * bi1 + lhs.get(1, 2) * bi2);
-				dest.set(2, i, lhs.get(2, 0) * bi0 + lhs.get(2, 1) * bi1 + lhs.get(2, 2) * bi2);
+				dest.put(0, i, lhs.get(0, 0) * bi0 + lhs.get(0, 1) * bi1 + lhs.get(0, 2) * bi2);
+				dest.put(1, i, lhs.get(1, 0) * bi0 + lhs.get(1, 1) * bi1 + lhs.get(1, 2) * bi2);
+				dest.put(2, i, lhs.get(2, 0) * bi0 + lhs.get(2, 1) * bi1 + lhs.get(2, 2) * bi2);
 			}
 		} else {
 			for (int i = 0; i < 3; i++) {
 				final float ai0 = lhs.get(i, 0), ai1 = lhs.get(i, 1), ai2 = lhs.get(i, 2);
-				dest.set(i, 0, ai0 * rhs.get(0, 0) + ai1 * rhs.get(1, 0) + ai2 * rhs.get(2, 0));
-				dest.set(i, 1, ai0 * rhs.get(0, 1) + ai1 * rhs.get(1, 1) + ai2 * rhs.get(2, 1));
-				dest.set(i, 2, ai0 * rhs.get(0, 2) + ai1 * rhs.get(1, 2) + ai2 * rhs.get(2, 2));
+				dest.put(i, 0, ai0 * rhs.get(0, 0) + ai1 * rhs.get(1, 0) + ai2 * rhs.get(2, 0));
+				dest.put(i, 1, ai0 * rhs.get(0, 1) + ai1 * rhs.get(1, 1) + ai2 * rhs.get(2, 1));
+				dest.put(i, 2, ai0 * rhs.get(0, 2) + ai1 * rhs.get(1, 2) + ai2 * rhs.get(2, 2));
 			}
 		}
 
 		// Clear out remainder with ID
 		for (int r = 3; r < dest.rows; r++)
 			for (int c = 0; c < dest.columns; c++)
-				dest.set(r, c, r == c ? 1 : 0);
+				dest.put(r, c, r == c ? 1 : 0);
 		for (int c = 3; c < dest.columns; c++)
 			for (int r = 0; r < dest.rows; r++)
-				dest.set(r, c, r == c ? 1 : 0);
+				dest.put(r, c, r == c ? 1 : 0);
 	}
 
 	static void mul34(Matrix dest, Matrix lhs, Matrix rhs) {
+		if (SIMD && is(dest, 3, 4) && is(lhs, 3, 4) && is(rhs, 3, 4)) {
+			MatSimdAlgs.mul34(dest.access, lhs.access, rhs.access);
+			return;
+		}
 		if (dest.rows() > 3 || dest.columns() > 4)
 			dest.makeIdentity();
 		if (rhs == dest) {
 			for (int i = 0; i < 4; i++) {
 				final float bi0 = rhs.get(0, i), bi1 = rhs.get(1, i), bi2 = rhs.get(2, i), bi3 = (i == 3 ? 1 : 0);
-				dest.set(0, i, lhs.get(0, 0) * bi0 + lhs.get(0, 1) * bi1 + lhs.get(0, 2) * bi2 + lhs.get(0, 3) * bi3);
-				dest.set(1, i, lhs.get(1, 0) * bi0 + lhs.get(1, 1) * bi1 + lhs.get(1, 2) * bi2 + lhs.get(1, 3) * bi3);
-				dest.set(2, i, lhs.get(2, 0) * bi0 + lhs.get(2, 1) * bi1 + lhs.get(2, 2) * bi2 + lhs.get(2, 3) * bi3);
+				dest.put(0, i, lhs.get(0, 0) * bi0 + lhs.get(0, 1) * bi1 + lhs.get(0, 2) * bi2 + lhs.get(0, 3) * bi3);
+				dest.put(1, i, lhs.get(1, 0) * bi0 + lhs.get(1, 1) * bi1 + lhs.get(1, 2) * bi2 + lhs.get(1, 3) * bi3);
+				dest.put(2, i, lhs.get(2, 0) * bi0 + lhs.get(2, 1) * bi1 + lhs.get(2, 2) * bi2 + lhs.get(2, 3) * bi3);
 			}
 		} else {
 			for (int i = 0; i < 3; i++) {
 				final float ai0 = lhs.get(i, 0), ai1 = lhs.get(i, 1), ai2 = lhs.get(i, 2), ai3 = lhs.get(i, 3);
-				dest.set(i, 0, ai0 * rhs.get(0, 0) + ai1 * rhs.get(1, 0) + ai2 * rhs.get(2, 0));
-				dest.set(i, 1, ai0 * rhs.get(0, 1) + ai1 * rhs.get(1, 1) + ai2 * rhs.get(2, 1));
-				dest.set(i, 2, ai0 * rhs.get(0, 2) + ai1 * rhs.get(1, 2) + ai2 * rhs.get(2, 2));
-				dest.set(i, 3, ai0 * rhs.get(0, 3) + ai1 * rhs.get(1, 3) + ai2 * rhs.get(2, 3) + ai3);
+				dest.put(i, 0, ai0 * rhs.get(0, 0) + ai1 * rhs.get(1, 0) + ai2 * rhs.get(2, 0));
+				dest.put(i, 1, ai0 * rhs.get(0, 1) + ai1 * rhs.get(1, 1) + ai2 * rhs.get(2, 1));
+				dest.put(i, 2, ai0 * rhs.get(0, 2) + ai1 * rhs.get(1, 2) + ai2 * rhs.get(2, 2));
+				dest.put(i, 3, ai0 * rhs.get(0, 3) + ai1 * rhs.get(1, 3) + ai2 * rhs.get(2, 3) + ai3);
 			}
 		}
 		// Clear out remainder with ID
 		for (int r = 3; r < dest.rows; r++)
 			for (int c = 0; c < dest.columns; c++)
-				dest.set(r, c, r == c ? 1 : 0);
+				dest.put(r, c, r == c ? 1 : 0);
 		for (int c = 4; c < dest.columns; c++)
 			for (int r = 0; r < dest.rows; r++)
-				dest.set(r, c, r == c ? 1 : 0);
+				dest.put(r, c, r == c ? 1 : 0);
 	}
 
 	static void mul44(Matrix dest, Matrix lhs, Matrix rhs) {
+		if (SIMD && is(dest, 4, 4) && is(lhs, 4, 4) && is(rhs, 4, 4)) {
+			MatSimdAlgs.mul44(dest.access, lhs.access, rhs.access);
+			return;
+		}
 		if (rhs == dest) {
 			for (int i = 0; i < 4; i++) {
 				final float bi0 = rhs.get(0, i), bi1 = rhs.get(1, i), bi2 = rhs.get(2, i), bi3 = rhs.get(3, i);
-				dest.set(0, i, lhs.get(0, 0) * bi0 + lhs.get(0, 1) * bi1 + lhs.get(0, 2) * bi2 + lhs.get(0, 3) * bi3);
-				dest.set(1, i, lhs.get(1, 0) * bi0 + lhs.get(1, 1) * bi1 + lhs.get(1, 2) * bi2 + lhs.get(1, 3) * bi3);
-				dest.set(2, i, lhs.get(2, 0) * bi0 + lhs.get(2, 1) * bi1 + lhs.get(2, 2) * bi2 + lhs.get(2, 3) * bi3);
-				dest.set(3, i, lhs.get(3, 0) * bi0 + lhs.get(3, 1) * bi1 + lhs.get(3, 2) * bi2 + lhs.get(3, 3) * bi3);
+				dest.put(0, i, lhs.get(0, 0) * bi0 + lhs.get(0, 1) * bi1 + lhs.get(0, 2) * bi2 + lhs.get(0, 3) * bi3);
+				dest.put(1, i, lhs.get(1, 0) * bi0 + lhs.get(1, 1) * bi1 + lhs.get(1, 2) * bi2 + lhs.get(1, 3) * bi3);
+				dest.put(2, i, lhs.get(2, 0) * bi0 + lhs.get(2, 1) * bi1 + lhs.get(2, 2) * bi2 + lhs.get(2, 3) * bi3);
+				dest.put(3, i, lhs.get(3, 0) * bi0 + lhs.get(3, 1) * bi1 + lhs.get(3, 2) * bi2 + lhs.get(3, 3) * bi3);
 			}
 		} else {
 			for (int i = 0; i < 4; i++) {
 				final float ai0 = lhs.get(i, 0), ai1 = lhs.get(i, 1), ai2 = lhs.get(i, 2), ai3 = lhs.get(i, 3);
-				dest.set(i, 0, ai0 * rhs.get(0, 0) + ai1 * rhs.get(1, 0) + ai2 * rhs.get(2, 0) + ai3 * rhs.get(3, 0));
-				dest.set(i, 1, ai0 * rhs.get(0, 1) + ai1 * rhs.get(1, 1) + ai2 * rhs.get(2, 1) + ai3 * rhs.get(3, 1));
-				dest.set(i, 2, ai0 * rhs.get(0, 2) + ai1 * rhs.get(1, 2) + ai2 * rhs.get(2, 2) + ai3 * rhs.get(3, 2));
-				dest.set(i, 3, ai0 * rhs.get(0, 3) + ai1 * rhs.get(1, 3) + ai2 * rhs.get(2, 3) + ai3 * rhs.get(3, 3));
+				dest.put(i, 0, ai0 * rhs.get(0, 0) + ai1 * rhs.get(1, 0) + ai2 * rhs.get(2, 0) + ai3 * rhs.get(3, 0));
+				dest.put(i, 1, ai0 * rhs.get(0, 1) + ai1 * rhs.get(1, 1) + ai2 * rhs.get(2, 1) + ai3 * rhs.get(3, 1));
+				dest.put(i, 2, ai0 * rhs.get(0, 2) + ai1 * rhs.get(1, 2) + ai2 * rhs.get(2, 2) + ai3 * rhs.get(3, 2));
+				dest.put(i, 3, ai0 * rhs.get(0, 3) + ai1 * rhs.get(1, 3) + ai2 * rhs.get(2, 3) + ai3 * rhs.get(3, 3));
 			}
 		}
 		// Clear out remainder with ID
 		for (int r = 4; r < dest.rows; r++)
 			for (int c = 0; c < dest.columns; c++)
-				dest.set(r, c, r == c ? 1 : 0);
+				dest.put(r, c, r == c ? 1 : 0);
 		for (int c = 4; c < dest.columns; c++)
 			for (int r = 0; r < dest.rows; r++)
-				dest.set(r, c, r == c ? 1 : 0);
+				dest.put(r, c, r == c ? 1 : 0);
 	}
 }
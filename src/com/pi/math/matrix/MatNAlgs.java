@@ -0,0 +1,190 @@
+package com.pi.math.matrix;
+
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+import com.pi.math.Parallelism;
+
+// Blocked GEMM for MatrixN, after the GotoBLAS layout: a KC x NC block of the
+// right operand is packed into NR-column panels, a MC x KC block of the left
+// operand into MR-row panels that stay in L2, and a register kernel multiplies
+// one panel of each. Packing keeps the kernel's reads sequential whatever the
+// operand strides, so transposed products read the original arrays through
+// (row stride, column stride) pairs. Parallel runs split the destination
+// columns, so tasks never write the same element.
+@SuppressWarnings("serial")
+final class MatNAlgs {
+	static final boolean SIMD = MatMulAlgs.SIMD && MatNSimdAlgs.available();
+
+	static final int NR = 4;
+	static final int MR = SIMD ? MatNSimdAlgs.MR : 4;
+	private static final int KC = 256;
+	private static final int MC = 128 / MR * MR;
+	private static final int NC = 512;
+	// Below this many multiply-adds the fork/join overhead isn't worth it.
+	private static final long PARALLEL_WORK = 1L << 21;
+
+	private static final ThreadLocal<float[]> localPanelA = ThreadLocal.withInitial(new Supplier<float[]>() {
+		@Override
+		public float[] get() {
+			return new float[MC * KC];
+		}
+	});
+
+	private static final ThreadLocal<float[]> localPanelB = ThreadLocal.withInitial(new Supplier<float[]>() {
+		@Override
+		public float[] get() {
+			return new float[KC * NC];
+		}
+	});
+
+	private static class Task extends RecursiveAction {
+		private final int m, k, j0, j1, grain;
+		private final float[] a, b, c;
+		private final int aRs, aCs, bRs, bCs;
+
+		Task(int m, int k, float[] a, int aRs, int aCs, float[] b, int bRs, int bCs, float[] c, int j0, int j1,
+				int grain) {
+			this.m = m;
+			this.k = k;
+			this.a = a;
+			this.aRs = aRs;
+			this.aCs = aCs;
+			this.b = b;
+			this.bRs = bRs;
+			this.bCs = bCs;
+			this.c = c;
+			this.j0 = j0;
+			this.j1 = j1;
+			this.grain = grain;
+		}
+
+		@Override
+		protected void compute() {
+			if (j1 - j0 <= grain) {
+				columns(m, k, a, aRs, aCs, b, bRs, bCs, c, j0, j1);
+				return;
+			}
+			final int mid = j0 + ((j1 - j0) / 2 + NR - 1) / NR * NR;
+			invokeAll(new Task(m, k, a, aRs, aCs, b, bRs, bCs, c, j0, mid, grain),
+					new Task(m, k, a, aRs, aCs, b, bRs, bCs, c, mid, j1, grain));
+		}
+	}
+
+	/**
+	 * c (m x n, column-major) = A * B, where A(i, p) = a[i * aRs + p * aCs] and
+	 * B(p, j) = b[p * bRs + j * bCs]. c must not alias a or b.
+	 */
+	static void gemm(int m, int n, int k, float[] a, int aRs, int aCs, float[] b, int bRs, int bCs, float[] c) {
+		final int par = Parallelism.pool().getParallelism();
+		if (par <= 1 || (long) m * n * k < PARALLEL_WORK || n < 2 * NR) {
+			columns(m, k, a, aRs, aCs, b, bRs, bCs, c, 0, n);
+			return;
+		}
+		// A few tasks per worker for balance, but wide enough to amortize
+		// packing the left operand.
+		final int grain = Math.max(16 * NR, (n / (4 * par) + NR - 1) / NR * NR);
+		Parallelism.pool().invoke(new Task(m, k, a, aRs, aCs, b, bRs, bCs, c, 0, n, grain));
+	}
+
+	// Computes destination columns [j0, j1).
+	private static void columns(int m, int k, float[] a, int aRs, int aCs, float[] b, int bRs, int bCs, float[] c,
+			int j0, int j1) {
+		Arrays.fill(c, j0 * m, j1 * m, 0);
+		final float[] pa = localPanelA.get(), pb = localPanelB.get(), edge = new float[MR * NR];
+		for (int jc = j0; jc < j1; jc += NC) {
+			final int nc = Math.min(NC, j1 - jc);
+			for (int pc = 0; pc < k; pc += KC) {
+				final int kc = Math.min(KC, k - pc);
+				packB(pb, b, bRs, bCs, pc, kc, jc, nc);
+				for (int ic = 0; ic < m; ic += MC) {
+					final int mc = Math.min(MC, m - ic);
+					packA(pa, a, aRs, aCs, ic, mc, pc, kc);
+					for (int jr = 0; jr < nc; jr += NR) {
+						final int nr = Math.min(NR, nc - jr);
+						for (int ir = 0; ir < mc; ir += MR) {
+							final int cOff = (jc + jr) * m + ic + ir;
+							if (SIMD)
+								MatNSimdAlgs.kernel(kc, pa, ir * kc, pb, jr * kc, c, cOff, m, Math.min(MR, mc - ir),
+										nr, edge);
+							else
+								kernel(kc, pa, ir * kc, pb, jr * kc, c, cOff, m, Math.min(MR, mc - ir), nr);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	// Packs A[ic, ic + mc) x [pc, pc + kc) into MR-row panels, p-major within
+	// a panel and zero-padded to a whole panel.
+	private static void packA(float[] panel, float[] a, int aRs, int aCs, int ic, int mc, int pc, int kc) {
+		for (int ir = 0; ir < mc; ir += MR) {
+			final int mr = Math.min(MR, mc - ir);
+			final int base = ir * kc;
+			for (int p = 0; p < kc; p++) {
+				final int src = (ic + ir) * aRs + (pc + p) * aCs, dst = base + p * MR;
+				int r = 0;
+				for (; r < mr; r++)
+					panel[dst + r] = a[src + r * aRs];
+				for (; r < MR; r++)
+					panel[dst + r] = 0;
+			}
+		}
+	}
+
+	// Packs B[pc, pc + kc) x [jc, jc + nc) into NR-column panels, p-major
+	// within a panel and zero-padded to a whole panel.
+	private static void packB(float[] panel, float[] b, int bRs, int bCs, int pc, int kc, int jc, int nc) {
+		for (int jr = 0; jr < nc; jr += NR) {
+			final int nr = Math.min(NR, nc - jr);
+			final int base = jr * kc;
+			for (int p = 0; p < kc; p++) {
+				final int src = (pc + p) * bRs + (jc + jr) * bCs, dst = base + p * NR;
+				int j = 0;
+				for (; j < nr; j++)
+					panel[dst + j] = b[src + j * bCs];
+				for (; j < NR; j++)
+					panel[dst + j] = 0;
+			}
+		}
+	}
+
+	// Scalar 4x4 register kernel.
+	private static void kernel(int kc, float[] pa, int aOff, float[] pb, int bOff, float[] c, int cOff, int ldc,
+			int mr, int nr) {
+		float c00 = 0, c10 = 0, c20 = 0, c30 = 0, c01 = 0, c11 = 0, c21 = 0, c31 = 0;
+		float c02 = 0, c12 = 0, c22 = 0, c32 = 0, c03 = 0, c13 = 0, c23 = 0, c33 = 0;
+		for (int p = 0, ap = aOff, bp = bOff; p < kc; p++, ap += MR, bp += NR) {
+			final float a0 = pa[ap], a1 = pa[ap + 1], a2 = pa[ap + 2], a3 = pa[ap + 3];
+			float b = pb[bp];
+			c00 += a0 * b;
+			c10 += a1 * b;
+			c20 += a2 * b;
+			c30 += a3 * b;
+			b = pb[bp + 1];
+			c01 += a0 * b;
+			c11 += a1 * b;
+			c21 += a2 * b;
+			c31 += a3 * b;
+			b = pb[bp + 2];
+			c02 += a0 * b;
+			c12 += a1 * b;
+			c22 += a2 * b;
+			c32 += a3 * b;
+			b = pb[bp + 3];
+			c03 += a0 * b;
+			c13 += a1 * b;
+			c23 += a2 * b;
+			c33 += a3 * b;
+		}
+		final float[] t = { c00, c10, c20, c30, c01, c11, c21, c31, c02, c12, c22, c32, c03, c13, c23, c33 };
+		for (int j = 0; j < nr; j++)
+			for (int r = 0; r < mr; r++)
+				c[cOff + j * ldc + r] += t[j * MR + r];
+	}
+
+	private MatNAlgs() {
+	}
+}
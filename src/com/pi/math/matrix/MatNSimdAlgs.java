@@ -0,0 +1,71 @@
+package com.pi.math.matrix;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorSpecies;
+
+// Register kernels for MatNAlgs at the preferred vector width. Like
+// MatSimdAlgs, only touched when MatMulAlgs.SIMD is set.
+final class MatNSimdAlgs {
+	private static final VectorSpecies<Float> S = FloatVector.SPECIES_PREFERRED;
+	private static final int L = S.length();
+	// Two vectors of rows by MatNAlgs.NR columns: eight accumulators.
+	static final int MR = 2 * L;
+
+	static boolean available() {
+		return L >= 4;
+	}
+
+	// c[cOff + j * ldc + r] += sum_p pa[aOff + p * MR + r] * pb[bOff + p * NR + j]
+	// for r < mr, j < nr. Both panels are zero-padded, so the arithmetic is
+	// always full width and only the stores are trimmed; edge holds MR * NR
+	// floats of scratch for that.
+	static void kernel(int kc, float[] pa, int aOff, float[] pb, int bOff, float[] c, int cOff, int ldc, int mr,
+			int nr, float[] edge) {
+		FloatVector c00 = FloatVector.zero(S), c10 = c00, c01 = c00, c11 = c00;
+		FloatVector c02 = c00, c12 = c00, c03 = c00, c13 = c00;
+		for (int p = 0, ap = aOff, bp = bOff; p < kc; p++, ap += MR, bp += MatNAlgs.NR) {
+			final FloatVector a0 = FloatVector.fromArray(S, pa, ap);
+			final FloatVector a1 = FloatVector.fromArray(S, pa, ap + L);
+			FloatVector bv = FloatVector.broadcast(S, pb[bp]);
+			c00 = a0.fma(bv, c00);
+			c10 = a1.fma(bv, c10);
+			bv = FloatVector.broadcast(S, pb[bp + 1]);
+			c01 = a0.fma(bv, c01);
+			c11 = a1.fma(bv, c11);
+			bv = FloatVector.broadcast(S, pb[bp + 2]);
+			c02 = a0.fma(bv, c02);
+			c12 = a1.fma(bv, c12);
+			bv = FloatVector.broadcast(S, pb[bp + 3]);
+			c03 = a0.fma(bv, c03);
+			c13 = a1.fma(bv, c13);
+		}
+		if (mr == MR && nr == MatNAlgs.NR) {
+			accumulate(c, cOff, c00, c10);
+			accumulate(c, cOff + ldc, c01, c11);
+			accumulate(c, cOff + 2 * ldc, c02, c12);
+			accumulate(c, cOff + 3 * ldc, c03, c13);
+			return;
+		}
+		// Edge tile: spill and add the valid part. Masked loads and stores
+		// aren't intrinsified on every JDK and would box the accumulators.
+		c00.intoArray(edge, 0);
+		c10.intoArray(edge, L);
+		c01.intoArray(edge, MR);
+		c11.intoArray(edge, MR + L);
+		c02.intoArray(edge, 2 * MR);
+		c12.intoArray(edge, 2 * MR + L);
+		c03.intoArray(edge, 3 * MR);
+		c13.intoArray(edge, 3 * MR + L);
+		for (int j = 0; j < nr; j++)
+			for (int r = 0; r < mr; r++)
+				c[cOff + j * ldc + r] += edge[j * MR + r];
+	}
+
+	private static void accumulate(float[] c, int off, FloatVector v0, FloatVector v1) {
+		FloatVector.fromArray(S, c, off).add(v0).intoArray(c, off);
+		FloatVector.fromArray(S, c, off + L).add(v1).intoArray(c, off + L);
+	}
+
+	private MatNSimdAlgs() {
+	}
+}
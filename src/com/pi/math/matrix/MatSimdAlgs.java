@@ -0,0 +1,108 @@
+package com.pi.math.matrix;
+
+import java.nio.FloatBuffer;
+import java.util.function.Supplier;
+
+import com.pi.math.vector.Vector;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorSpecies;
+
+// 4-lane kernels over column-major storage. Only touched through
+// MatMulAlgs.SIMD, so this class (and jdk.incubator.vector) is never loaded
+// when the module isn't available.
+final class MatSimdAlgs {
+	private static final VectorSpecies<Float> S = FloatVector.SPECIES_128;
+
+	// [0, 16) lhs, [16, 32) rhs, [32, 48) result
+	private static final ThreadLocal<float[]> localScratch = ThreadLocal.withInitial(new Supplier<float[]>() {
+		@Override
+		public float[] get() {
+			return new float[48];
+		}
+	});
+
+	static boolean available() {
+		// Don't take the vector path on hardware that would emulate it.
+		return S.length() == 4 && FloatVector.SPECIES_PREFERRED.vectorBitSize() >= S.vectorBitSize();
+	}
+
+	static void mulCore(float[] t) {
+		final FloatVector l0 = FloatVector.fromArray(S, t, 0);
+		final FloatVector l1 = FloatVector.fromArray(S, t, 4);
+		final FloatVector l2 = FloatVector.fromArray(S, t, 8);
+		final FloatVector l3 = FloatVector.fromArray(S, t, 12);
+		for (int j = 16; j < 32; j += 4)
+			l0.mul(t[j]).add(l1.mul(t[j + 1])).add(l2.mul(t[j + 2])).add(l3.mul(t[j + 3])).intoArray(t, j + 16);
+	}
+
+	// Element-wise copies: bulk get/put on these tiny buffers costs more than
+	// it saves.
+	private static void load(FloatBuffer src, int off, float[] t, int to, int n) {
+		for (int i = 0; i < n; i++)
+			t[to + i] = src.get(off + i);
+	}
+
+	private static void store(FloatBuffer dst, int off, float[] t, int from, int n) {
+		for (int i = 0; i < n; i++)
+			dst.put(off + i, t[from + i]);
+	}
+
+	static void mul44(FloatBuffer dest, FloatBuffer lhs, FloatBuffer rhs) {
+		if (dest.hasArray() && lhs.hasArray() && rhs.hasArray()) {
+			mul44(dest.array(), dest.arrayOffset(), lhs.array(), lhs.arrayOffset(), rhs.array(), rhs.arrayOffset());
+			return;
+		}
+		final float[] t = localScratch.get();
+		load(lhs, 0, t, 0, 16);
+		load(rhs, 0, t, 16, 16);
+		mulCore(t);
+		store(dest, 0, t, 32, 16);
+	}
+
+	// Heap storage: straight off the arrays. lhs is read into registers up
+	// front and each rhs column is read before its dest column is written, so
+	// dest may alias either operand.
+	private static void mul44(float[] d, int doff, float[] l, int loff, float[] r, int roff) {
+		final FloatVector l0 = FloatVector.fromArray(S, l, loff);
+		final FloatVector l1 = FloatVector.fromArray(S, l, loff + 4);
+		final FloatVector l2 = FloatVector.fromArray(S, l, loff + 8);
+		final FloatVector l3 = FloatVector.fromArray(S, l, loff + 12);
+		for (int j = 0; j < 16; j += 4)
+			l0.mul(r[roff + j]).add(l1.mul(r[roff + j + 1])).add(l2.mul(r[roff + j + 2]))
+					.add(l3.mul(r[roff + j + 3])).intoArray(d, doff + j);
+	}
+
+	static void mul34(FloatBuffer dest, FloatBuffer lhs, FloatBuffer rhs) {
+		final float[] t = localScratch.get();
+		// Pad to 4x4: lhs bottom row is never read back, rhs bottom row is
+		// the implicit [0 0 0 1].
+		for (int c = 0; c < 4; c++) {
+			load(lhs, c * 3, t, c * 4, 3);
+			load(rhs, c * 3, t, 16 + c * 4, 3);
+			t[c * 4 + 3] = 0;
+			t[16 + c * 4 + 3] = c == 3 ? 1 : 0;
+		}
+		mulCore(t);
+		for (int c = 0; c < 4; c++)
+			store(dest, c * 3, t, 32 + c * 4, 3);
+	}
+
+	static <E extends Vector> E transform44(FloatBuffer m, E outset, float x, float y, float z, float w) {
+		final float[] t = localScratch.get();
+		// Heap storage is read in place; anything else is copied in first.
+		final float[] src = m.hasArray() ? m.array() : t;
+		final int o = m.hasArray() ? m.arrayOffset() : 0;
+		if (src == t)
+			load(m, 0, t, 0, 16);
+		FloatVector.fromArray(S, src, o).mul(x).add(FloatVector.fromArray(S, src, o + 4).mul(y))
+				.add(FloatVector.fromArray(S, src, o + 8).mul(z)).add(FloatVector.fromArray(S, src, o + 12).mul(w))
+				.intoArray(t, 32);
+		for (int k = 0; k < outset.dimension(); k++)
+			outset.set(k, t[32 + k]);
+		return outset;
+	}
+
+	private MatSimdAlgs() {
+	}
+}
@@ -16,17 +16,16 @@ public abstract class Matrix<E extends Matrix<?>> {
 
 	protected final FloatBuffer access;
 	protected final VectorBuff[] cols;
+	// Backing array and index of element 0 for heap storage, else null.
+	final float[] array;
+	final int base;
 
 	private static FloatBuffer slit(ByteBuffer a, int o, int s) {
-		a.position(o);
-		a.limit(o + s * 4);
-		return a.asFloatBuffer();
+		return a.slice(o, s * 4).order(a.order()).asFloatBuffer();
 	}
 
 	private static FloatBuffer slit(FloatBuffer a, int o, int s) {
-		a.position(o);
-		a.limit(o + s);
-		return a.slice();
+		return a.slice(o, s);
 	}
 
 	// Stringification
@@ -71,6 +70,8 @@ public abstract class Matrix<E extends Matrix<?>> {
 
 	Matrix(FloatBuffer f, final int r, final int c) {
 		this.access = f;
+		this.array = f.hasArray() ? f.array() : null;
+		this.base = f.hasArray() ? f.arrayOffset() : 0;
 		this.rows = r;
 		this.columns = c;
 		cols = new VectorBuff[c];
@@ -128,6 +129,8 @@ public abstract class Matrix<E extends Matrix<?>> {
 				access.limit(rows * m.columns);
 				m.access.put(access);
 				access.limit(alo);
+			} else if (array != null && m.array != null) {
+				System.arraycopy(array, base, m.array, m.base, rows * columns);
 			} else {
 				// Column count is equal. Verbatim copy.
 				m.access.position(0);
@@ -145,14 +148,28 @@ public abstract class Matrix<E extends Matrix<?>> {
 		return m;
 	}
 
+	// The backing array may hold other data around this matrix, so the array
+	// paths check what a direct buffer's limit would.
+	private IndexOutOfBoundsException outOfBounds(int r, int c) {
+		return new IndexOutOfBoundsException("(" + r + ", " + c + ") outside " + rows + "x" + columns);
+	}
+
 	public final float get(int n) {
-		return access.get(n);
+		if (array == null)
+			return access.get(n);
+		if (n < 0 || n >= rows * columns)
+			throw outOfBounds(n % rows, n / rows);
+		return array[base + n];
 	}
 
 	public final float get(int r, int c) {
 		if (r >= rows || c >= columns)
 			return r == c ? 1 : 0;
-		return cols[c].get(r);
+		if (array == null)
+			return cols[c].get(r);
+		if (r < 0 || c < 0)
+			throw outOfBounds(r, c);
+		return array[base + c * rows + r];
 	}
 
 	public final VectorBuff getRow(int i, VectorBuff v) {
@@ -231,7 +248,7 @@ public abstract class Matrix<E extends Matrix<?>> {
 	}
 
 	public final void mod(int r, int c, float v) {
-		cols[c].set(r, cols[c].get(r) + v);
+		set(r, c, cols[c].get(r) + v);
 	}
 
 	/**
@@ -239,9 +256,24 @@ public abstract class Matrix<E extends Matrix<?>> {
 	 */
 	public E mul(Matrix lhs, Matrix rhs) {
 		if (lhs instanceof Matrix4 || rhs instanceof Matrix4) {
-			MatMulAlgs.mul44(this, lhs, rhs);
+			if (rows < 4 || columns < 4) {
+				// The product doesn't fit here; keep the part that does.
+				try (Heap.Frame f = Heap.frame()) {
+					Matrix4 tmp = f.mat4();
+					MatMulAlgs.mul44(tmp, lhs, rhs);
+					((Matrix) tmp).copyTo(this);
+				}
+			} else
+				MatMulAlgs.mul44(this, lhs, rhs);
 		} else if (lhs instanceof Matrix34 || rhs instanceof Matrix34) {
-			MatMulAlgs.mul34(this, lhs, rhs);
+			if (columns < 4) {
+				try (Heap.Frame f = Heap.frame()) {
+					Matrix34 tmp = f.mat34();
+					MatMulAlgs.mul34(tmp, lhs, rhs);
+					((Matrix) tmp).copyTo(this);
+				}
+			} else
+				MatMulAlgs.mul34(this, lhs, rhs);
 		} else {
 			MatMulAlgs.mul33(this, lhs, rhs);
 		}
@@ -284,15 +316,37 @@ public abstract class Matrix<E extends Matrix<?>> {
 	public final void safeSet(int r, int c, float v) {
 		if (r >= rows || c >= columns)
 			return;
-		cols[c].set(r, v);
+		set(r, c, v);
 	}
 
 	public final void set(int n, float v) {
-		access.put(n, v);
+		beforeSet(n % rows, n / rows, v);
+		if (array == null)
+			access.put(n, v);
+		else if (n < 0 || n >= rows * columns)
+			throw outOfBounds(n % rows, n / rows);
+		else
+			array[base + n] = v;
 	}
 
 	public final void set(int r, int c, float v) {
-		cols[c].set(r, v);
+		beforeSet(r, c, v);
+		put(r, c, v);
+	}
+
+	// Called by every set before element (r, c) is overwritten with v.
+	void beforeSet(int r, int c, float v) {
+	}
+
+	// Writes element (r, c) without calling beforeSet. Only for kernels whose
+	// caller assigns the result's flags afterwards.
+	final void put(int r, int c, float v) {
+		if (array == null)
+			cols[c].set(r, v);
+		else if (r < 0 || r >= rows || c < 0 || c >= columns)
+			throw outOfBounds(r, c);
+		else
+			array[base + c * rows + r] = v;
 	}
 
 	public E set(Matrix m) {
@@ -318,20 +372,22 @@ public abstract class Matrix<E extends Matrix<?>> {
 	}
 
 	public <R extends Vector> R transform4(final R input) {
-		VectorBuff tmp = Heap.checkout(input.dimension());
-		transform4(tmp, input);
-		input.set(tmp);
-		Heap.checkin(tmp);
+		try (Heap.Frame f = Heap.frame()) {
+			VectorBuff tmp = f.vec(input.dimension());
+			transform4(tmp, input);
+			input.set(tmp);
+		}
 		return input;
 	}
 
 	public abstract <R extends Vector> R transform4(final R output, Vector input);
 
 	public <R extends Vector> R transform3(final R input) {
-		VectorBuff tmp = Heap.checkout(input.dimension());
-		transform4(tmp, input);
-		input.set(tmp);
-		Heap.checkin(tmp);
+		try (Heap.Frame f = Heap.frame()) {
+			VectorBuff tmp = f.vec(input.dimension());
+			transform3(tmp, input);
+			input.set(tmp);
+		}
 		return input;
 	}
 
@@ -11,6 +11,13 @@ public final class Matrix3 extends Trans3D<Matrix3> {
 		this(BufferProvider.createFloatBuffer(9), 0);
 	}
 
+	/**
+	 * @return a Matrix3 backed by a plain float array rather than a direct buffer
+	 */
+	public static Matrix3 onHeap() {
+		return new Matrix3(BufferProvider.createHeapFloatBuffer(9), 0);
+	}
+
 	public Matrix3(ByteBuffer f, int offset) {
 		super(f, offset, 3, 3);
 	}
@@ -14,6 +14,13 @@ public class Matrix34 extends Trans3D<Matrix34> {
 		this(BufferProvider.createFloatBuffer(12), 0);
 	}
 
+	/**
+	 * @return a Matrix34 backed by a plain float array rather than a direct buffer
+	 */
+	public static Matrix34 onHeap() {
+		return new Matrix34(BufferProvider.createHeapFloatBuffer(12), 0);
+	}
+
 	public Matrix34(ByteBuffer f, int offset) {
 		super(f, offset, 3, 4);
 	}
@@ -58,10 +65,10 @@ public class Matrix34 extends Trans3D<Matrix34> {
 				outset.set(k, get(k) * inset.get(0));
 				break;
 			case 2:
-				outset.set(k, get(k) * inset.get(0) + get(4 + k) * inset.get(1));
+				outset.set(k, get(k) * inset.get(0) + get(3 + k) * inset.get(1));
 				break;
 			default:
-				outset.set(k, get(k) * inset.get(0) + get(4 + k) * inset.get(1) + get(8 + k) * inset.get(2));
+				outset.set(k, get(k) * inset.get(0) + get(3 + k) * inset.get(1) + get(6 + k) * inset.get(2));
 				break;
 			}
 		return outset;
@@ -0,0 +1,26 @@
+package com.pi.math.matrix;
+
+import java.nio.DoubleBuffer;
+
+import com.pi.math.BufferProvider;
+
+/**
+ * Affine 3x4 double matrix; the implicit fourth row is [0 0 0 1].
+ */
+public final class Matrix34d extends Trans3Dd<Matrix34d> {
+	public Matrix34d() {
+		this(BufferProvider.createDoubleBuffer(12), 0);
+	}
+
+	/**
+	 * @return a Matrix34d backed by a plain double array rather than a direct
+	 *         buffer
+	 */
+	public static Matrix34d onHeap() {
+		return new Matrix34d(BufferProvider.createHeapDoubleBuffer(12), 0);
+	}
+
+	public Matrix34d(DoubleBuffer f, int offset) {
+		super(f, offset, 3, 4);
+	}
+}
@@ -14,6 +14,13 @@ public final class Matrix4 extends Trans3D<Matrix4> {
 		this(BufferProvider.createFloatBuffer(16), 0);
 	}
 
+	/**
+	 * @return a Matrix4 backed by a plain float array rather than a direct buffer
+	 */
+	public static Matrix4 onHeap() {
+		return new Matrix4(BufferProvider.createHeapFloatBuffer(16), 0);
+	}
+
 	public Matrix4(ByteBuffer f, int offset) {
 		super(f, offset, 4, 4);
 	}
@@ -35,12 +42,18 @@ public final class Matrix4 extends Trans3D<Matrix4> {
 		set(13, 0);
 		set(14, 0);
 		set(15, 1);
+		flags &= ~FLAG_TRANSLATION;
 		return this;
 	}
 
 	// Math operations
 	@Override
 	public <E extends Vector> E transform4(E outset, final Vector inset) {
+		if (MatMulAlgs.SIMD && outset.dimension() <= 4) {
+			final int d = inset.dimension();
+			return MatSimdAlgs.transform44(access, outset, inset.get(0), d > 1 ? inset.get(1) : 0,
+					d > 2 ? inset.get(2) : 0, d > 3 ? inset.get(3) : 1);
+		}
 		for (int k = 0; k < outset.dimension(); k++)
 			switch (inset.dimension()) {
 			case 1:
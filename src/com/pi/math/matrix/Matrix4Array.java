@@ -0,0 +1,288 @@
+package com.pi.math.matrix;
+
+import java.nio.FloatBuffer;
+import java.util.function.Supplier;
+
+import com.pi.math.BufferProvider;
+import com.pi.math.Parallelism;
+
+/**
+ * A run of column-major 4x4 matrices packed into one buffer. Each element
+ * carries its own {@link Trans3D} flags, so the batched products take the same
+ * shortcuts as {@link Trans3D#mul(Matrix, Matrix)} on a per element basis.
+ */
+public class Matrix4Array {
+	static final int STRIDE = 16;
+	// Elements are grouped by flag class a chunk at a time, so the index
+	// scratch stays small and the chunk stays in cache between passes.
+	private static final int CHUNK = 1024;
+	private static final int CLASS_TRANSLATION = 0, CLASS_RIGID = 1, CLASS_AFFINE = 2, CLASS_GENERAL = 3;
+
+	private static final ThreadLocal<int[]> localOrder = ThreadLocal.withInitial(new Supplier<int[]>() {
+		@Override
+		public int[] get() {
+			return new int[CHUNK];
+		}
+	});
+
+	private final FloatBuffer data;
+	final int[] flags;
+	private final int length;
+
+	private static int classOf(int f) {
+		if ((f & Trans3D.FLAG_GENERAL) != 0)
+			return CLASS_GENERAL;
+		if ((f & Trans3D.FLAG_SCALING) != 0)
+			return CLASS_AFFINE;
+		return (f & Trans3D.FLAG_ROTATION) != 0 ? CLASS_RIGID : CLASS_TRANSLATION;
+	}
+
+	private static void checkBatch(Matrix4Array dest, Matrix4Array src) {
+		if (dest.length < src.length)
+			throw new IllegalArgumentException("Destination holds " + dest.length + " matrices, need " + src.length);
+	}
+
+	/**
+	 * dest[i] = src[i]<sup>-1</sup>. Elements are grouped by flag class:
+	 * translations are negated, rigid transforms transposed, scaled transforms
+	 * inverted through their 3x3 block, and only general matrices get a full
+	 * 4x4 inverse. dest may be src.
+	 *
+	 * @throws ArithmeticException
+	 *             if an element is singular; other elements may already be
+	 *             written
+	 */
+	public static Matrix4Array invertBatch(Matrix4Array dest, Matrix4Array src) {
+		checkBatch(dest, src);
+		invertRange(dest, src, 0, src.length, false);
+		return dest;
+	}
+
+	/**
+	 * Parallel form of {@link #invertBatch}. Batches larger than
+	 * {@link Parallelism#threshold()} are split across
+	 * {@link Parallelism#pool()}.
+	 */
+	public static Matrix4Array invertBatchParallel(Matrix4Array dest, Matrix4Array src) {
+		checkBatch(dest, src);
+		InvertTask.run(dest, src, false);
+		return dest;
+	}
+
+	/**
+	 * dest[i] = the normal matrix of src[i], as
+	 * {@link Trans3D#normalInto(Trans3D)} computes it, grouped by flag class
+	 * as in {@link #invertBatch}. dest may be src.
+	 *
+	 * @throws ArithmeticException
+	 *             if an element is singular; other elements may already be
+	 *             written
+	 */
+	public static Matrix4Array normalBatch(Matrix4Array dest, Matrix4Array src) {
+		checkBatch(dest, src);
+		invertRange(dest, src, 0, src.length, true);
+		return dest;
+	}
+
+	/**
+	 * Parallel form of {@link #normalBatch}.
+	 */
+	public static Matrix4Array normalBatchParallel(Matrix4Array dest, Matrix4Array src) {
+		checkBatch(dest, src);
+		InvertTask.run(dest, src, true);
+		return dest;
+	}
+
+	// Inverts or normals elements [from, to), a chunk at a time.
+	static void invertRange(Matrix4Array dest, Matrix4Array src, int from, int to, boolean normal) {
+		final int[] order = localOrder.get();
+		final int[] start = new int[5];
+		final FloatBuffer s = src.data, d = dest.data;
+		for (int c0 = from; c0 < to; c0 += CHUNK) {
+			final int c1 = Math.min(to, c0 + CHUNK);
+			// Counting sort of the chunk's indices by class.
+			for (int k = 0; k < 5; k++)
+				start[k] = 0;
+			for (int i = c0; i < c1; i++)
+				start[classOf(src.flags[i]) + 1]++;
+			for (int k = 1; k < 5; k++)
+				start[k] += start[k - 1];
+			for (int i = c0; i < c1; i++)
+				order[start[classOf(src.flags[i])]++] = i;
+			// start[k] now ends class k.
+			int k = 0;
+			for (; k < start[CLASS_TRANSLATION]; k++) {
+				final int i = order[k];
+				MatInvAlgs.translation44(s, i * STRIDE, d, i * STRIDE, normal);
+				dest.flags[i] = normal ? Trans3D.FLAG_IDENTITY : src.flags[i];
+			}
+			for (; k < start[CLASS_RIGID]; k++) {
+				final int i = order[k];
+				MatInvAlgs.rigid44(s, i * STRIDE, d, i * STRIDE, normal);
+				dest.flags[i] = normal ? Trans3D.FLAG_ROTATION : src.flags[i];
+			}
+			for (; k < start[CLASS_AFFINE]; k++) {
+				final int i = order[k];
+				if (!MatInvAlgs.affine44(s, i * STRIDE, d, i * STRIDE, normal))
+					throw new ArithmeticException("Singular matrix at " + i);
+				dest.flags[i] = normal ? src.flags[i] & Trans3D.FLAG_ROTATION_AND_SCALE : src.flags[i];
+			}
+			for (; k < start[CLASS_GENERAL]; k++) {
+				final int i = order[k];
+				if (!MatInvAlgs.general44(s, i * STRIDE, d, i * STRIDE, normal))
+					throw new ArithmeticException("Singular matrix at " + i);
+				dest.flags[i] = Trans3D.FLAG_GENERAL;
+			}
+		}
+	}
+
+	/**
+	 * dest[i] = lhs * rhs[i]
+	 */
+	public static Matrix4Array mulBatch(Matrix4Array dest, Matrix4 lhs, Matrix4Array rhs) {
+		if (dest.length < rhs.length)
+			throw new IllegalArgumentException("Destination holds " + dest.length + " matrices, need " + rhs.length);
+		final float[] t = new float[2 * STRIDE];
+		for (int k = 0; k < STRIDE; k++)
+			t[k] = lhs.access.get(k);
+		final int flhs = lhs.flags;
+		for (int i = 0; i < rhs.length; i++)
+			dest.flags[i] = mul(dest.data, i * STRIDE, t, flhs, rhs.data, i * STRIDE, rhs.flags[i]);
+		return dest;
+	}
+
+	/**
+	 * dest[i] = lhs[i] * rhs[i]
+	 */
+	public static Matrix4Array mulBatch(Matrix4Array dest, Matrix4Array lhs, Matrix4Array rhs) {
+		if (lhs.length != rhs.length)
+			throw new IllegalArgumentException("Mismatched batch sizes " + lhs.length + " and " + rhs.length);
+		if (dest.length < rhs.length)
+			throw new IllegalArgumentException("Destination holds " + dest.length + " matrices, need " + rhs.length);
+		final float[] t = new float[2 * STRIDE];
+		for (int i = 0; i < rhs.length; i++) {
+			final int o = i * STRIDE;
+			for (int k = 0; k < STRIDE; k++)
+				t[k] = lhs.data.get(o + k);
+			dest.flags[i] = mul(dest.data, o, t, lhs.flags[i], rhs.data, o, rhs.flags[i]);
+		}
+		return dest;
+	}
+
+	/**
+	 * Writes lhs * rhs to d at offset o.
+	 *
+	 * @param t
+	 *            lhs in [0, 16), scratch space for rhs in [16, 32)
+	 * @return the flags of the result
+	 */
+	private static int mul(FloatBuffer d, int o, float[] t, int flhs, FloatBuffer r, int ro, int frhs) {
+		// Read all of rhs first so that d may alias it.
+		for (int k = 0; k < STRIDE; k++)
+			t[STRIDE + k] = r.get(ro + k);
+
+		if ((flhs & Trans3D.FLAG_GENERAL) == Trans3D.FLAG_GENERAL
+				|| (frhs & Trans3D.FLAG_GENERAL) == Trans3D.FLAG_GENERAL) {
+			for (int c = 0; c < 4; c++) {
+				final float b0 = t[STRIDE + c * 4], b1 = t[STRIDE + c * 4 + 1], b2 = t[STRIDE + c * 4 + 2],
+						b3 = t[STRIDE + c * 4 + 3];
+				for (int r0 = 0; r0 < 4; r0++)
+					d.put(o + c * 4 + r0, t[r0] * b0 + t[4 + r0] * b1 + t[8 + r0] * b2 + t[12 + r0] * b3);
+			}
+			return Trans3D.FLAG_GENERAL;
+		}
+
+		// Non-general matrices have a [0 0 0 1] bottom row, so only the 3x3
+		// block and the translation column need computing.
+		final float rx = t[STRIDE + 12], ry = t[STRIDE + 13], rz = t[STRIDE + 14];
+		final float tx, ty, tz;
+		if ((flhs & Trans3D.FLAG_ROTATION_AND_SCALE) > 0) {
+			tx = t[0] * rx + t[4] * ry + t[8] * rz + t[12];
+			ty = t[1] * rx + t[5] * ry + t[9] * rz + t[13];
+			tz = t[2] * rx + t[6] * ry + t[10] * rz + t[14];
+		} else {
+			tx = rx + t[12];
+			ty = ry + t[13];
+			tz = rz + t[14];
+		}
+
+		if ((flhs & Trans3D.FLAG_ROTATION_AND_SCALE) > 0 && (frhs & Trans3D.FLAG_ROTATION_AND_SCALE) > 0) {
+			for (int c = 0; c < 3; c++) {
+				final float b0 = t[STRIDE + c * 4], b1 = t[STRIDE + c * 4 + 1], b2 = t[STRIDE + c * 4 + 2];
+				for (int r0 = 0; r0 < 3; r0++)
+					d.put(o + c * 4 + r0, t[r0] * b0 + t[4 + r0] * b1 + t[8 + r0] * b2);
+			}
+		} else {
+			final int src = (flhs & Trans3D.FLAG_ROTATION_AND_SCALE) > 0 ? 0
+					: (frhs & Trans3D.FLAG_ROTATION_AND_SCALE) > 0 ? STRIDE : -1;
+			for (int c = 0; c < 3; c++)
+				for (int r0 = 0; r0 < 3; r0++)
+					d.put(o + c * 4 + r0, src < 0 ? (r0 == c ? 1 : 0) : t[src + c * 4 + r0]);
+		}
+		d.put(o + 3, 0);
+		d.put(o + 7, 0);
+		d.put(o + 11, 0);
+		d.put(o + 12, tx);
+		d.put(o + 13, ty);
+		d.put(o + 14, tz);
+		d.put(o + 15, 1);
+
+		if ((flhs & ~Trans3D.FLAG_TRANSLATION) == 0 && (frhs & ~Trans3D.FLAG_TRANSLATION) == 0)
+			return tx != 0 || ty != 0 || tz != 0 ? Trans3D.FLAG_TRANSLATION : Trans3D.FLAG_IDENTITY;
+		return flhs | frhs;
+	}
+
+	public Matrix4Array(FloatBuffer f, int n) {
+		if (f.capacity() < n * STRIDE)
+			throw new IllegalArgumentException("Buffer too small for " + n + " matrices");
+		this.data = f;
+		this.length = n;
+		this.flags = new int[n];
+		for (int i = 0; i < n; i++)
+			flags[i] = Trans3D.FLAG_GENERAL;
+	}
+
+	public Matrix4Array(int n) {
+		this(BufferProvider.createFloatBuffer(n * STRIDE), n);
+	}
+
+	public FloatBuffer accessor() {
+		data.position(0);
+		return data;
+	}
+
+	public final float get(int i, int r, int c) {
+		return data.get(i * STRIDE + c * 4 + r);
+	}
+
+	/**
+	 * Copies element i into m, including its flags.
+	 */
+	public Matrix4 load(int i, Matrix4 m) {
+		final int o = i * STRIDE;
+		for (int k = 0; k < STRIDE; k++)
+			m.access.put(k, data.get(o + k));
+		m.flags = flags[i];
+		return m;
+	}
+
+	public final int length() {
+		return length;
+	}
+
+	// Makes element i a dirty matrix for low-performance multiplications.
+	public void makeDirty(int i) {
+		flags[i] = Trans3D.FLAG_GENERAL;
+	}
+
+	/**
+	 * Copies m into element i, including its flags.
+	 */
+	public Matrix4Array store(int i, Matrix4 m) {
+		final int o = i * STRIDE;
+		for (int k = 0; k < STRIDE; k++)
+			data.put(o + k, m.access.get(k));
+		flags[i] = m.flags;
+		return this;
+	}
+}
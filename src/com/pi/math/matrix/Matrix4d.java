@@ -0,0 +1,23 @@
+package com.pi.math.matrix;
+
+import java.nio.DoubleBuffer;
+
+import com.pi.math.BufferProvider;
+
+public final class Matrix4d extends Trans3Dd<Matrix4d> {
+	public Matrix4d() {
+		this(BufferProvider.createDoubleBuffer(16), 0);
+	}
+
+	/**
+	 * @return a Matrix4d backed by a plain double array rather than a direct
+	 *         buffer
+	 */
+	public static Matrix4d onHeap() {
+		return new Matrix4d(BufferProvider.createHeapDoubleBuffer(16), 0);
+	}
+
+	public Matrix4d(DoubleBuffer f, int offset) {
+		super(f, offset, 4, 4);
+	}
+}
@@ -0,0 +1,169 @@
+package com.pi.math.matrix;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+/**
+ * Dense rows x columns matrix of any size, column-major in a plain
+ * {@code float[]}. Meant for calibration and least-squares work where the
+ * fixed-size {@link Matrix} types don't fit. Products are cache-blocked, use
+ * the Vector API when available (see {@link MatMulAlgs}) and split across
+ * {@link com.pi.math.Parallelism#pool()} for large sizes.
+ */
+public final class MatrixN {
+	private final int rows, columns;
+	private final float[] data;
+
+	public MatrixN(int rows, int columns) {
+		this(rows, columns, new float[rows * columns]);
+	}
+
+	/**
+	 * Wraps column-major data; element (r, c) is data[c * rows + r].
+	 */
+	public MatrixN(int rows, int columns, float[] data) {
+		if (rows <= 0 || columns <= 0)
+			throw new IllegalArgumentException("Dimensions must be positive: " + rows + "x" + columns);
+		if (data.length < rows * columns)
+			throw new IllegalArgumentException("Need " + rows * columns + " elements, got " + data.length);
+		this.rows = rows;
+		this.columns = columns;
+		this.data = data;
+	}
+
+	public static MatrixN identity(int n) {
+		return new MatrixN(n, n).makeIdentity();
+	}
+
+	private static void checkProduct(MatrixN dest, int m, int k1, int k2, int n) {
+		if (k1 != k2)
+			throw new IllegalArgumentException("Inner dimensions differ: " + k1 + " and " + k2);
+		if (dest.rows != m || dest.columns != n)
+			throw new IllegalArgumentException(
+					"Destination is " + dest.rows + "x" + dest.columns + ", product is " + m + "x" + n);
+	}
+
+	public FloatBuffer accessor() {
+		return FloatBuffer.wrap(data, 0, rows * columns);
+	}
+
+	public int columns() {
+		return columns;
+	}
+
+	/**
+	 * @return the backing array, column-major
+	 */
+	public float[] data() {
+		return data;
+	}
+
+	public float get(int r, int c) {
+		return data[c * rows + r];
+	}
+
+	public MatrixN makeIdentity() {
+		makeZero();
+		for (int k = 0; k < Math.min(rows, columns); k++)
+			data[k * rows + k] = 1;
+		return this;
+	}
+
+	public MatrixN makeZero() {
+		Arrays.fill(data, 0, rows * columns, 0);
+		return this;
+	}
+
+	/**
+	 * this = a * b
+	 */
+	public MatrixN mul(MatrixN a, MatrixN b) {
+		checkProduct(this, a.rows, a.columns, b.rows, b.columns);
+		return product(a, false, b, false, a.columns);
+	}
+
+	/**
+	 * this = a<sup>T</sup> * b, without forming the transpose
+	 */
+	public MatrixN mulTransposeLeft(MatrixN a, MatrixN b) {
+		checkProduct(this, a.columns, a.rows, b.rows, b.columns);
+		return product(a, true, b, false, a.rows);
+	}
+
+	/**
+	 * this = a * b<sup>T</sup>, without forming the transpose
+	 */
+	public MatrixN mulTransposeRight(MatrixN a, MatrixN b) {
+		checkProduct(this, a.rows, a.columns, b.columns, b.rows);
+		return product(a, false, b, true, a.columns);
+	}
+
+	private MatrixN product(MatrixN a, boolean ta, MatrixN b, boolean tb, int k) {
+		final float[] out = a == this || b == this ? new float[rows * columns] : data;
+		MatNAlgs.gemm(rows, columns, k, a.data, ta ? a.rows : 1, ta ? 1 : a.rows, b.data, tb ? b.rows : 1,
+				tb ? 1 : b.rows, out);
+		if (out != data)
+			System.arraycopy(out, 0, data, 0, out.length);
+		return this;
+	}
+
+	public int rows() {
+		return rows;
+	}
+
+	public void set(int r, int c, float v) {
+		data[c * rows + r] = v;
+	}
+
+	/**
+	 * Copies m into this matrix; sizes must match.
+	 */
+	public MatrixN set(MatrixN m) {
+		if (m.rows != rows || m.columns != columns)
+			throw new IllegalArgumentException("Size mismatch: " + m.rows + "x" + m.columns);
+		System.arraycopy(m.data, 0, data, 0, rows * columns);
+		return this;
+	}
+
+	/**
+	 * Copies the top-left corner of a fixed-size matrix into this matrix.
+	 */
+	@SuppressWarnings("rawtypes")
+	public MatrixN set(Matrix m) {
+		for (int c = 0; c < Math.min(columns, m.columns()); c++)
+			for (int r = 0; r < Math.min(rows, m.rows()); r++)
+				set(r, c, m.get(r, c));
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder res = new StringBuilder();
+		for (int r = 0; r < rows; r++) {
+			if (r > 0)
+				res.append('\n');
+			for (int c = 0; c < columns; c++)
+				res.append(String.format("%+.8f ", get(r, c)));
+		}
+		return res.toString();
+	}
+
+	public MatrixN transposeInto(MatrixN m) {
+		if (m.rows != columns || m.columns != rows)
+			throw new IllegalArgumentException("Destination is " + m.rows + "x" + m.columns);
+		if (m == this) {
+			// Square in-place transpose.
+			for (int c = 0; c < columns; c++)
+				for (int r = c + 1; r < rows; r++) {
+					final float t = get(r, c);
+					set(r, c, get(c, r));
+					set(c, r, t);
+				}
+			return m;
+		}
+		for (int c = 0; c < columns; c++)
+			for (int r = 0; r < rows; r++)
+				m.data[r * columns + c] = data[c * rows + r];
+		return m;
+	}
+}
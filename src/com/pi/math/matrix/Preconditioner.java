@@ -0,0 +1,26 @@
+package com.pi.math.matrix;
+
+import java.nio.FloatBuffer;
+
+/**
+ * Approximate inverse for {@link ConjugateGradient}: z = M<sup>-1</sup> r. M
+ * must be symmetric positive definite.
+ */
+@FunctionalInterface
+public interface Preconditioner {
+	/**
+	 * @return M = diag(A), which costs one multiply per element to apply
+	 */
+	static Preconditioner jacobi(SparseMatrix a) {
+		final FloatBuffer inv = a.inverseDiagonal(FloatBuffer.allocate(a.rows()));
+		return new Preconditioner() {
+			@Override
+			public void apply(FloatBuffer r, FloatBuffer z) {
+				for (int i = 0; i < inv.capacity(); i++)
+					z.put(i, inv.get(i) * r.get(i));
+			}
+		};
+	}
+
+	void apply(FloatBuffer r, FloatBuffer z);
+}
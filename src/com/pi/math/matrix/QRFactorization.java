@@ -0,0 +1,69 @@
+package com.pi.math.matrix;
+
+/**
+ * A = QR by Householder reflections, for matrices with at least as many rows
+ * as columns. Solves are in the least-squares sense when A is tall.
+ */
+public final class QRFactorization extends Factorization {
+	// R's diagonal; the Householder vectors live on and below a's diagonal.
+	private double[] rdiag = new double[0];
+
+	@Override
+	protected void checkShape(int r, int c) {
+		if (r < c)
+			throw new IllegalArgumentException("QR needs rows >= columns, got " + r + "x" + c);
+	}
+
+	@Override
+	protected Status decompose() {
+		final int m = rows, n = columns;
+		if (rdiag.length < n)
+			rdiag = new double[n];
+		final double tiny = TOLERANCE * m * maxAbs();
+		Status res = Status.OK;
+		for (int k = 0; k < n; k++) {
+			double nrm = 0;
+			for (int i = k; i < m; i++)
+				nrm = Math.hypot(nrm, a[i * n + k]);
+			if (nrm != 0) {
+				if (a[k * n + k] < 0)
+					nrm = -nrm;
+				for (int i = k; i < m; i++)
+					a[i * n + k] /= nrm;
+				a[k * n + k] += 1;
+				for (int j = k + 1; j < n; j++) {
+					double s = 0;
+					for (int i = k; i < m; i++)
+						s += a[i * n + k] * a[i * n + j];
+					s = -s / a[k * n + k];
+					for (int i = k; i < m; i++)
+						a[i * n + j] += s * a[i * n + k];
+				}
+			}
+			rdiag[k] = -nrm;
+			if (Math.abs(nrm) <= tiny)
+				res = Status.RANK_DEFICIENT;
+		}
+		return res;
+	}
+
+	@Override
+	protected void solve(double[] x) {
+		final int m = rows, n = columns;
+		// x = Q^T x
+		for (int k = 0; k < n; k++) {
+			double s = 0;
+			for (int i = k; i < m; i++)
+				s += a[i * n + k] * x[i];
+			s = -s / a[k * n + k];
+			for (int i = k; i < m; i++)
+				x[i] += s * a[i * n + k];
+		}
+		// R x = (Q^T b)[0, n)
+		for (int k = n - 1; k >= 0; k--) {
+			x[k] /= rdiag[k];
+			for (int i = 0; i < k; i++)
+				x[i] -= x[k] * a[i * n + k];
+		}
+	}
+}
@@ -0,0 +1,263 @@
+package com.pi.math.matrix;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.pi.math.Parallelism;
+import com.pi.math.vector.VectorND;
+
+/**
+ * Immutable sparse matrix in compressed sparse row form: memory is 8 bytes per
+ * nonzero plus 4 per row. Build one with {@link Builder} or
+ * {@link #fromTriplets}. Products larger than {@link Parallelism#threshold()}
+ * rows are split across {@link Parallelism#pool()}.
+ */
+public final class SparseMatrix {
+	/**
+	 * Accumulates (row, column, value) triplets. Duplicate entries are summed.
+	 */
+	public static final class Builder {
+		private final int rows, columns;
+		private int[] r, c;
+		private float[] v;
+		private int count;
+
+		public Builder(int rows, int columns) {
+			this(rows, columns, 16);
+		}
+
+		public Builder(int rows, int columns, int expectedNonZeros) {
+			if (rows <= 0 || columns <= 0)
+				throw new IllegalArgumentException("Dimensions must be positive: " + rows + "x" + columns);
+			this.rows = rows;
+			this.columns = columns;
+			final int cap = Math.max(expectedNonZeros, 1);
+			r = new int[cap];
+			c = new int[cap];
+			v = new float[cap];
+		}
+
+		public Builder add(int row, int column, float value) {
+			if (row < 0 || row >= rows || column < 0 || column >= columns)
+				throw new IllegalArgumentException("(" + row + ", " + column + ") outside " + rows + "x" + columns);
+			if (count == r.length) {
+				final int cap = count + (count >> 1) + 1;
+				r = Arrays.copyOf(r, cap);
+				c = Arrays.copyOf(c, cap);
+				v = Arrays.copyOf(v, cap);
+			}
+			r[count] = row;
+			c[count] = column;
+			v[count] = value;
+			count++;
+			return this;
+		}
+
+		public SparseMatrix build() {
+			return fromTriplets(rows, columns, r, c, v, count);
+		}
+	}
+
+	private final int rows, columns;
+	// Row i's entries are [rowStart[i], rowStart[i + 1]), sorted by column.
+	final int[] rowStart, col;
+	final float[] val;
+	// Idle task tree for parallel products; see SpmvTask.
+	final AtomicReference<SpmvTask> spmv = new AtomicReference<>();
+
+	private SparseMatrix(int rows, int columns, int[] rowStart, int[] col, float[] val) {
+		this.rows = rows;
+		this.columns = columns;
+		this.rowStart = rowStart;
+		this.col = col;
+		this.val = val;
+	}
+
+	/**
+	 * Builds a matrix from the first count (r[i], c[i], v[i]) triplets, in any
+	 * order. Duplicate entries are summed.
+	 */
+	public static SparseMatrix fromTriplets(int rows, int columns, int[] r, int[] c, float[] v, int count) {
+		// Counting sort by row.
+		final int[] start = new int[rows + 1];
+		for (int i = 0; i < count; i++) {
+			if (r[i] < 0 || r[i] >= rows || c[i] < 0 || c[i] >= columns)
+				throw new IllegalArgumentException("(" + r[i] + ", " + c[i] + ") outside " + rows + "x" + columns);
+			start[r[i] + 1]++;
+		}
+		for (int i = 0; i < rows; i++)
+			start[i + 1] += start[i];
+		final int[] next = Arrays.copyOf(start, rows);
+		final int[] col = new int[count];
+		final float[] val = new float[count];
+		for (int i = 0; i < count; i++) {
+			final int k = next[r[i]]++;
+			col[k] = c[i];
+			val[k] = v[i];
+		}
+		// Sort each row by column and merge duplicates, compacting as we go.
+		int out = 0;
+		for (int i = 0; i < rows; i++) {
+			final int from = start[i], to = start[i + 1];
+			sortRow(col, val, from, to);
+			start[i] = out;
+			for (int k = from; k < to; k++) {
+				if (out > start[i] && col[out - 1] == col[k])
+					val[out - 1] += val[k];
+				else {
+					col[out] = col[k];
+					val[out] = val[k];
+					out++;
+				}
+			}
+		}
+		start[rows] = out;
+		return new SparseMatrix(rows, columns, start, out == count ? col : Arrays.copyOf(col, out),
+				out == count ? val : Arrays.copyOf(val, out));
+	}
+
+	private static void sortRow(int[] col, float[] val, int from, int to) {
+		if (to - from <= 16) {
+			for (int i = from + 1; i < to; i++) {
+				final int c = col[i];
+				final float v = val[i];
+				int j = i - 1;
+				for (; j >= from && col[j] > c; j--) {
+					col[j + 1] = col[j];
+					val[j + 1] = val[j];
+				}
+				col[j + 1] = c;
+				val[j + 1] = v;
+			}
+			return;
+		}
+		final long[] keys = new long[to - from];
+		for (int i = from; i < to; i++)
+			keys[i - from] = ((long) col[i] << 32) | Float.floatToRawIntBits(val[i]) & 0xFFFFFFFFL;
+		Arrays.sort(keys);
+		for (int i = from; i < to; i++) {
+			col[i] = (int) (keys[i - from] >>> 32);
+			val[i] = Float.intBitsToFloat((int) keys[i - from]);
+		}
+	}
+
+	public int columns() {
+		return columns;
+	}
+
+	/**
+	 * Writes the main diagonal into dest[0, min(rows, columns)); missing
+	 * entries are 0.
+	 */
+	public FloatBuffer diagonal(FloatBuffer dest) {
+		for (int i = 0; i < Math.min(rows, columns); i++)
+			dest.put(i, get(i, i));
+		return dest;
+	}
+
+	public float get(int r, int c) {
+		final int k = Arrays.binarySearch(col, rowStart[r], rowStart[r + 1], c);
+		return k >= 0 ? val[k] : 0;
+	}
+
+	/**
+	 * Writes the Jacobi preconditioner, 1 / A(i, i), into dest[0, rows). Zero
+	 * diagonal entries give 1 so the preconditioner leaves those rows alone.
+	 */
+	public FloatBuffer inverseDiagonal(FloatBuffer dest) {
+		if (rows != columns)
+			throw new IllegalStateException("Jacobi needs a square matrix, this is " + rows + "x" + columns);
+		for (int i = 0; i < rows; i++) {
+			final float d = get(i, i);
+			dest.put(i, d == 0 ? 1 : 1 / d);
+		}
+		return dest;
+	}
+
+	/**
+	 * y = A x, reading x[0, columns) and writing y[0, rows). x and y must not
+	 * overlap.
+	 */
+	public FloatBuffer mul(FloatBuffer x, FloatBuffer y) {
+		SpmvTask.run(this, x, y);
+		return y;
+	}
+
+	public VectorND mul(VectorND x, VectorND y) {
+		if (x.dimension() < columns || y.dimension() < rows)
+			throw new IllegalArgumentException("Need x of " + columns + " and y of " + rows + " components");
+		mul(x.getAccessor(), y.getAccessor());
+		return y;
+	}
+
+	// y[r0, r1) = A[r0, r1) x
+	void mulRows(FloatBuffer x, FloatBuffer y, int r0, int r1) {
+		for (int r = r0; r < r1; r++) {
+			float s = 0;
+			for (int k = rowStart[r], e = rowStart[r + 1]; k < e; k++)
+				s += val[k] * x.get(col[k]);
+			y.put(r, s);
+		}
+	}
+
+	/**
+	 * y = A<sup>T</sup> x, reading x[0, rows) and writing y[0, columns). This
+	 * scatters and runs on the calling thread; for repeated parallel products
+	 * multiply by {@link #transpose()} instead.
+	 */
+	public FloatBuffer mulTranspose(FloatBuffer x, FloatBuffer y) {
+		for (int c = 0; c < columns; c++)
+			y.put(c, 0);
+		for (int r = 0; r < rows; r++) {
+			final float xr = x.get(r);
+			if (xr != 0)
+				for (int k = rowStart[r], e = rowStart[r + 1]; k < e; k++)
+					y.put(col[k], y.get(col[k]) + val[k] * xr);
+		}
+		return y;
+	}
+
+	public VectorND mulTranspose(VectorND x, VectorND y) {
+		if (x.dimension() < rows || y.dimension() < columns)
+			throw new IllegalArgumentException("Need x of " + rows + " and y of " + columns + " components");
+		mulTranspose(x.getAccessor(), y.getAccessor());
+		return y;
+	}
+
+	public int nonZeros() {
+		return rowStart[rows];
+	}
+
+	public int rows() {
+		return rows;
+	}
+
+	/**
+	 * @return A<sup>T</sup>, also in CSR form
+	 */
+	public SparseMatrix transpose() {
+		final int nnz = nonZeros();
+		final int[] start = new int[columns + 1];
+		for (int k = 0; k < nnz; k++)
+			start[col[k] + 1]++;
+		for (int i = 0; i < columns; i++)
+			start[i + 1] += start[i];
+		final int[] next = Arrays.copyOf(start, columns);
+		final int[] tcol = new int[nnz];
+		final float[] tval = new float[nnz];
+		// Rows are visited in order, so each transposed row comes out sorted.
+		for (int r = 0; r < rows; r++)
+			for (int k = rowStart[r]; k < rowStart[r + 1]; k++) {
+				final int d = next[col[k]]++;
+				tcol[d] = r;
+				tval[d] = val[k];
+			}
+		return new SparseMatrix(columns, rows, start, tcol, tval);
+	}
+
+	@Override
+	public String toString() {
+		return "SparseMatrix[" + rows + "x" + columns + ", " + nonZeros() + " nonzeros]";
+	}
+}
@@ -10,8 +10,6 @@ import com.pi.math.vector.VectorBuff4;
 
 @SuppressWarnings({ "rawtypes", "unchecked" })
 public final class SpecialMatrix {
-	private static final Matrix4 fromCompleteTransform_TEMP = new Matrix4();
-
 	public static Trans3D angleX(final Trans3D m, final float angle) {
 		final float c = FastMath.cos(angle);
 		final float s = FastMath.sin(angle);
@@ -19,10 +17,10 @@ public final class SpecialMatrix {
 		if (angle != 0)
 			m.flags |= Trans3D.FLAG_ROTATION;
 
-		m.set(1, 1, c);
-		m.set(2, 1, s);
-		m.set(1, 2, -s);
-		m.set(2, 2, c);
+		m.put(1, 1, c);
+		m.put(2, 1, s);
+		m.put(1, 2, -s);
+		m.put(2, 2, c);
 		return m;
 	}
 
@@ -33,10 +31,10 @@ public final class SpecialMatrix {
 		if (angle != 0)
 			m.flags |= Trans3D.FLAG_ROTATION;
 
-		m.set(0, 0, c);
-		m.set(2, 0, -s);
-		m.set(0, 2, s);
-		m.set(2, 2, c);
+		m.put(0, 0, c);
+		m.put(2, 0, -s);
+		m.put(0, 2, s);
+		m.put(2, 2, c);
 		return m;
 	}
 
@@ -47,10 +45,10 @@ public final class SpecialMatrix {
 		if (angle != 0)
 			m.flags |= Trans3D.FLAG_ROTATION;
 
-		m.set(0, 0, c);
-		m.set(1, 0, s);
-		m.set(0, 1, -s);
-		m.set(1, 1, c);
+		m.put(0, 0, c);
+		m.put(1, 0, s);
+		m.put(0, 1, -s);
+		m.put(1, 1, c);
 		return m;
 	}
 
@@ -63,17 +61,17 @@ public final class SpecialMatrix {
 		if (angle != 0)
 			m.flags |= Trans3D.FLAG_ROTATION;
 
-		m.set(0, 0, c + x * x * c1);
-		m.set(1, 0, y * x * c1 + z * s);
-		m.set(2, 0, z * x * c1 - y * s);
+		m.put(0, 0, c + x * x * c1);
+		m.put(1, 0, y * x * c1 + z * s);
+		m.put(2, 0, z * x * c1 - y * s);
 
-		m.set(0, 1, x * y * c1 - z * s);
-		m.set(1, 1, c + y * y * c1);
-		m.set(2, 1, z * y * c1 + x * s);
+		m.put(0, 1, x * y * c1 - z * s);
+		m.put(1, 1, c + y * y * c1);
+		m.put(2, 1, z * y * c1 + x * s);
 
-		m.set(0, 2, x * z * c1 + y * s);
-		m.set(1, 2, y * z * c1 - x * s);
-		m.set(2, 2, c + z * z * c1);
+		m.put(0, 2, x * z * c1 + y * s);
+		m.put(1, 2, y * z * c1 - x * s);
+		m.put(2, 2, c + z * z * c1);
 		return m;
 	}
 
@@ -88,34 +86,37 @@ public final class SpecialMatrix {
 		final float cosPsi = FastMath.cos(in.get(2));
 
 		out.flags |= Trans3D.FLAG_ROTATION;
-		out.set(0, 0, cosTheta * cosPsi);
-		out.set(1, 0, -cosTheta * sinPsi);
-		out.set(2, 0, sinTheta);
-		out.set(0, 1, cosPhi * sinPsi + sinPhi * sinTheta * cosPsi);
-		out.set(1, 1, cosPhi * cosPsi - sinPhi * sinTheta * sinPsi);
-		out.set(2, 1, -sinPhi * cosTheta);
-		out.set(0, 2, sinPhi * sinPsi - cosPhi * sinTheta * cosPsi);
-		out.set(1, 2, sinPhi * cosPsi + cosPhi * sinTheta * sinPsi);
-		out.set(2, 2, cosPhi * cosTheta);
+		out.put(0, 0, cosTheta * cosPsi);
+		out.put(1, 0, -cosTheta * sinPsi);
+		out.put(2, 0, sinTheta);
+		out.put(0, 1, cosPhi * sinPsi + sinPhi * sinTheta * cosPsi);
+		out.put(1, 1, cosPhi * cosPsi - sinPhi * sinTheta * sinPsi);
+		out.put(2, 1, -sinPhi * cosTheta);
+		out.put(0, 2, sinPhi * sinPsi - cosPhi * sinTheta * cosPsi);
+		out.put(1, 2, sinPhi * cosPsi + cosPhi * sinTheta * sinPsi);
+		out.put(2, 2, cosPhi * cosTheta);
 		return out;
 	}
 
 	public static void fromCompleteTransform(final Trans3D src, Vector eulerRot, Vector scale, Vector pos) {
-		// First decompose the scale: grab the translation
-		src.copyTo(fromCompleteTransform_TEMP);
-		// Decompose scale
-		pos.setV(fromCompleteTransform_TEMP.get(0, 3), fromCompleteTransform_TEMP.get(1, 3), fromCompleteTransform_TEMP.get(2, 3));
-		for (int l = 0; l < 3; l++) {
-			scale.set(l, (float) Math.sqrt(
-					fromCompleteTransform_TEMP.get(l, 0) * fromCompleteTransform_TEMP.get(l, 0) + fromCompleteTransform_TEMP.get(l, 1) * fromCompleteTransform_TEMP.get(l, 1) + fromCompleteTransform_TEMP.get(l, 2) * fromCompleteTransform_TEMP.get(l, 2)));
-			for (int k = 0; k < 3; k++)
-				fromCompleteTransform_TEMP.set(l, k, fromCompleteTransform_TEMP.get(l, k) / scale.get(l));
+		try (Heap.Frame f = Heap.frame()) {
+			final Matrix4 tmp = f.mat4();
+			// First decompose the scale: grab the translation
+			src.copyTo(tmp);
+			// Decompose scale
+			pos.setV(tmp.get(0, 3), tmp.get(1, 3), tmp.get(2, 3));
+			for (int l = 0; l < 3; l++) {
+				scale.set(l, (float) Math.sqrt(
+						tmp.get(l, 0) * tmp.get(l, 0) + tmp.get(l, 1) * tmp.get(l, 1) + tmp.get(l, 2) * tmp.get(l, 2)));
+				for (int k = 0; k < 3; k++)
+					tmp.set(l, k, tmp.get(l, k) / scale.get(l));
+			}
+
+			VectorBuff4 quat = f.vec4();
+			matrixToQuaternion(tmp, quat);
+
+			Quaternion.toEulerAngles(quat, eulerRot);
 		}
-
-		VectorBuff4 quat = Heap.checkout(4);
-		matrixToQuaternion(fromCompleteTransform_TEMP, quat);
-
-		Quaternion.toEulerAngles(quat, eulerRot);
 	}
 
 	private static void makeID3(Trans3D m) {
@@ -124,7 +125,7 @@ public final class SpecialMatrix {
 		m.flags &= ~Trans3D.FLAG_ROTATION_AND_SCALE;
 		for (int r = 0; r < 3; r++)
 			for (int c = 0; c < 3; c++)
-				m.set(r, c, r == c ? 1 : 0);
+				m.put(r, c, r == c ? 1 : 0);
 	}
 
 	public static VectorBuff matrixToEuler(final Trans3D in, VectorBuff out) {
@@ -167,14 +168,15 @@ public final class SpecialMatrix {
 		final float width = right - left, height = top - bottom, length = far - near;
 
 		m.makeZero();
-		m.set(0, 0, 2 / width);
-		m.set(1, 1, 2 / height);
-		m.set(2, 2, -2 / length);
-		m.set(0, 3, -(right + left) / width);
-		m.set(1, 3, -(top + bottom) / height);
-		m.set(2, 3, -(far + near) / length);
-		m.set(3, 3, 1);
-		m.flags |= Trans3D.FLAG_GENERAL;
+		m.put(0, 0, 2 / width);
+		m.put(1, 1, 2 / height);
+		m.put(2, 2, -2 / length);
+		m.put(0, 3, -(right + left) / width);
+		m.put(1, 3, -(top + bottom) / height);
+		m.put(2, 3, -(far + near) / length);
+		m.put(3, 3, 1);
+		// Affine, so the scaled-affine fast paths still apply.
+		m.flags = Trans3D.FLAG_SCALING | Trans3D.FLAG_TRANSLATION;
 		return m;
 	}
 
@@ -185,13 +187,13 @@ public final class SpecialMatrix {
 		final float width = right - left, height = top - bottom, length = far - near;
 
 		m.makeZero();
-		m.set(0, 0, near2 / width);
-		m.set(1, 1, near2 / height);
-		m.set(0, 2, (right + left) / width);
-		m.set(1, 2, (top + bottom) / height);
-		m.set(2, 2, -(far + near) / length);
-		m.set(3, 2, -1);
-		m.set(2, 3, -near2 * far / length);
+		m.put(0, 0, near2 / width);
+		m.put(1, 1, near2 / height);
+		m.put(0, 2, (right + left) / width);
+		m.put(1, 2, (top + bottom) / height);
+		m.put(2, 2, -(far + near) / length);
+		m.put(3, 2, -1);
+		m.put(2, 3, -near2 * far / length);
 		m.flags |= Trans3D.FLAG_GENERAL;
 		return m;
 	}
@@ -207,29 +209,30 @@ public final class SpecialMatrix {
 		float wy = w * y;
 		float wz = w * z;
 
-		m.set(0, 0, 1.0f - 2.0f * (yy + zz));
-		m.set(0, 1, 2.0f * (xy - wz));
-		m.set(0, 2, 2.0f * (xz + wy));
+		m.put(0, 0, 1.0f - 2.0f * (yy + zz));
+		m.put(0, 1, 2.0f * (xy - wz));
+		m.put(0, 2, 2.0f * (xz + wy));
 
-		m.set(1, 0, 2.0f * (xy + wz));
-		m.set(1, 1, 1.0f - 2.0f * (xx + zz));
-		m.set(1, 2, 2.0f * (yz - wx));
+		m.put(1, 0, 2.0f * (xy + wz));
+		m.put(1, 1, 1.0f - 2.0f * (xx + zz));
+		m.put(1, 2, 2.0f * (yz - wx));
 
-		m.set(2, 0, 2.0f * (xz - wy));
-		m.set(2, 1, 2.0f * (yz + wx));
-		m.set(2, 2, 1.0f - 2.0f * (xx + yy));
+		m.put(2, 0, 2.0f * (xz - wy));
+		m.put(2, 1, 2.0f * (yz + wx));
+		m.put(2, 2, 1.0f - 2.0f * (xx + yy));
 		m.flags |= Trans3D.FLAG_ROTATION;
 		return m;
 	}
 
 	public static Trans3D scale(Trans3D m, float x, float y, float z) {
-		m.set(0, 0, x);
-		m.set(1, 1, y);
-		m.set(2, 2, z);
+		m.put(0, 0, x);
+		m.put(1, 1, y);
+		m.put(2, 2, z);
 
-		if (x != 1 || y != 1 || z != 1)
+		// New diagonal entries break the orthonormality of a rotation.
+		if (x != 1 || y != 1 || z != 1 || (m.flags & Trans3D.FLAG_ROTATION) != 0)
 			m.flags |= Trans3D.FLAG_SCALING;
-		else if (x == 1 && y == 1 && z == 1)
+		else
 			m.flags &= ~Trans3D.FLAG_SCALING;
 
 		return m;
@@ -237,19 +240,20 @@ public final class SpecialMatrix {
 
 	public static Trans3D toCompleteTransform(Trans3D dest, final Vector eulerRot, final Vector scale,
 			final Vector pos) {
-		VectorBuff4 tmpQuat = Heap.checkout(4);
-		Quaternion.fromEulerAngles(tmpQuat, eulerRot);
-		dest.setQuaternion(tmpQuat);
+		try (Heap.Frame f = Heap.frame()) {
+			VectorBuff4 tmpQuat = f.vec4();
+			Quaternion.fromEulerAngles(tmpQuat, eulerRot);
+			dest.setQuaternion(tmpQuat);
+		}
 		dest.postMultiplyScale(scale);
 		SpecialMatrix.translation(dest, pos.get(0), pos.get(1), pos.get(2));
-		Heap.checkin(tmpQuat);
 		return dest;
 	}
 
 	public static Trans3D translation(final Trans3D m, final float x, final float y, final float z) {
-		m.set(0, 3, x);
-		m.set(1, 3, y);
-		m.set(2, 3, z);
+		m.put(0, 3, x);
+		m.put(1, 3, y);
+		m.put(2, 3, z);
 
 		if (x == 0 && y == 0 && z == 0)
 			m.flags &= ~Trans3D.FLAG_TRANSLATION;
@@ -267,9 +271,9 @@ public final class SpecialMatrix {
 	}
 
 	public static Trans3D translationAdd(final Trans3D m, final float x, final float y, final float z) {
-		m.mod(0, 3, x);
-		m.mod(1, 3, y);
-		m.mod(2, 3, z);
+		m.put(0, 3, m.get(0, 3) + x);
+		m.put(1, 3, m.get(1, 3) + y);
+		m.put(2, 3, m.get(2, 3) + z);
 
 		if (m.get(0, 3) == 0 && m.get(1, 3) == 0 && m.get(2, 3) == 0)
 			m.flags &= ~Trans3D.FLAG_TRANSLATION;
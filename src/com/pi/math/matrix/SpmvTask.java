@@ -0,0 +1,70 @@
+package com.pi.math.matrix;
+
+import java.nio.FloatBuffer;
+import java.util.concurrent.RecursiveAction;
+
+import com.pi.math.Parallelism;
+
+// Splits a sparse matrix-vector product into row ranges of at most
+// Parallelism.threshold() rows. Each task owns its output rows. The tree is
+// built once per matrix and threshold and parked in SparseMatrix.spmv between
+// products, so repeated products allocate nothing; a product that finds the
+// slot empty (another thread holds the tree) builds its own.
+@SuppressWarnings("serial")
+class SpmvTask extends RecursiveAction {
+	private final SparseMatrix m;
+	private final int r0, r1, threshold;
+	private final SpmvTask left, right;
+	private FloatBuffer x, y;
+
+	private SpmvTask(SparseMatrix m, int r0, int r1, int threshold) {
+		this.m = m;
+		this.r0 = r0;
+		this.r1 = r1;
+		this.threshold = threshold;
+		if (r1 - r0 <= threshold) {
+			left = right = null;
+		} else {
+			final int mid = (r0 + r1) >>> 1;
+			left = new SpmvTask(m, r0, mid, threshold);
+			right = new SpmvTask(m, mid, r1, threshold);
+		}
+	}
+
+	static void run(SparseMatrix m, FloatBuffer x, FloatBuffer y) {
+		final int threshold = Parallelism.threshold();
+		if (m.rows() <= threshold || Parallelism.pool().getParallelism() <= 1) {
+			m.mulRows(x, y, 0, m.rows());
+			return;
+		}
+		SpmvTask t = m.spmv.getAndSet(null);
+		if (t == null || t.threshold != threshold)
+			t = new SpmvTask(m, 0, m.rows(), threshold);
+		t.point(x, y);
+		try {
+			Parallelism.pool().invoke(t);
+		} finally {
+			m.spmv.set(t);
+		}
+	}
+
+	private void point(FloatBuffer x, FloatBuffer y) {
+		this.x = x;
+		this.y = y;
+		reinitialize();
+	}
+
+	@Override
+	protected void compute() {
+		if (left == null) {
+			// Absolute gets and puts only, so sharing the buffers is safe.
+			m.mulRows(x, y, r0, r1);
+		} else {
+			left.point(x, y);
+			right.point(x, y);
+			invokeAll(left, right);
+		}
+		// Don't hold on to the caller's buffers while parked.
+		x = y = null;
+	}
+}
@@ -5,6 +5,7 @@ import java.nio.FloatBuffer;
 
 import com.pi.math.EpsMath;
 import com.pi.math.Heap;
+import com.pi.math.Parallelism;
 import com.pi.math.vector.Vector;
 import com.pi.math.vector.VectorBuff;
 import com.pi.math.vector.VectorBuff3;
@@ -19,6 +20,13 @@ public abstract class Trans3D<E extends Trans3D<?>> extends Matrix<E> {
 	static final int FLAG_GENERAL = 8;
 
 	static final int FLAG_ROTATION_AND_SCALE = FLAG_ROTATION | FLAG_SCALING;
+
+	// Flags are conservative: a clear bit means the matrix certainly lacks
+	// that part, a set bit only that it may have it. ROTATION alone promises
+	// an orthonormal upper 3x3; with SCALING it may be any linear part.
+	// GENERAL means the bottom row may not be [0 0 0 1]. Every set keeps them
+	// valid through beforeSet; writes through column(), accessor() or a
+	// shared buffer still need makeDirty() or setFlags().
 	int flags;
 	final VectorBuff[] column3;
 
@@ -52,6 +60,21 @@ public abstract class Trans3D<E extends Trans3D<?>> extends Matrix<E> {
 		return addTranslation(a.get(0), a.get(1), a.get(2));
 	}
 
+	/**
+	 * @return the product ops[0] * ops[1] * ... * ops[n - 1], evaluated by
+	 *         {@link TransformChain#into(Trans3D)}
+	 */
+	public static TransformChain chain(Trans3D<?>... ops) {
+		return new TransformChain(ops);
+	}
+
+	// Changing an entry can only add the part of the matrix it lives in.
+	@Override
+	final void beforeSet(int r, int c, float v) {
+		if (v != cols[c].get(r))
+			flags |= r > 2 ? FLAG_GENERAL : c > 2 ? FLAG_TRANSLATION : FLAG_ROTATION_AND_SCALE;
+	}
+
 	private int computeFlags() {
 		// Is identity?
 		{
@@ -72,14 +95,16 @@ public abstract class Trans3D<E extends Trans3D<?>> extends Matrix<E> {
 		VectorBuff3 z = (VectorBuff3) column3[2];
 		if (x.mag2() == 0 || y.mag2() == 0 || z.mag2() == 0)
 			return FLAG_GENERAL;
-		VectorBuff3 tmp = Heap.checkout3().cross(x, y);
-		tmp.multiply(z.magnitude() / tmp.magnitude());
-		if (tmp.equals(z)) {
-			if (x.get(1) != 0 || x.get(2) != 0 || y.get(0) != 0 || y.get(2) != 0 || z.get(0) != 0 || z.get(1) != 0)
-				flags |= FLAG_ROTATION;
-		} else
-			flags |= FLAG_GENERAL;
-		Heap.checkin(tmp);
+		try (Heap.Frame f = Heap.frame()) {
+			VectorBuff3 tmp = f.vec3().cross(x, y);
+			tmp.multiply(z.magnitude() / tmp.magnitude());
+			if (tmp.equals(z)) {
+				if (x.get(1) != 0 || x.get(2) != 0 || y.get(0) != 0 || y.get(2) != 0 || z.get(0) != 0
+						|| z.get(1) != 0)
+					flags |= FLAG_ROTATION;
+			} else
+				flags |= FLAG_GENERAL;
+		}
 		if (!EpsMath.eq(x.mag2(), 1) || !EpsMath.eq(y.mag2(), 1) || !EpsMath.eq(z.mag2(), 1))
 			flags |= FLAG_SCALING;
 
@@ -92,9 +117,13 @@ public abstract class Trans3D<E extends Trans3D<?>> extends Matrix<E> {
 	@Override
 	@SuppressWarnings("rawtypes")
 	public <R extends Matrix<R>> R copyTo(R m) {
+		if (m == this)
+			return m;
+		super.copyTo(m);
+		// Assigned after the copy, which may reset m to the identity first.
 		if (m instanceof Trans3D)
-			((Trans3D) m).flags = flags;
-		return super.copyTo(m);
+			((Trans3D) m).flags = m.columns() > 3 ? flags : flags & ~FLAG_TRANSLATION;
+		return m;
 	}
 
 	public void flagTranslation() {
@@ -107,15 +136,21 @@ public abstract class Trans3D<E extends Trans3D<?>> extends Matrix<E> {
 		if (!(k instanceof Trans3D))
 			return super.invertInto(k);
 		Trans3D m = (Trans3D) k;
+		if (isScaledAffine44(m) && MatInvAlgs.affine44(access, 0, m.access, 0, false)) {
+			m.flags = flags;
+			return k;
+		}
 		if ((flags & FLAG_GENERAL) == FLAG_GENERAL || (flags & FLAG_SCALING) == FLAG_SCALING) {
+			super.invertInto(m);
 			m.flags = FLAG_GENERAL;
-			return (R) super.invertInto(m);
+			return k;
 		} else if (flags == FLAG_IDENTITY)
 			return (R) m.makeIdentity();
 		m.makeIdentity();
 		if ((flags & FLAG_ROTATION) == FLAG_ROTATION) {
 			limitedTransposeInto(m, 3, 3);
-			m.flags |= FLAG_ROTATION;
+			// The transpose of a rotation is a rotation.
+			m.flags = FLAG_ROTATION;
 		}
 		if ((flags & FLAG_TRANSLATION) == FLAG_TRANSLATION && k.columns() > 3)
 			m.preMultiplyTransform(-get(0, 3), -get(1, 3), -get(2, 3));
@@ -148,8 +183,9 @@ public abstract class Trans3D<E extends Trans3D<?>> extends Matrix<E> {
 	@SuppressWarnings("rawtypes")
 	public final E mul(Matrix lhsm, Matrix rhsm) {
 		if (!(lhsm instanceof Trans3D) || !(rhsm instanceof Trans3D)) {
+			super.mul(lhsm, rhsm);
 			flags = FLAG_GENERAL;
-			return super.mul(lhsm, rhsm);
+			return (E) this;
 		}
 
 		Trans3D lhs = (Trans3D) lhsm;
@@ -157,13 +193,13 @@ public abstract class Trans3D<E extends Trans3D<?>> extends Matrix<E> {
 		final int flhs = lhs.flags;
 		final int frhs = rhs.flags;
 		if ((flhs & FLAG_GENERAL) == FLAG_GENERAL || (frhs & FLAG_GENERAL) == FLAG_GENERAL) {
-			flags = FLAG_GENERAL;
 			super.mul(lhs, rhs);
+			flags = FLAG_GENERAL;
 			return (E) this;
 		}
 		// Two translations/identities. Result = translation sum
 		if ((flhs & ~FLAG_TRANSLATION) == 0 && (frhs & ~FLAG_TRANSLATION) == 0) {
-			if ((flhs & FLAG_TRANSLATION) > 0 || (frhs & FLAG_TRANSLATION) > 0)
+			if (columns > 3 && ((flhs & FLAG_TRANSLATION) > 0 || (frhs & FLAG_TRANSLATION) > 0))
 				setTranslation(lhs.get(0, 3) + rhs.get(0, 3), lhs.get(1, 3) + rhs.get(1, 3),
 						lhs.get(2, 3) + rhs.get(2, 3));
 			else
@@ -171,37 +207,52 @@ public abstract class Trans3D<E extends Trans3D<?>> extends Matrix<E> {
 			return (E) this;
 		}
 
-		VectorBuff3 tmp = null;
-		if (rhs.columns > 3)
-			tmp = (VectorBuff3) lhs.transform4(Heap.checkout3(), rhs.column(3));
-		else if (lhs.columns > 3)
-			tmp = Heap.checkout3().set(lhs.column(3));
-
-		if ((flhs & FLAG_ROTATION_AND_SCALE) > 0 && (frhs & FLAG_ROTATION_AND_SCALE) > 0) {
-			MatMulAlgs.mul33(this, lhs, rhs);
-		} else if ((flhs & FLAG_ROTATION_AND_SCALE) > 0) {
-			set(lhs);
-		} else if ((frhs & FLAG_ROTATION_AND_SCALE) > 0) {
-			set(rhs);
-		} else {
-			makeIdentity();
-		}
-		if (tmp != null) {
-			SpecialMatrix.translation(this, tmp.get(0), tmp.get(1), tmp.get(2));
-			Heap.checkin(tmp);
-		} else if (columns > 3) {
-			SpecialMatrix.translation(this, 0, 0, 0);
+		try (Heap.Frame f = Heap.frame()) {
+			VectorBuff3 tmp = null;
+			if (rhs.columns > 3)
+				tmp = (VectorBuff3) lhs.transform4(f.vec3(), rhs.column(3));
+			else if (lhs.columns > 3)
+				tmp = f.vec3().set(lhs.column(3));
+
+			if ((flhs & FLAG_ROTATION_AND_SCALE) > 0 && (frhs & FLAG_ROTATION_AND_SCALE) > 0) {
+				MatMulAlgs.mul33(this, lhs, rhs);
+			} else if ((flhs & FLAG_ROTATION_AND_SCALE) > 0) {
+				set(lhs);
+			} else if ((frhs & FLAG_ROTATION_AND_SCALE) > 0) {
+				set(rhs);
+			} else {
+				makeIdentity();
+			}
+			if (columns > 3) {
+				if (tmp != null)
+					SpecialMatrix.translation(this, tmp.get(0), tmp.get(1), tmp.get(2));
+				else
+					SpecialMatrix.translation(this, 0, 0, 0);
+			}
 		}
-		flags = flhs | frhs;
+		flags = columns > 3 ? flhs | frhs : (flhs | frhs) & ~FLAG_TRANSLATION;
 		return (E) this;
 	}
 
+	// Scaled but not general 4x4 matrices invert through their 3x3 block
+	// rather than by full elimination.
+	@SuppressWarnings("rawtypes")
+	private boolean isScaledAffine44(Trans3D m) {
+		return (flags & (FLAG_GENERAL | FLAG_SCALING)) == FLAG_SCALING && this instanceof Matrix4
+				&& m instanceof Matrix4;
+	}
+
 	public final <R extends Trans3D<R>> R normalInto(R m) {
+		if (isScaledAffine44(m) && MatInvAlgs.affine44(access, 0, m.access, 0, true)) {
+			m.flags = flags & FLAG_ROTATION_AND_SCALE;
+			return m;
+		}
 		if ((flags & FLAG_GENERAL) == FLAG_GENERAL || (flags & FLAG_SCALING) == FLAG_SCALING) {
-			m.flags = FLAG_GENERAL;
 			super.invertInto(m).transposeInPlace();
+			m.flags = FLAG_GENERAL;
+			// Not setTranslation, which would reset the rest to identity.
 			if (m.columns() > 3)
-				m.setTranslation(0, 0, 0);
+				SpecialMatrix.translation(m, 0, 0, 0);
 			if (m.rows() > 3)
 				for (int l = 0; l < 3; l++)
 					m.set(3, l, 0);
@@ -210,23 +261,19 @@ public abstract class Trans3D<E extends Trans3D<?>> extends Matrix<E> {
 			return m.makeIdentity();
 		copyTo(m);
 		if (m.columns > 3)
-			if (m.rows > 3)
-				m.setTranslation(0, 0, 0);
-			else
-				m.setTranslation(0, 0, 0);
+			SpecialMatrix.translation(m, 0, 0, 0);
 		return m;
 	}
 
 	public E postMultiplyScale(float x, float y, float z) {
+		// A unit scale leaves any existing scaling in place.
 		if (x != 1 || y != 1 || z != 1)
 			flags |= Trans3D.FLAG_SCALING;
-		else if (x == 1 && y == 1 && z == 1)
-			flags &= ~Trans3D.FLAG_SCALING;
 
 		for (int n = 0; n < 3; n++) {
-			set(0, n, get(0, n) * x);
-			set(1, n, get(1, n) * y);
-			set(2, n, get(2, n) * z);
+			put(0, n, get(0, n) * x);
+			put(1, n, get(1, n) * y);
+			put(2, n, get(2, n) * z);
 		}
 		return (E) this;
 	}
@@ -240,13 +287,11 @@ public abstract class Trans3D<E extends Trans3D<?>> extends Matrix<E> {
 	public E preMultiplyScale(float x, float y, float z) {
 		if (x != 1 || y != 1 || z != 1)
 			flags |= Trans3D.FLAG_SCALING;
-		else if (x == 1 && y == 1 && z == 1)
-			flags &= ~Trans3D.FLAG_SCALING;
 
 		for (int n = 0; n < 3; n++) {
-			set(n, 0, get(n, 0) * x);
-			set(n, 1, get(n, 1) * y);
-			set(n, 2, get(n, 2) * z);
+			put(n, 0, get(n, 0) * x);
+			put(n, 1, get(n, 1) * y);
+			put(n, 2, get(n, 2) * z);
 		}
 		return (E) this;
 	}
@@ -264,7 +309,8 @@ public abstract class Trans3D<E extends Trans3D<?>> extends Matrix<E> {
 			set(0, 3, get(0, 0) * x + get(0, 1) * y + get(0, 3));
 			set(1, 3, get(1, 0) * x + get(1, 1) * y + get(1, 3));
 			set(2, 3, get(2, 0) * x + get(2, 1) * y + get(2, 3));
-			set(3, 3, get(3, 0) * x + get(3, 1) * y + get(3, 3));
+			if (rows > 3)
+				set(3, 3, get(3, 0) * x + get(3, 1) * y + get(3, 3));
 		}
 		if (x != 0 || y != 0)
 			flags |= FLAG_TRANSLATION;
@@ -281,7 +327,8 @@ public abstract class Trans3D<E extends Trans3D<?>> extends Matrix<E> {
 			set(0, 3, get(0, 0) * x + get(0, 1) * y + get(0, 2) * z + get(0, 3));
 			set(1, 3, get(1, 0) * x + get(1, 1) * y + get(1, 2) * z + get(1, 3));
 			set(2, 3, get(2, 0) * x + get(2, 1) * y + get(2, 2) * z + get(2, 3));
-			set(3, 3, get(3, 0) * x + get(3, 1) * y + get(3, 2) * z + get(3, 3));
+			if (rows > 3)
+				set(3, 3, get(3, 0) * x + get(3, 1) * y + get(3, 2) * z + get(3, 3));
 		}
 		if (x != 0 || y != 0 || z != 0)
 			flags |= FLAG_TRANSLATION;
@@ -337,6 +384,96 @@ public abstract class Trans3D<E extends Trans3D<?>> extends Matrix<E> {
 		return (E) SpecialMatrix.translation(this, a);
 	}
 
+	/**
+	 * Transforms count 3D directions (w = 0) from src into dst. Element i is
+	 * read at srcOffset + i * srcStride and written at dstOffset + i *
+	 * dstStride. To transform in place, pass the same buffer with the same
+	 * offset and stride; any other overlap between the source and destination
+	 * elements, such as re-striding from 3 to 4 within one buffer, overwrites
+	 * elements before they are read.
+	 */
+	public final FloatBuffer transformDirections(FloatBuffer src, int srcOffset, int srcStride, FloatBuffer dst,
+			int dstOffset, int dstStride, int count) {
+		if ((flags & ~FLAG_TRANSLATION) == 0)
+			return copyVertices(src, srcOffset, srcStride, dst, dstOffset, dstStride, count);
+		final float m00 = get(0, 0), m01 = get(0, 1), m02 = get(0, 2);
+		final float m10 = get(1, 0), m11 = get(1, 1), m12 = get(1, 2);
+		final float m20 = get(2, 0), m21 = get(2, 1), m22 = get(2, 2);
+		for (int i = 0, s = srcOffset, d = dstOffset; i < count; i++, s += srcStride, d += dstStride) {
+			final float x = src.get(s), y = src.get(s + 1), z = src.get(s + 2);
+			dst.put(d, m00 * x + m01 * y + m02 * z);
+			dst.put(d + 1, m10 * x + m11 * y + m12 * z);
+			dst.put(d + 2, m20 * x + m21 * y + m22 * z);
+		}
+		return dst;
+	}
+
+	/**
+	 * Parallel form of {@link #transformDirections}. Batches larger than
+	 * {@link Parallelism#threshold()} are split across
+	 * {@link Parallelism#pool()}; the matrix must not change until this
+	 * returns.
+	 */
+	public final FloatBuffer transformDirectionsParallel(FloatBuffer src, int srcOffset, int srcStride,
+			FloatBuffer dst, int dstOffset, int dstStride, int count) {
+		return TransformTask.run(this, false, src, srcOffset, srcStride, dst, dstOffset, dstStride, count);
+	}
+
+	/**
+	 * Transforms count 3D points (w = 1) from src into dst. Element i is read
+	 * at srcOffset + i * srcStride and written at dstOffset + i * dstStride.
+	 * The source and destination may overlap only as in
+	 * {@link #transformDirections}: the same buffer, offset and stride. Like
+	 * {@link #transform4(Vector)}, only the first three rows are applied.
+	 */
+	public final FloatBuffer transformPoints(FloatBuffer src, int srcOffset, int srcStride, FloatBuffer dst,
+			int dstOffset, int dstStride, int count) {
+		if (flags == FLAG_IDENTITY)
+			return copyVertices(src, srcOffset, srcStride, dst, dstOffset, dstStride, count);
+		final float m03 = get(0, 3), m13 = get(1, 3), m23 = get(2, 3);
+		if (flags == FLAG_TRANSLATION) {
+			for (int i = 0, s = srcOffset, d = dstOffset; i < count; i++, s += srcStride, d += dstStride) {
+				dst.put(d, src.get(s) + m03);
+				dst.put(d + 1, src.get(s + 1) + m13);
+				dst.put(d + 2, src.get(s + 2) + m23);
+			}
+			return dst;
+		}
+		final float m00 = get(0, 0), m01 = get(0, 1), m02 = get(0, 2);
+		final float m10 = get(1, 0), m11 = get(1, 1), m12 = get(1, 2);
+		final float m20 = get(2, 0), m21 = get(2, 1), m22 = get(2, 2);
+		for (int i = 0, s = srcOffset, d = dstOffset; i < count; i++, s += srcStride, d += dstStride) {
+			final float x = src.get(s), y = src.get(s + 1), z = src.get(s + 2);
+			dst.put(d, m00 * x + m01 * y + m02 * z + m03);
+			dst.put(d + 1, m10 * x + m11 * y + m12 * z + m13);
+			dst.put(d + 2, m20 * x + m21 * y + m22 * z + m23);
+		}
+		return dst;
+	}
+
+	/**
+	 * Parallel form of {@link #transformPoints}. Batches larger than
+	 * {@link Parallelism#threshold()} are split across
+	 * {@link Parallelism#pool()}; the matrix must not change until this
+	 * returns.
+	 */
+	public final FloatBuffer transformPointsParallel(FloatBuffer src, int srcOffset, int srcStride, FloatBuffer dst,
+			int dstOffset, int dstStride, int count) {
+		return TransformTask.run(this, true, src, srcOffset, srcStride, dst, dstOffset, dstStride, count);
+	}
+
+	private static FloatBuffer copyVertices(FloatBuffer src, int srcOffset, int srcStride, FloatBuffer dst,
+			int dstOffset, int dstStride, int count) {
+		if (src == dst && srcOffset == dstOffset && srcStride == dstStride)
+			return dst;
+		for (int i = 0, s = srcOffset, d = dstOffset; i < count; i++, s += srcStride, d += dstStride) {
+			dst.put(d, src.get(s));
+			dst.put(d + 1, src.get(s + 1));
+			dst.put(d + 2, src.get(s + 2));
+		}
+		return dst;
+	}
+
 	// private void checkFlags() {
 	// if ((flags & FLAG_GENERAL) > 0)
 	// return;// Generals have no constraint.
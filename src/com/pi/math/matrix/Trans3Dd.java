@@ -0,0 +1,470 @@
+package com.pi.math.matrix;
+
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.util.function.Supplier;
+
+import com.pi.math.vector.VectorBuffD3;
+
+/**
+ * Double-precision counterpart of {@link Trans3D}: column-major 3x4 or 4x4
+ * storage carrying the same {@code FLAG_*} bits, so products, inverses and
+ * transforms take the same shortcuts for identities, translations and rigid
+ * motions. Use {@link #toRelativeToEye} to get a float matrix for upload.
+ */
+@SuppressWarnings({ "unchecked", "rawtypes" })
+public abstract class Trans3Dd<E extends Trans3Dd<E>> {
+	private static final double EPSILON = 1e-9;
+
+	private static final ThreadLocal<double[]> localScratch = ThreadLocal.withInitial(new Supplier<double[]>() {
+		@Override
+		public double[] get() {
+			return new double[16];
+		}
+	});
+
+	protected final DoubleBuffer access;
+	protected final int rows, columns;
+	int flags;
+
+	Trans3Dd(DoubleBuffer f, int offset, final int r, final int c) {
+		this.access = f.slice(offset, r * c);
+		this.rows = r;
+		this.columns = c;
+		this.flags = Trans3D.FLAG_GENERAL;
+	}
+
+	public final int rows() {
+		return rows;
+	}
+
+	public final int columns() {
+		return columns;
+	}
+
+	public DoubleBuffer getAccessor() {
+		access.position(0);
+		return access;
+	}
+
+	/**
+	 * @return element (r, c); rows beyond the storage read as identity
+	 */
+	public final double get(int r, int c) {
+		if (r >= rows || c >= columns)
+			return r == c ? 1 : 0;
+		return access.get(c * rows + r);
+	}
+
+	private IndexOutOfBoundsException outOfBounds(int r, int c) {
+		return new IndexOutOfBoundsException("(" + r + ", " + c + ") outside " + rows + "x" + columns);
+	}
+
+	/**
+	 * Sets one element, widening the flags to cover the change as
+	 * {@link Trans3D} does.
+	 *
+	 * @throws IndexOutOfBoundsException if (r, c) is outside the storage
+	 */
+	public final void set(int r, int c, double v) {
+		if (r < 0 || r >= rows || c < 0 || c >= columns)
+			throw outOfBounds(r, c);
+		if (v != access.get(c * rows + r))
+			flags |= r > 2 ? Trans3D.FLAG_GENERAL : c > 2 ? Trans3D.FLAG_TRANSLATION : Trans3D.FLAG_ROTATION_AND_SCALE;
+		access.put(c * rows + r, v);
+	}
+
+	// Writes element (r, c) without touching the flags. Only for kernels that
+	// assign the flags afterwards.
+	final void put(int r, int c, double v) {
+		if (r < 0 || r >= rows || c < 0 || c >= columns)
+			throw outOfBounds(r, c);
+		access.put(c * rows + r, v);
+	}
+
+	public E makeDirty() {
+		flags = Trans3D.FLAG_GENERAL;
+		return (E) this;
+	}
+
+	public E makeIdentity() {
+		for (int c = 0; c < columns; c++)
+			for (int r = 0; r < rows; r++)
+				access.put(c * rows + r, r == c ? 1 : 0);
+		flags = Trans3D.FLAG_IDENTITY;
+		return (E) this;
+	}
+
+	public void setFlags() {
+		flags = computeFlags();
+	}
+
+	// Not the same test as Trans3D.computeFlags, which takes a 3x4's
+	// translation as zero while its length is at most 1, accepts the rotation
+	// when X cross Y matches Z to float tolerance, and may return GENERAL
+	// together with other bits. Here any nonzero translation counts, the
+	// columns must be orthogonal to a relative 1e-9 with a positive
+	// determinant, and GENERAL stands alone. The tests here are at least as
+	// strict, so up to float rounding every bit Trans3D would set is set here
+	// too, and the flags toRelativeToEye copies into float matrices stay
+	// conservative.
+	private int computeFlags() {
+		boolean id = true;
+		for (int c = 0; c < columns && id; c++)
+			for (int r = 0; r < rows && id; r++)
+				id = get(r, c) == (r == c ? 1 : 0);
+		if (id)
+			return Trans3D.FLAG_IDENTITY;
+		if (rows > 3 && (get(3, 0) != 0 || get(3, 1) != 0 || get(3, 2) != 0 || get(3, 3) != 1))
+			return Trans3D.FLAG_GENERAL;
+		int res = 0;
+		if (get(0, 3) != 0 || get(1, 3) != 0 || get(2, 3) != 0)
+			res |= Trans3D.FLAG_TRANSLATION;
+		final double xy = columnDot(0, 1), yz = columnDot(1, 2), xz = columnDot(0, 2);
+		final double xx = columnDot(0, 0), yy = columnDot(1, 1), zz = columnDot(2, 2);
+		if (xx == 0 || yy == 0 || zz == 0)
+			return Trans3D.FLAG_GENERAL;
+		// Orthogonal columns make a rotation and/or scale; anything else
+		// (shear, reflection) is general.
+		if (Math.abs(xy) > EPSILON * Math.sqrt(xx * yy) || Math.abs(yz) > EPSILON * Math.sqrt(yy * zz)
+				|| Math.abs(xz) > EPSILON * Math.sqrt(xx * zz) || determinant3() < 0)
+			return Trans3D.FLAG_GENERAL;
+		if (get(1, 0) != 0 || get(2, 0) != 0 || get(0, 1) != 0 || get(2, 1) != 0 || get(0, 2) != 0
+				|| get(1, 2) != 0)
+			res |= Trans3D.FLAG_ROTATION;
+		if (Math.abs(xx - 1) > EPSILON || Math.abs(yy - 1) > EPSILON || Math.abs(zz - 1) > EPSILON)
+			res |= Trans3D.FLAG_SCALING;
+		return res;
+	}
+
+	private double columnDot(int a, int b) {
+		return get(0, a) * get(0, b) + get(1, a) * get(1, b) + get(2, a) * get(2, b);
+	}
+
+	private double determinant3() {
+		return get(0, 0) * (get(1, 1) * get(2, 2) - get(1, 2) * get(2, 1))
+				- get(0, 1) * (get(1, 0) * get(2, 2) - get(1, 2) * get(2, 0))
+				+ get(0, 2) * (get(1, 0) * get(2, 1) - get(1, 1) * get(2, 0));
+	}
+
+	public E set(Trans3Dd m) {
+		for (int c = 0; c < columns; c++)
+			for (int r = 0; r < rows; r++)
+				put(r, c, m.get(r, c));
+		flags = m.flags;
+		if (rows > m.rows && (m.flags & Trans3D.FLAG_GENERAL) != 0)
+			setFlags();
+		return (E) this;
+	}
+
+	public E setTranslation(double x, double y, double z) {
+		makeIdentity();
+		return addTranslation(x, y, z);
+	}
+
+	public E setTranslation(VectorBuffD3 t) {
+		return setTranslation(t.get(0), t.get(1), t.get(2));
+	}
+
+	public E addTranslation(double x, double y, double z) {
+		put(0, 3, get(0, 3) + x);
+		put(1, 3, get(1, 3) + y);
+		put(2, 3, get(2, 3) + z);
+		if (x != 0 || y != 0 || z != 0)
+			flags |= Trans3D.FLAG_TRANSLATION;
+		return (E) this;
+	}
+
+	public VectorBuffD3 getTranslation(VectorBuffD3 dest) {
+		return dest.set(get(0, 3), get(1, 3), get(2, 3));
+	}
+
+	/**
+	 * @param angle radians
+	 * @param x unit axis
+	 */
+	public E setAxisAngle(double angle, double x, double y, double z) {
+		makeIdentity();
+		final double c = Math.cos(angle), s = Math.sin(angle), c1 = 1 - c;
+		put(0, 0, c + x * x * c1);
+		put(1, 0, y * x * c1 + z * s);
+		put(2, 0, z * x * c1 - y * s);
+		put(0, 1, x * y * c1 - z * s);
+		put(1, 1, c + y * y * c1);
+		put(2, 1, z * y * c1 + x * s);
+		put(0, 2, x * z * c1 + y * s);
+		put(1, 2, y * z * c1 - x * s);
+		put(2, 2, c + z * z * c1);
+		if (angle != 0)
+			flags = Trans3D.FLAG_ROTATION;
+		return (E) this;
+	}
+
+	/**
+	 * Rotation from the unit quaternion {@code <w,x,y,z>}.
+	 */
+	public E setQuaternion(double w, double x, double y, double z) {
+		makeIdentity();
+		final double xx = x * x, xy = x * y, xz = x * z, yy = y * y, zz = z * z, yz = y * z;
+		final double wx = w * x, wy = w * y, wz = w * z;
+		put(0, 0, 1 - 2 * (yy + zz));
+		put(0, 1, 2 * (xy - wz));
+		put(0, 2, 2 * (xz + wy));
+		put(1, 0, 2 * (xy + wz));
+		put(1, 1, 1 - 2 * (xx + zz));
+		put(1, 2, 2 * (yz - wx));
+		put(2, 0, 2 * (xz - wy));
+		put(2, 1, 2 * (yz + wx));
+		put(2, 2, 1 - 2 * (xx + yy));
+		if (w != 1 && w != -1)
+			flags = Trans3D.FLAG_ROTATION;
+		return (E) this;
+	}
+
+	public E setScale(double x, double y, double z) {
+		makeIdentity();
+		put(0, 0, x);
+		put(1, 1, y);
+		put(2, 2, z);
+		if (x != 1 || y != 1 || z != 1)
+			flags = Trans3D.FLAG_SCALING;
+		return (E) this;
+	}
+
+	/**
+	 * this = lhs * rhs. Either operand may be this matrix.
+	 */
+	public final E mul(Trans3Dd lhs, Trans3Dd rhs) {
+		final int flhs = lhs.flags, frhs = rhs.flags;
+		if (((flhs | frhs) & Trans3D.FLAG_GENERAL) != 0) {
+			final double[] t = localScratch.get();
+			final int n = rows;
+			for (int c = 0; c < 4; c++) {
+				final double b0 = rhs.get(0, c), b1 = rhs.get(1, c), b2 = rhs.get(2, c), b3 = rhs.get(3, c);
+				for (int r = 0; r < n; r++)
+					t[c * n + r] = lhs.get(r, 0) * b0 + lhs.get(r, 1) * b1 + lhs.get(r, 2) * b2 + lhs.get(r, 3) * b3;
+			}
+			for (int k = 0; k < n * 4; k++)
+				access.put(k, t[k]);
+			flags = Trans3D.FLAG_GENERAL;
+			return (E) this;
+		}
+		// Two translations/identities: sum the translations.
+		if ((flhs & ~Trans3D.FLAG_TRANSLATION) == 0 && (frhs & ~Trans3D.FLAG_TRANSLATION) == 0)
+			return setTranslation(lhs.get(0, 3) + rhs.get(0, 3), lhs.get(1, 3) + rhs.get(1, 3),
+					lhs.get(2, 3) + rhs.get(2, 3));
+		// Affine: R = Rl Rr, t = Rl tr + tl
+		final double tr0 = rhs.get(0, 3), tr1 = rhs.get(1, 3), tr2 = rhs.get(2, 3);
+		final double[] t = localScratch.get();
+		for (int r = 0; r < 3; r++) {
+			final double l0 = lhs.get(r, 0), l1 = lhs.get(r, 1), l2 = lhs.get(r, 2);
+			for (int c = 0; c < 3; c++)
+				t[c * 3 + r] = l0 * rhs.get(0, c) + l1 * rhs.get(1, c) + l2 * rhs.get(2, c);
+			t[9 + r] = l0 * tr0 + l1 * tr1 + l2 * tr2 + lhs.get(r, 3);
+		}
+		for (int c = 0; c < 4; c++)
+			for (int r = 0; r < 3; r++)
+				put(r, c, t[c * 3 + r]);
+		if (rows > 3) {
+			put(3, 0, 0);
+			put(3, 1, 0);
+			put(3, 2, 0);
+			put(3, 3, 1);
+		}
+		flags = flhs | frhs;
+		return (E) this;
+	}
+
+	/**
+	 * Writes the inverse of this matrix into m. Rigid motions invert by
+	 * transposition; scaled affine transforms by the 3x3 adjugate; general
+	 * 4x4 matrices by cofactor expansion.
+	 *
+	 * @throws ArithmeticException if the matrix is singular
+	 */
+	public final <R extends Trans3Dd<R>> R invertInto(R m) {
+		final int f = flags;
+		if (f == Trans3D.FLAG_IDENTITY)
+			return m.makeIdentity();
+		final double[] t = localScratch.get();
+		if ((f & Trans3D.FLAG_GENERAL) != 0 && rows > 3 && !isAffine()) {
+			invert44(t);
+			// A 3x4 destination keeps only the top three rows.
+			for (int c = 0; c < 4; c++)
+				for (int r = 0; r < m.rows; r++)
+					m.put(r, c, t[c * 4 + r]);
+			m.flags = Trans3D.FLAG_GENERAL;
+			return m;
+		}
+		// Affine: [A t]^-1 = [A^-1, -A^-1 t]
+		if ((f & (Trans3D.FLAG_GENERAL | Trans3D.FLAG_SCALING)) == 0) {
+			for (int r = 0; r < 3; r++)
+				for (int c = 0; c < 3; c++)
+					t[c * 3 + r] = get(c, r);
+		} else
+			invert33(t);
+		final double t0 = get(0, 3), t1 = get(1, 3), t2 = get(2, 3);
+		m.makeIdentity();
+		for (int r = 0; r < 3; r++) {
+			for (int c = 0; c < 3; c++)
+				m.put(r, c, t[c * 3 + r]);
+			m.put(r, 3, -(t[r] * t0 + t[3 + r] * t1 + t[6 + r] * t2));
+		}
+		m.flags = f;
+		return m;
+	}
+
+	private boolean isAffine() {
+		return rows < 4 || (get(3, 0) == 0 && get(3, 1) == 0 && get(3, 2) == 0 && get(3, 3) == 1);
+	}
+
+	// Column-major inverse of the upper 3x3 into t[0, 9). The double
+	// counterpart of MatInvAlgs.inv33, whose kernels work on float buffers.
+	private void invert33(double[] t) {
+		final double a = get(0, 0), b = get(0, 1), c = get(0, 2);
+		final double d = get(1, 0), e = get(1, 1), f = get(1, 2);
+		final double g = get(2, 0), h = get(2, 1), i = get(2, 2);
+		final double c0 = e * i - f * h, c1 = f * g - d * i, c2 = d * h - e * g;
+		final double det = a * c0 + b * c1 + c * c2;
+		if (det == 0)
+			throw new ArithmeticException("Singular matrix");
+		final double id = 1 / det;
+		t[0] = c0 * id;
+		t[1] = c1 * id;
+		t[2] = c2 * id;
+		t[3] = (c * h - b * i) * id;
+		t[4] = (a * i - c * g) * id;
+		t[5] = (b * g - a * h) * id;
+		t[6] = (b * f - c * e) * id;
+		t[7] = (c * d - a * f) * id;
+		t[8] = (a * e - b * d) * id;
+	}
+
+	// Column-major 4x4 inverse into t[0, 16), by 2x2 sub-determinants. The
+	// double counterpart of MatInvAlgs.general44.
+	private void invert44(double[] t) {
+		final double a00 = get(0, 0), a01 = get(0, 1), a02 = get(0, 2), a03 = get(0, 3);
+		final double a10 = get(1, 0), a11 = get(1, 1), a12 = get(1, 2), a13 = get(1, 3);
+		final double a20 = get(2, 0), a21 = get(2, 1), a22 = get(2, 2), a23 = get(2, 3);
+		final double a30 = get(3, 0), a31 = get(3, 1), a32 = get(3, 2), a33 = get(3, 3);
+		final double s0 = a00 * a11 - a10 * a01, s1 = a00 * a12 - a10 * a02, s2 = a00 * a13 - a10 * a03;
+		final double s3 = a01 * a12 - a11 * a02, s4 = a01 * a13 - a11 * a03, s5 = a02 * a13 - a12 * a03;
+		final double c5 = a22 * a33 - a32 * a23, c4 = a21 * a33 - a31 * a23, c3 = a21 * a32 - a31 * a22;
+		final double c2 = a20 * a33 - a30 * a23, c1 = a20 * a32 - a30 * a22, c0 = a20 * a31 - a30 * a21;
+		final double det = s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0;
+		if (det == 0)
+			throw new ArithmeticException("Singular matrix");
+		final double id = 1 / det;
+		// t[c * 4 + r] = inverse(r, c)
+		t[0] = (a11 * c5 - a12 * c4 + a13 * c3) * id;
+		t[4] = (-a01 * c5 + a02 * c4 - a03 * c3) * id;
+		t[8] = (a31 * s5 - a32 * s4 + a33 * s3) * id;
+		t[12] = (-a21 * s5 + a22 * s4 - a23 * s3) * id;
+		t[1] = (-a10 * c5 + a12 * c2 - a13 * c1) * id;
+		t[5] = (a00 * c5 - a02 * c2 + a03 * c1) * id;
+		t[9] = (-a30 * s5 + a32 * s2 - a33 * s1) * id;
+		t[13] = (a20 * s5 - a22 * s2 + a23 * s1) * id;
+		t[2] = (a10 * c4 - a11 * c2 + a13 * c0) * id;
+		t[6] = (-a00 * c4 + a01 * c2 - a03 * c0) * id;
+		t[10] = (a30 * s4 - a31 * s2 + a33 * s0) * id;
+		t[14] = (-a20 * s4 + a21 * s2 - a23 * s0) * id;
+		t[3] = (-a10 * c3 + a11 * c1 - a12 * c0) * id;
+		t[7] = (a00 * c3 - a01 * c1 + a02 * c0) * id;
+		t[11] = (-a30 * s3 + a31 * s1 - a32 * s0) * id;
+		t[15] = (a20 * s3 - a21 * s1 + a22 * s0) * id;
+	}
+
+	/**
+	 * dest = this * [src, 1]
+	 */
+	public VectorBuffD3 transformPoint(VectorBuffD3 dest, VectorBuffD3 src) {
+		final double x = src.get(0), y = src.get(1), z = src.get(2);
+		if (flags == Trans3D.FLAG_IDENTITY)
+			return dest.set(x, y, z);
+		if (flags == Trans3D.FLAG_TRANSLATION)
+			return dest.set(x + get(0, 3), y + get(1, 3), z + get(2, 3));
+		return dest.set(get(0, 0) * x + get(0, 1) * y + get(0, 2) * z + get(0, 3),
+				get(1, 0) * x + get(1, 1) * y + get(1, 2) * z + get(1, 3),
+				get(2, 0) * x + get(2, 1) * y + get(2, 2) * z + get(2, 3));
+	}
+
+	/**
+	 * dest = this * [src, 0]
+	 */
+	public VectorBuffD3 transformDirection(VectorBuffD3 dest, VectorBuffD3 src) {
+		final double x = src.get(0), y = src.get(1), z = src.get(2);
+		if ((flags & ~Trans3D.FLAG_TRANSLATION) == 0)
+			return dest.set(x, y, z);
+		return dest.set(get(0, 0) * x + get(0, 1) * y + get(0, 2) * z,
+				get(1, 0) * x + get(1, 1) * y + get(1, 2) * z, get(2, 0) * x + get(2, 1) * y + get(2, 2) * z);
+	}
+
+	/**
+	 * Narrows this matrix into dest, keeping its flags.
+	 */
+	public <R extends Trans3D<R>> R toFloat(R dest) {
+		return toRelativeToEye(dest, 0, 0, 0);
+	}
+
+	/**
+	 * Narrows this matrix into dest with the eye position subtracted from the
+	 * translation, so that model-view products stay precise far from the
+	 * origin. Pair it with a view matrix that has no eye translation.
+	 */
+	public <R extends Trans3D<R>> R toRelativeToEye(R dest, double eyeX, double eyeY, double eyeZ) {
+		final int dr = dest.rows(), dc = dest.columns();
+		for (int c = 0; c < Math.min(3, dc); c++)
+			for (int r = 0; r < dr; r++)
+				dest.put(r, c, (float) get(r, c));
+		final double tx = get(0, 3) - eyeX, ty = get(1, 3) - eyeY, tz = get(2, 3) - eyeZ;
+		if (dc > 3) {
+			dest.put(0, 3, (float) tx);
+			dest.put(1, 3, (float) ty);
+			dest.put(2, 3, (float) tz);
+			if (dr > 3)
+				dest.put(3, 3, (float) get(3, 3));
+		}
+		final int f = relativeFlags(tx, ty, tz);
+		// Without a fourth column the translation isn't stored.
+		dest.flags = dc > 3 ? f : f & ~Trans3D.FLAG_TRANSLATION;
+		return dest;
+	}
+
+	/**
+	 * Narrows this matrix into element i of dest; see
+	 * {@link #toRelativeToEye(Trans3D, double, double, double)}.
+	 */
+	public Matrix4Array toRelativeToEye(Matrix4Array dest, int i, double eyeX, double eyeY, double eyeZ) {
+		final FloatBuffer d = dest.accessor();
+		final int o = i * Matrix4Array.STRIDE;
+		for (int c = 0; c < 3; c++)
+			for (int r = 0; r < 4; r++)
+				d.put(o + c * 4 + r, (float) get(r, c));
+		final double tx = get(0, 3) - eyeX, ty = get(1, 3) - eyeY, tz = get(2, 3) - eyeZ;
+		d.put(o + 12, (float) tx);
+		d.put(o + 13, (float) ty);
+		d.put(o + 14, (float) tz);
+		d.put(o + 15, (float) get(3, 3));
+		dest.flags[i] = relativeFlags(tx, ty, tz);
+		return dest;
+	}
+
+	private int relativeFlags(double tx, double ty, double tz) {
+		if ((flags & Trans3D.FLAG_GENERAL) != 0)
+			return Trans3D.FLAG_GENERAL;
+		final int f = flags & ~Trans3D.FLAG_TRANSLATION;
+		return tx != 0 || ty != 0 || tz != 0 ? f | Trans3D.FLAG_TRANSLATION : f;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder res = new StringBuilder(getClass().getSimpleName()).append("[f=")
+				.append(Integer.toBinaryString(flags));
+		for (int r = 0; r < rows; r++) {
+			res.append(r == 0 ? "; " : ", ");
+			for (int c = 0; c < columns; c++)
+				res.append(c == 0 ? "" : " ").append(get(r, c));
+		}
+		return res.append(']').toString();
+	}
+}
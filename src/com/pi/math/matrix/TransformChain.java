@@ -0,0 +1,174 @@
+package com.pi.math.matrix;
+
+import java.util.function.Supplier;
+
+/**
+ * A lazily evaluated product of transforms, built by
+ * {@link Trans3D#chain(Trans3D...)}. Nothing is multiplied until
+ * {@link #into(Trans3D)}, which reads the operands' flags to:
+ * <ul>
+ * <li>skip identities,</li>
+ * <li>collapse each run of non-general operands (rotations, scales,
+ * translations) with 3x4 affine products, and a translation with a column
+ * update rather than a product,</li>
+ * <li>multiply general (projective) operands in once per run instead of
+ * carrying them through every intermediate.</li>
+ * </ul>
+ * All 4x4 products cost the same, so only the affine structure makes one
+ * association cheaper than another, and collapsing the affine runs first is
+ * always the cheapest order; no search is needed. Intermediates live in a
+ * per-thread scratch array and only the destination is written, so
+ * evaluation allocates nothing.
+ * <p>
+ * A chain holds its operands, not their values: one built once over matrices
+ * that are updated in place can be evaluated every frame without allocating
+ * at all. The operands must not change until into returns, but the
+ * destination may be one of them.
+ */
+@SuppressWarnings("rawtypes")
+public final class TransformChain {
+	// [0, 16) accumulated product, [16, 32) current affine run or general
+	// operand, [32, 48) product of the two; all column-major 4x4. The layout
+	// matches MatSimdAlgs.mulCore.
+	private static final int ACC = 0, RHS = 16, OUT = 32;
+	private static final ThreadLocal<float[]> localScratch = ThreadLocal.withInitial(new Supplier<float[]>() {
+		@Override
+		public float[] get() {
+			return new float[48];
+		}
+	});
+
+	private final Trans3D[] ops;
+
+	/**
+	 * @param ops the factors, leftmost first
+	 */
+	public TransformChain(Trans3D<?>... ops) {
+		this.ops = ops;
+	}
+
+	private static boolean translationOnly(int f) {
+		return (f & ~Trans3D.FLAG_TRANSLATION) == 0;
+	}
+
+	/**
+	 * dest = ops[0] * ops[1] * ... * ops[n - 1]
+	 */
+	public <R extends Trans3D<R>> R into(R dest) {
+		final float[] t = localScratch.get();
+		boolean acc = false, run = false;
+		int runFlags = 0, flags = 0;
+		for (Trans3D m : ops) {
+			final int f = m.flags;
+			if (f == Trans3D.FLAG_IDENTITY)
+				continue;
+			flags |= f;
+			if ((f & Trans3D.FLAG_GENERAL) == 0) {
+				if (run)
+					affine(t, m, f);
+				else
+					loadAffine(t, m);
+				run = true;
+				runFlags |= f;
+				continue;
+			}
+			if (run)
+				acc = flush(t, acc, runFlags);
+			run = false;
+			runFlags = 0;
+			if (acc) {
+				load(t, RHS, m);
+				mul(t);
+			} else {
+				load(t, ACC, m);
+				acc = true;
+			}
+		}
+		if (run)
+			acc = flush(t, acc, runFlags);
+
+		if (!acc)
+			return dest.makeIdentity();
+		final int rows = dest.rows(), columns = dest.columns();
+		for (int c = 0; c < columns; c++)
+			for (int r = 0; r < rows; r++)
+				dest.put(r, c, c < 4 && r < 4 ? t[ACC + c * 4 + r] : r == c ? 1 : 0);
+		if ((flags & Trans3D.FLAG_GENERAL) != 0)
+			flags = Trans3D.FLAG_GENERAL;
+		dest.flags = columns > 3 ? flags : flags & ~Trans3D.FLAG_TRANSLATION;
+		return dest;
+	}
+
+	// Multiplies the run in RHS into the accumulated product, or makes it the
+	// accumulated product if there is none yet.
+	private static boolean flush(float[] t, boolean acc, int runFlags) {
+		if (!acc) {
+			System.arraycopy(t, RHS, t, ACC, 16);
+		} else if (translationOnly(runFlags)) {
+			// A * T: column 3 += A * t
+			final float x = t[RHS + 12], y = t[RHS + 13], z = t[RHS + 14];
+			for (int r = 0; r < 4; r++)
+				t[ACC + 12 + r] += t[ACC + r] * x + t[ACC + 4 + r] * y + t[ACC + 8 + r] * z;
+		} else {
+			mul(t);
+		}
+		return true;
+	}
+
+	// ACC = ACC * RHS
+	private static void mul(float[] t) {
+		if (MatMulAlgs.SIMD) {
+			MatSimdAlgs.mulCore(t);
+		} else {
+			for (int c = 0; c < 4; c++) {
+				final float b0 = t[RHS + c * 4], b1 = t[RHS + c * 4 + 1], b2 = t[RHS + c * 4 + 2],
+						b3 = t[RHS + c * 4 + 3];
+				for (int r = 0; r < 4; r++)
+					t[OUT + c * 4 + r] = t[ACC + r] * b0 + t[ACC + 4 + r] * b1 + t[ACC + 8 + r] * b2
+							+ t[ACC + 12 + r] * b3;
+			}
+		}
+		System.arraycopy(t, OUT, t, ACC, 16);
+	}
+
+	// t[o, o + 16) = m, padded to 4x4 with identity.
+	private static void load(float[] t, int o, Trans3D m) {
+		if (m.rows == 4 && m.columns == 4)
+			for (int k = 0; k < 16; k++)
+				t[o + k] = m.get(k);
+		else
+			for (int k = 0; k < 16; k++)
+				t[o + k] = m.get(k & 3, k >> 2);
+	}
+
+	// Starts a run in RHS with m, whose bottom row is [0 0 0 1].
+	private static void loadAffine(float[] t, Trans3D m) {
+		for (int c = 0; c < 4; c++) {
+			t[RHS + c * 4] = m.get(0, c);
+			t[RHS + c * 4 + 1] = m.get(1, c);
+			t[RHS + c * 4 + 2] = m.get(2, c);
+			t[RHS + c * 4 + 3] = c == 3 ? 1 : 0;
+		}
+	}
+
+	// RHS = RHS * m, both with a bottom row of [0 0 0 1].
+	private static void affine(float[] t, Trans3D m, int f) {
+		final float a00 = t[RHS], a10 = t[RHS + 1], a20 = t[RHS + 2];
+		final float a01 = t[RHS + 4], a11 = t[RHS + 5], a21 = t[RHS + 6];
+		final float a02 = t[RHS + 8], a12 = t[RHS + 9], a22 = t[RHS + 10];
+		if ((f & Trans3D.FLAG_TRANSLATION) != 0) {
+			final float x = m.get(0, 3), y = m.get(1, 3), z = m.get(2, 3);
+			t[RHS + 12] += a00 * x + a01 * y + a02 * z;
+			t[RHS + 13] += a10 * x + a11 * y + a12 * z;
+			t[RHS + 14] += a20 * x + a21 * y + a22 * z;
+		}
+		if (translationOnly(f))
+			return;
+		for (int c = 0; c < 3; c++) {
+			final float b0 = m.get(0, c), b1 = m.get(1, c), b2 = m.get(2, c);
+			t[RHS + c * 4] = a00 * b0 + a01 * b1 + a02 * b2;
+			t[RHS + c * 4 + 1] = a10 * b0 + a11 * b1 + a12 * b2;
+			t[RHS + c * 4 + 2] = a20 * b0 + a21 * b1 + a22 * b2;
+		}
+	}
+}
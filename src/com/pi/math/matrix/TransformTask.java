@@ -0,0 +1,57 @@
+package com.pi.math.matrix;
+
+import java.nio.FloatBuffer;
+import java.util.concurrent.RecursiveAction;
+
+import com.pi.math.Parallelism;
+
+// Splits a bulk vertex transform into chunks of at most
+// Parallelism.threshold() elements.
+@SuppressWarnings({ "rawtypes", "serial" })
+class TransformTask extends RecursiveAction {
+	private final Trans3D m;
+	private final boolean points;
+	private final FloatBuffer src, dst;
+	private final int srcOffset, srcStride, dstOffset, dstStride, count, threshold;
+
+	TransformTask(Trans3D m, boolean points, FloatBuffer src, int srcOffset, int srcStride, FloatBuffer dst,
+			int dstOffset, int dstStride, int count, int threshold) {
+		this.m = m;
+		this.points = points;
+		this.src = src;
+		this.srcOffset = srcOffset;
+		this.srcStride = srcStride;
+		this.dst = dst;
+		this.dstOffset = dstOffset;
+		this.dstStride = dstStride;
+		this.count = count;
+		this.threshold = threshold;
+	}
+
+	static FloatBuffer run(Trans3D m, boolean points, FloatBuffer src, int srcOffset, int srcStride, FloatBuffer dst,
+			int dstOffset, int dstStride, int count) {
+		final int threshold = Parallelism.threshold();
+		if (count <= threshold)
+			new TransformTask(m, points, src, srcOffset, srcStride, dst, dstOffset, dstStride, count, threshold)
+					.compute();
+		else
+			Parallelism.pool().invoke(
+					new TransformTask(m, points, src, srcOffset, srcStride, dst, dstOffset, dstStride, count, threshold));
+		return dst;
+	}
+
+	@Override
+	protected void compute() {
+		if (count <= threshold) {
+			if (points)
+				m.transformPoints(src, srcOffset, srcStride, dst, dstOffset, dstStride, count);
+			else
+				m.transformDirections(src, srcOffset, srcStride, dst, dstOffset, dstStride, count);
+			return;
+		}
+		final int half = count >>> 1;
+		invokeAll(new TransformTask(m, points, src, srcOffset, srcStride, dst, dstOffset, dstStride, half, threshold),
+				new TransformTask(m, points, src, srcOffset + half * srcStride, srcStride, dst,
+						dstOffset + half * dstStride, dstStride, count - half, threshold));
+	}
+}
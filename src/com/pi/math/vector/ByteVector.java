@@ -24,11 +24,8 @@ public class ByteVector extends Vector {
 	protected ByteVector(ByteBuffer data, int offset, int dim) {
 		if (offset == 0)
 			backer = data;
-		else {
-			data.position(offset);
-			data.limit(offset + dim);
-			backer = data.slice();
-		}
+		else
+			backer = data.slice(offset, dim);
 		dimension = dim;
 	}
 
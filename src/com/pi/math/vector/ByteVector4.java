@@ -54,4 +54,152 @@ public class ByteVector4 extends ByteVector {
 		setB(3, a);
 		return this;
 	}
+
+	// Unrolled forms of the Vector operations.
+
+	@Override
+	public ByteVector4 add(Vector r) {
+		if (r.dimension() < 4) {
+			super.add(r);
+			return this;
+		}
+		set(0, get(0) + r.get(0));
+		set(1, get(1) + r.get(1));
+		set(2, get(2) + r.get(2));
+		set(3, get(3) + r.get(3));
+		return this;
+	}
+
+	@Override
+	public float distSquared(Vector t) {
+		if (t.dimension() < 4)
+			return super.distSquared(t);
+		final float d0 = get(0) - t.get(0);
+		final float d1 = get(1) - t.get(1);
+		final float d2 = get(2) - t.get(2);
+		final float d3 = get(3) - t.get(3);
+		return d0 * d0 + d1 * d1 + d2 * d2 + d3 * d3;
+	}
+
+	@Override
+	public float dot(Vector v) {
+		return get(0) * v.get(0) + get(1) * v.get(1) + get(2) * v.get(2) + get(3) * v.get(3);
+	}
+
+	@Override
+	public ByteVector4 linearComb(Vector a, float aC, Vector b, float bC) {
+		if (a.dimension() < 4 || b.dimension() < 4) {
+			super.linearComb(a, aC, b, bC);
+			return this;
+		}
+		set(0, a.get(0) * aC + b.get(0) * bC);
+		set(1, a.get(1) * aC + b.get(1) * bC);
+		set(2, a.get(2) * aC + b.get(2) * bC);
+		set(3, a.get(3) * aC + b.get(3) * bC);
+		return this;
+	}
+
+	@Override
+	public ByteVector4 linearComb(Vector a, float aC, Vector b, float bC, Vector c, float cC) {
+		if (a.dimension() < 4 || b.dimension() < 4 || c.dimension() < 4) {
+			super.linearComb(a, aC, b, bC, c, cC);
+			return this;
+		}
+		set(0, a.get(0) * aC + b.get(0) * bC + c.get(0) * cC);
+		set(1, a.get(1) * aC + b.get(1) * bC + c.get(1) * cC);
+		set(2, a.get(2) * aC + b.get(2) * bC + c.get(2) * cC);
+		set(3, a.get(3) * aC + b.get(3) * bC + c.get(3) * cC);
+		return this;
+	}
+
+	@Override
+	public ByteVector4 linearComb(Vector a, float aC, Vector b, float bC, Vector c, float cC, Vector d, float dC) {
+		if (a.dimension() < 4 || b.dimension() < 4 || c.dimension() < 4 || d.dimension() < 4) {
+			super.linearComb(a, aC, b, bC, c, cC, d, dC);
+			return this;
+		}
+		set(0, a.get(0) * aC + b.get(0) * bC + c.get(0) * cC + d.get(0) * dC);
+		set(1, a.get(1) * aC + b.get(1) * bC + c.get(1) * cC + d.get(1) * dC);
+		set(2, a.get(2) * aC + b.get(2) * bC + c.get(2) * cC + d.get(2) * dC);
+		set(3, a.get(3) * aC + b.get(3) * bC + c.get(3) * cC + d.get(3) * dC);
+		return this;
+	}
+
+	@Override
+	public float mag2() {
+		final float c0 = get(0), c1 = get(1), c2 = get(2), c3 = get(3);
+		return c0 * c0 + c1 * c1 + c2 * c2 + c3 * c3;
+	}
+
+	@Override
+	public float maxCV() {
+		return Math.max(Math.max(Math.max(get(0), get(1)), get(2)), get(3));
+	}
+
+	@Override
+	public float minCV() {
+		return Math.min(Math.min(Math.min(get(0), get(1)), get(2)), get(3));
+	}
+
+	@Override
+	public ByteVector4 multiply(float f) {
+		set(0, get(0) * f);
+		set(1, get(1) * f);
+		set(2, get(2) * f);
+		set(3, get(3) * f);
+		return this;
+	}
+
+	@Override
+	public ByteVector4 multiplyComponents(Vector r) {
+		if (r.dimension() < 4) {
+			super.multiplyComponents(r);
+			return this;
+		}
+		set(0, get(0) * r.get(0));
+		set(1, get(1) * r.get(1));
+		set(2, get(2) * r.get(2));
+		set(3, get(3) * r.get(3));
+		return this;
+	}
+
+	@Override
+	public ByteVector4 negate(Vector v) {
+		set(0, -v.get(0));
+		set(1, -v.get(1));
+		set(2, -v.get(2));
+		set(3, -v.get(3));
+		return this;
+	}
+
+	@Override
+	public ByteVector4 scale(float f, Vector v) {
+		set(0, f * v.get(0));
+		set(1, f * v.get(1));
+		set(2, f * v.get(2));
+		set(3, f * v.get(3));
+		return this;
+	}
+
+	@Override
+	public ByteVector4 set(Vector t) {
+		set(0, t.get(0));
+		set(1, t.get(1));
+		set(2, t.get(2));
+		set(3, t.get(3));
+		return this;
+	}
+
+	@Override
+	public ByteVector4 subtract(Vector r) {
+		if (r.dimension() < 4) {
+			super.subtract(r);
+			return this;
+		}
+		set(0, get(0) - r.get(0));
+		set(1, get(1) - r.get(1));
+		set(2, get(2) - r.get(2));
+		set(3, get(3) - r.get(3));
+		return this;
+	}
 }
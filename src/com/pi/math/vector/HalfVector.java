@@ -0,0 +1,110 @@
+package com.pi.math.vector;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+import com.pi.math.BufferProvider;
+
+/**
+ * Vector stored as IEEE 754 binary16 halves, two bytes per component, in the
+ * byte order of the backing buffer. Conversions round to nearest even.
+ */
+public class HalfVector extends Vector {
+	private final ByteBuffer backer;
+	private final int dimension;
+
+	public HalfVector(ByteBuffer data, int offset, int dim) {
+		this.backer = data.slice(offset, dim * 2).order(data.order());
+		this.dimension = dim;
+	}
+
+	public HalfVector(int dim) {
+		this(BufferProvider.createByteBuffer(dim * 2).order(ByteOrder.nativeOrder()), 0, dim);
+	}
+
+	/**
+	 * @return the half nearest to f; out of range values become infinities
+	 */
+	public static short toHalf(float f) {
+		final int bits = Float.floatToRawIntBits(f);
+		final int sign = (bits >>> 16) & 0x8000;
+		final int val = bits & 0x7FFFFFFF;
+		if (val >= 0x47800000) {
+			if (val > 0x7F800000)
+				return (short) (sign | 0x7E00);
+			return (short) (sign | 0x7C00);
+		}
+		if (val < 0x38800000) {
+			// Subnormal half: value = m * 2^-24
+			if (val < 0x33000000)
+				return (short) sign;
+			final int shift = 126 - (val >>> 23);
+			final int mant = (val & 0x7FFFFF) | 0x800000;
+			int h = mant >>> shift;
+			final int rem = mant & ((1 << shift) - 1), half = 1 << (shift - 1);
+			if (rem > half || (rem == half && (h & 1) != 0))
+				h++;
+			return (short) (sign | h);
+		}
+		// Rebias the exponent from 127 to 15; a carry out of the mantissa
+		// correctly bumps the exponent, up to infinity.
+		int h = (val - 0x38000000) >>> 13;
+		final int rem = val & 0x1FFF;
+		if (rem > 0x1000 || (rem == 0x1000 && (h & 1) != 0))
+			h++;
+		return (short) (sign | h);
+	}
+
+	public static float toFloat(short s) {
+		final int h = s & 0xFFFF;
+		final int sign = (h & 0x8000) << 16;
+		final int exp = (h >>> 10) & 0x1F;
+		final int mant = h & 0x3FF;
+		if (exp == 0) {
+			final float v = mant * 0x1p-24f;
+			return sign != 0 ? -v : v;
+		}
+		if (exp == 0x1F)
+			return Float.intBitsToFloat(sign | 0x7F800000 | (mant << 13));
+		return Float.intBitsToFloat(sign | ((exp + 112) << 23) | (mant << 13));
+	}
+
+	/**
+	 * Converts count floats starting at src[srcOff] into halves starting at
+	 * byte dstOff of dst. Buffer positions are not changed.
+	 */
+	public static void pack(FloatBuffer src, int srcOff, ByteBuffer dst, int dstOff, int count) {
+		for (int i = 0; i < count; i++)
+			dst.putShort(dstOff + i * 2, toHalf(src.get(srcOff + i)));
+	}
+
+	/**
+	 * Converts count halves starting at byte srcOff of src into floats starting
+	 * at dst[dstOff]. Buffer positions are not changed.
+	 */
+	public static void unpack(ByteBuffer src, int srcOff, FloatBuffer dst, int dstOff, int count) {
+		for (int i = 0; i < count; i++)
+			dst.put(dstOff + i, toFloat(src.getShort(srcOff + i * 2)));
+	}
+
+	@Override
+	public int dimension() {
+		return dimension;
+	}
+
+	@Override
+	public float get(int d) {
+		return toFloat(backer.getShort(d * 2));
+	}
+
+	public ByteBuffer getAccessor() {
+		backer.position(0);
+		return backer;
+	}
+
+	@Override
+	public void set(int d, float r) {
+		backer.putShort(d * 2, toHalf(r));
+	}
+}
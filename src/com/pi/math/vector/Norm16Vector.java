@@ -0,0 +1,82 @@
+package com.pi.math.vector;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+import com.pi.math.BufferProvider;
+
+/**
+ * Vector stored as 16-bit normalized integers: signed maps [-1, 1] onto
+ * [-32767, 32767], unsigned maps [0, 1] onto [0, 65535]. Values outside the
+ * range are clamped.
+ */
+public class Norm16Vector extends Vector {
+	private final ByteBuffer backer;
+	private final int dimension;
+	private final boolean signed;
+
+	public Norm16Vector(ByteBuffer data, int offset, int dim, boolean signed) {
+		this.backer = data.slice(offset, dim * 2).order(data.order());
+		this.dimension = dim;
+		this.signed = signed;
+	}
+
+	public Norm16Vector(int dim, boolean signed) {
+		this(BufferProvider.createByteBuffer(dim * 2).order(ByteOrder.nativeOrder()), 0, dim, signed);
+	}
+
+	public static short encode(float f, boolean signed) {
+		if (signed)
+			return (short) Math.round(Math.max(-1, Math.min(1, f)) * 32767);
+		return (short) Math.round(Math.max(0, Math.min(1, f)) * 65535);
+	}
+
+	public static float decode(short s, boolean signed) {
+		if (signed)
+			return Math.max(s / 32767f, -1);
+		return (s & 0xFFFF) / 65535f;
+	}
+
+	/**
+	 * Encodes count floats starting at src[srcOff] into shorts starting at byte
+	 * dstOff of dst. Buffer positions are not changed.
+	 */
+	public static void pack(FloatBuffer src, int srcOff, ByteBuffer dst, int dstOff, int count, boolean signed) {
+		for (int i = 0; i < count; i++)
+			dst.putShort(dstOff + i * 2, encode(src.get(srcOff + i), signed));
+	}
+
+	/**
+	 * Decodes count shorts starting at byte srcOff of src into floats starting
+	 * at dst[dstOff]. Buffer positions are not changed.
+	 */
+	public static void unpack(ByteBuffer src, int srcOff, FloatBuffer dst, int dstOff, int count, boolean signed) {
+		for (int i = 0; i < count; i++)
+			dst.put(dstOff + i, decode(src.getShort(srcOff + i * 2), signed));
+	}
+
+	@Override
+	public int dimension() {
+		return dimension;
+	}
+
+	@Override
+	public float get(int d) {
+		return decode(backer.getShort(d * 2), signed);
+	}
+
+	public ByteBuffer getAccessor() {
+		backer.position(0);
+		return backer;
+	}
+
+	public boolean isSigned() {
+		return signed;
+	}
+
+	@Override
+	public void set(int d, float r) {
+		backer.putShort(d * 2, encode(r, signed));
+	}
+}
@@ -0,0 +1,231 @@
+package com.pi.math.vector;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+import com.pi.math.BufferProvider;
+
+/**
+ * Unit 3-vector stored as an octahedral map in two 16-bit snorm values, four
+ * bytes in all. Writes project the vector onto the unit sphere, so this suits
+ * normals and tangents only. Every read decodes the whole vector; use
+ * {@link #unpack} for bulk access.
+ * <p>
+ * Every write renormalizes, so {@link #set(int, float)} and the operations
+ * built on it ({@link #mod}, {@link #mul}) change the other components too.
+ * The whole-vector operations ({@link #add(Vector)}, {@link #linearComb},
+ * {@link #multiply(float)} and so on) compute all three components first and
+ * then encode once.
+ */
+public class OctahedralVector extends Vector {
+	private final ByteBuffer backer;
+
+	public OctahedralVector(ByteBuffer data, int offset) {
+		this.backer = data.slice(offset, 4).order(data.order());
+	}
+
+	public OctahedralVector() {
+		this(BufferProvider.createByteBuffer(4).order(ByteOrder.nativeOrder()), 0);
+	}
+
+	private static float signNotZero(float f) {
+		return f >= 0 ? 1 : -1;
+	}
+
+	/**
+	 * @return the octahedral encoding of (x, y, z), u in the low 16 bits and v
+	 *         in the high 16 bits. The zero vector encodes as +z.
+	 */
+	public static int encode(float x, float y, float z) {
+		final float l1 = Math.abs(x) + Math.abs(y) + Math.abs(z);
+		float u = 0, v = 0;
+		if (l1 > 0) {
+			u = x / l1;
+			v = y / l1;
+			if (z < 0) {
+				final float fu = (1 - Math.abs(v)) * signNotZero(u);
+				v = (1 - Math.abs(u)) * signNotZero(v);
+				u = fu;
+			}
+		}
+		return (Norm16Vector.encode(u, true) & 0xFFFF) | (Norm16Vector.encode(v, true) << 16);
+	}
+
+	/**
+	 * Decodes a word from {@link #encode} into out[off, off + 3).
+	 */
+	public static void decode(int word, float[] out, int off) {
+		final float u = Norm16Vector.decode((short) word, true);
+		final float v = Norm16Vector.decode((short) (word >>> 16), true);
+		float x = u, y = v;
+		final float z = 1 - Math.abs(u) - Math.abs(v);
+		if (z < 0) {
+			x = (1 - Math.abs(v)) * signNotZero(u);
+			y = (1 - Math.abs(u)) * signNotZero(v);
+		}
+		final float inv = 1 / (float) Math.sqrt(x * x + y * y + z * z);
+		out[off] = x * inv;
+		out[off + 1] = y * inv;
+		out[off + 2] = z * inv;
+	}
+
+	// Component d of decode(word), without an output array.
+	private static float component(int word, int d) {
+		final float u = Norm16Vector.decode((short) word, true);
+		final float v = Norm16Vector.decode((short) (word >>> 16), true);
+		float x = u, y = v;
+		final float z = 1 - Math.abs(u) - Math.abs(v);
+		if (z < 0) {
+			x = (1 - Math.abs(v)) * signNotZero(u);
+			y = (1 - Math.abs(u)) * signNotZero(v);
+		}
+		final float inv = 1 / (float) Math.sqrt(x * x + y * y + z * z);
+		switch (d) {
+		case 0:
+			return x * inv;
+		case 1:
+			return y * inv;
+		case 2:
+			return z * inv;
+		default:
+			throw new IndexOutOfBoundsException("Dimension " + d);
+		}
+	}
+
+	// Component d of v, or 0 past its end.
+	private static float or0(Vector v, int d) {
+		return d < v.dimension() ? v.get(d) : 0;
+	}
+
+	/**
+	 * Encodes count xyz triples starting at src[srcOff] into words starting at
+	 * byte dstOff of dst. Buffer positions are not changed.
+	 */
+	public static void pack(FloatBuffer src, int srcOff, ByteBuffer dst, int dstOff, int count) {
+		for (int i = 0; i < count; i++) {
+			final int s = srcOff + i * 3;
+			dst.putInt(dstOff + i * 4, encode(src.get(s), src.get(s + 1), src.get(s + 2)));
+		}
+	}
+
+	/**
+	 * Decodes count words starting at byte srcOff of src into unit xyz triples
+	 * starting at dst[dstOff]. Buffer positions are not changed.
+	 */
+	public static void unpack(ByteBuffer src, int srcOff, FloatBuffer dst, int dstOff, int count) {
+		final float[] t = new float[3];
+		for (int i = 0; i < count; i++) {
+			decode(src.getInt(srcOff + i * 4), t, 0);
+			final int o = dstOff + i * 3;
+			dst.put(o, t[0]);
+			dst.put(o + 1, t[1]);
+			dst.put(o + 2, t[2]);
+		}
+	}
+
+	@Override
+	public int dimension() {
+		return 3;
+	}
+
+	@Override
+	public float get(int d) {
+		return component(backer.getInt(0), d);
+	}
+
+	public ByteBuffer getAccessor() {
+		backer.position(0);
+		return backer;
+	}
+
+	/**
+	 * Replaces component d and renormalizes, so the others change as well.
+	 */
+	@Override
+	public void set(int d, float r) {
+		if (d < 0 || d >= 3)
+			throw new IndexOutOfBoundsException("Dimension " + d);
+		final int word = backer.getInt(0);
+		final float x = d == 0 ? r : component(word, 0);
+		final float y = d == 1 ? r : component(word, 1);
+		final float z = d == 2 ? r : component(word, 2);
+		backer.putInt(0, encode(x, y, z));
+	}
+
+	public OctahedralVector set(float x, float y, float z) {
+		backer.putInt(0, encode(x, y, z));
+		return this;
+	}
+
+	/**
+	 * There is no zero unit vector; this stores +z, which is what the zero
+	 * vector encodes as.
+	 */
+	@Override
+	public OctahedralVector zero() {
+		return set(0, 0, 0);
+	}
+
+	@Override
+	public OctahedralVector set(Vector t) {
+		return set(or0(t, 0), or0(t, 1), or0(t, 2));
+	}
+
+	@Override
+	public OctahedralVector setV(float... components) {
+		final int n = components.length;
+		return set(n > 0 ? components[0] : get(0), n > 1 ? components[1] : get(1), n > 2 ? components[2] : get(2));
+	}
+
+	@Override
+	public OctahedralVector add(Vector r) {
+		return set(get(0) + or0(r, 0), get(1) + or0(r, 1), get(2) + or0(r, 2));
+	}
+
+	@Override
+	public OctahedralVector subtract(Vector r) {
+		return set(get(0) - or0(r, 0), get(1) - or0(r, 1), get(2) - or0(r, 2));
+	}
+
+	@Override
+	public OctahedralVector linearComb(Vector a, float aC, Vector b, float bC) {
+		return set(or0(a, 0) * aC + or0(b, 0) * bC, or0(a, 1) * aC + or0(b, 1) * bC,
+				or0(a, 2) * aC + or0(b, 2) * bC);
+	}
+
+	@Override
+	public OctahedralVector linearComb(Vector a, float aC, Vector b, float bC, Vector c, float cC) {
+		return set(or0(a, 0) * aC + or0(b, 0) * bC + or0(c, 0) * cC,
+				or0(a, 1) * aC + or0(b, 1) * bC + or0(c, 1) * cC, or0(a, 2) * aC + or0(b, 2) * bC + or0(c, 2) * cC);
+	}
+
+	@Override
+	public OctahedralVector linearComb(Vector a, float aC, Vector b, float bC, Vector c, float cC, Vector d,
+			float dC) {
+		return set(or0(a, 0) * aC + or0(b, 0) * bC + or0(c, 0) * cC + or0(d, 0) * dC,
+				or0(a, 1) * aC + or0(b, 1) * bC + or0(c, 1) * cC + or0(d, 1) * dC,
+				or0(a, 2) * aC + or0(b, 2) * bC + or0(c, 2) * cC + or0(d, 2) * dC);
+	}
+
+	@Override
+	public OctahedralVector multiply(float f) {
+		return set(get(0) * f, get(1) * f, get(2) * f);
+	}
+
+	@Override
+	public OctahedralVector multiplyComponents(Vector r) {
+		return set(get(0) * (r.dimension() > 0 ? r.get(0) : 1), get(1) * (r.dimension() > 1 ? r.get(1) : 1),
+				get(2) * (r.dimension() > 2 ? r.get(2) : 1));
+	}
+
+	@Override
+	public OctahedralVector negate(Vector v) {
+		return set(-or0(v, 0), -or0(v, 1), -or0(v, 2));
+	}
+
+	@Override
+	public OctahedralVector scale(float f, Vector v) {
+		return set(f * or0(v, 0), f * or0(v, 1), f * or0(v, 2));
+	}
+}
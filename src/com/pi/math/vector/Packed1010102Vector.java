@@ -0,0 +1,116 @@
+package com.pi.math.vector;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+import com.pi.math.BufferProvider;
+
+/**
+ * Four components packed into one 32-bit word: x, y and z in 10 bits each
+ * from the low end, w in the top 2 bits. This is the
+ * {@code UNSIGNED_INT_2_10_10_10_REV} / {@code INT_2_10_10_10_REV} vertex
+ * layout. Signed components are snorm (x, y, z in [-511, 511], w in [-1, 1]),
+ * unsigned are unorm.
+ */
+public class Packed1010102Vector extends Vector {
+	private final ByteBuffer backer;
+	private final boolean signed;
+
+	public Packed1010102Vector(ByteBuffer data, int offset, boolean signed) {
+		this.backer = data.slice(offset, 4).order(data.order());
+		this.signed = signed;
+	}
+
+	public Packed1010102Vector(boolean signed) {
+		this(BufferProvider.createByteBuffer(4).order(ByteOrder.nativeOrder()), 0, signed);
+	}
+
+	private static int bits(int d) {
+		return d == 3 ? 2 : 10;
+	}
+
+	private static int encode(float f, int bits, boolean signed) {
+		final int mask = (1 << bits) - 1;
+		if (signed) {
+			final int max = mask >>> 1;
+			return Math.round(Math.max(-1, Math.min(1, f)) * max) & mask;
+		}
+		return Math.round(Math.max(0, Math.min(1, f)) * mask);
+	}
+
+	private static float decode(int word, int d, boolean signed) {
+		final int bits = bits(d), shift = d * 10;
+		if (signed) {
+			final int v = (word << (32 - shift - bits)) >> (32 - bits);
+			return Math.max(v / (float) ((1 << (bits - 1)) - 1), -1);
+		}
+		return ((word >>> shift) & ((1 << bits) - 1)) / (float) ((1 << bits) - 1);
+	}
+
+	public static int pack(float x, float y, float z, float w, boolean signed) {
+		return encode(x, 10, signed) | (encode(y, 10, signed) << 10) | (encode(z, 10, signed) << 20)
+				| (encode(w, 2, signed) << 30);
+	}
+
+	/**
+	 * Packs count xyzw quadruples starting at src[srcOff] into words starting
+	 * at byte dstOff of dst. Buffer positions are not changed.
+	 */
+	public static void pack(FloatBuffer src, int srcOff, ByteBuffer dst, int dstOff, int count, boolean signed) {
+		for (int i = 0; i < count; i++) {
+			final int s = srcOff + i * 4;
+			dst.putInt(dstOff + i * 4, pack(src.get(s), src.get(s + 1), src.get(s + 2), src.get(s + 3), signed));
+		}
+	}
+
+	/**
+	 * Unpacks count words starting at byte srcOff of src into xyzw quadruples
+	 * starting at dst[dstOff]. Buffer positions are not changed.
+	 */
+	public static void unpack(ByteBuffer src, int srcOff, FloatBuffer dst, int dstOff, int count, boolean signed) {
+		for (int i = 0; i < count; i++) {
+			final int word = src.getInt(srcOff + i * 4), o = dstOff + i * 4;
+			for (int d = 0; d < 4; d++)
+				dst.put(o + d, decode(word, d, signed));
+		}
+	}
+
+	@Override
+	public int dimension() {
+		return 4;
+	}
+
+	@Override
+	public float get(int d) {
+		return decode(backer.getInt(0), d, signed);
+	}
+
+	public ByteBuffer getAccessor() {
+		backer.position(0);
+		return backer;
+	}
+
+	public boolean isSigned() {
+		return signed;
+	}
+
+	@Override
+	public void set(int d, float r) {
+		final int bits = bits(d), shift = d * 10;
+		final int mask = ((1 << bits) - 1) << shift;
+		backer.putInt(0, (backer.getInt(0) & ~mask) | (encode(r, bits, signed) << shift));
+	}
+
+	public Packed1010102Vector set(float x, float y, float z, float w) {
+		backer.putInt(0, pack(x, y, z, w, signed));
+		return this;
+	}
+
+	@Override
+	public Vector set(Vector t) {
+		if (t.dimension() < 4)
+			return super.set(t);
+		return set(t.get(0), t.get(1), t.get(2), t.get(3));
+	}
+}
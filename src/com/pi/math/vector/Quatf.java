@@ -0,0 +1,122 @@
+package com.pi.math.vector;
+
+import com.pi.math.FastMath;
+
+/**
+ * Immutable rotation quaternion; see {@link Vec3f}. Converts to and from the
+ * {@code <w,x,y,z>} 4D vectors used by {@link Quaternion}.
+ */
+public final class Quatf {
+	public static final Quatf IDENTITY = new Quatf(1, 0, 0, 0);
+
+	public final float w, x, y, z;
+
+	public Quatf(float w, float x, float y, float z) {
+		this.w = w;
+		this.x = x;
+		this.y = y;
+		this.z = z;
+	}
+
+	/**
+	 * @param angle radians
+	 * @param axis unit rotation axis
+	 */
+	public static Quatf axisAngle(float angle, Vec3f axis) {
+		final float s = (float) Math.sin(angle / 2);
+		return new Quatf((float) Math.cos(angle / 2), axis.x * s, axis.y * s, axis.z * s);
+	}
+
+	/**
+	 * @return the quaternion stored as {@code <w,x,y,z>} in q
+	 */
+	public static Quatf of(Vector q) {
+		return new Quatf(q.get(0), q.get(1), q.get(2), q.get(3));
+	}
+
+	/**
+	 * Writes this quaternion into dest as {@code <w,x,y,z>}.
+	 */
+	public <T extends Vector> T into(T dest) {
+		dest.set(0, w);
+		dest.set(1, x);
+		dest.set(2, y);
+		dest.set(3, z);
+		return dest;
+	}
+
+	/**
+	 * @return the rotation that applies r first, then this
+	 */
+	public Quatf mul(Quatf r) {
+		return new Quatf(w * r.w - x * r.x - y * r.y - z * r.z, w * r.x + x * r.w + y * r.z - z * r.y,
+				w * r.y + y * r.w + z * r.x - x * r.z, w * r.z + z * r.w + x * r.y - y * r.x);
+	}
+
+	public Quatf conjugate() {
+		return new Quatf(w, -x, -y, -z);
+	}
+
+	public float dot(Quatf r) {
+		return w * r.w + x * r.x + y * r.y + z * r.z;
+	}
+
+	public Quatf normalize() {
+		final float s = FastMath.rsqrt(dot(this));
+		return new Quatf(w * s, x * s, y * s, z * s);
+	}
+
+	/**
+	 * Rotates v by this unit quaternion.
+	 */
+	public Vec3f transform(Vec3f v) {
+		// v + 2w(q x v) + 2q x (q x v)
+		final float tx = 2 * (y * v.z - z * v.y);
+		final float ty = 2 * (z * v.x - x * v.z);
+		final float tz = 2 * (x * v.y - y * v.x);
+		return new Vec3f(v.x + w * tx + y * tz - z * ty, v.y + w * ty + z * tx - x * tz,
+				v.z + w * tz + x * ty - y * tx);
+	}
+
+	/**
+	 * Spherical interpolation along the shorter arc.
+	 */
+	public Quatf slerp(Quatf to, float t) {
+		float cosTheta = dot(to);
+		float sign = 1;
+		if (cosTheta < 0) {
+			cosTheta = -cosTheta;
+			sign = -1;
+		}
+		float scale0 = 1 - t, scale1 = t;
+		if (1 - cosTheta > 0.1f) {
+			final float theta = (float) Math.acos(cosTheta);
+			final float sinTheta = (float) Math.sin(theta);
+			scale0 = (float) Math.sin(theta * (1 - t)) / sinTheta;
+			scale1 = (float) Math.sin(theta * t) / sinTheta;
+		}
+		scale1 *= sign;
+		return new Quatf(w * scale0 + to.w * scale1, x * scale0 + to.x * scale1, y * scale0 + to.y * scale1,
+				z * scale0 + to.z * scale1);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof Quatf))
+			return false;
+		Quatf q = (Quatf) o;
+		return Float.compare(w, q.w) == 0 && Float.compare(x, q.x) == 0 && Float.compare(y, q.y) == 0
+				&& Float.compare(z, q.z) == 0;
+	}
+
+	@Override
+	public int hashCode() {
+		return ((Float.floatToIntBits(w) * 31 + Float.floatToIntBits(x)) * 31 + Float.floatToIntBits(y)) * 31
+				+ Float.floatToIntBits(z);
+	}
+
+	@Override
+	public String toString() {
+		return "Quatf[" + w + "," + x + "," + y + "," + z + "]";
+	}
+}
@@ -0,0 +1,271 @@
+package com.pi.math.vector;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+/**
+ * A fixed-length array of 3D vectors stored as separate x, y and z arrays.
+ * The bulk operations are straight loops over those arrays, which C2
+ * auto-vectorizes; use them instead of looping over {@link VectorBuff3}s.
+ * Element-wise access without allocation goes through a
+ * {@link VectorBuff3.Cursor}.
+ * <p>
+ * Operations write into this array and return it. Operand arrays must be at
+ * least as long as this one, and may be this array.
+ */
+public final class Vec3Array {
+	public final float[] x, y, z;
+	private final int length;
+
+	public Vec3Array(int length) {
+		this.length = length;
+		this.x = new float[length];
+		this.y = new float[length];
+		this.z = new float[length];
+	}
+
+	/**
+	 * Reads count interleaved vectors, element i at offset + i * stride.
+	 */
+	public static Vec3Array fromInterleaved(FloatBuffer src, int offset, int stride, int count) {
+		return new Vec3Array(count).load(src, offset, stride);
+	}
+
+	public int length() {
+		return length;
+	}
+
+	/**
+	 * Fills this array from interleaved vectors, element i at offset + i *
+	 * stride. Uses absolute reads, so src's position is untouched.
+	 */
+	public Vec3Array load(FloatBuffer src, int offset, int stride) {
+		for (int i = 0, o = offset; i < length; i++, o += stride) {
+			x[i] = src.get(o);
+			y[i] = src.get(o + 1);
+			z[i] = src.get(o + 2);
+		}
+		return this;
+	}
+
+	/**
+	 * Writes this array out as interleaved vectors, element i at offset + i *
+	 * stride. Uses absolute writes, so dst's position is untouched.
+	 */
+	public FloatBuffer store(FloatBuffer dst, int offset, int stride) {
+		for (int i = 0, o = offset; i < length; i++, o += stride) {
+			dst.put(o, x[i]);
+			dst.put(o + 1, y[i]);
+			dst.put(o + 2, z[i]);
+		}
+		return dst;
+	}
+
+	public Vec3Array set(Vec3Array a) {
+		System.arraycopy(a.x, 0, x, 0, length);
+		System.arraycopy(a.y, 0, y, 0, length);
+		System.arraycopy(a.z, 0, z, 0, length);
+		return this;
+	}
+
+	public Vec3Array fill(float vx, float vy, float vz) {
+		Arrays.fill(x, vx);
+		Arrays.fill(y, vy);
+		Arrays.fill(z, vz);
+		return this;
+	}
+
+	/**
+	 * this = a + b
+	 */
+	public Vec3Array add(Vec3Array a, Vec3Array b) {
+		for (int i = 0; i < length; i++) {
+			x[i] = a.x[i] + b.x[i];
+			y[i] = a.y[i] + b.y[i];
+			z[i] = a.z[i] + b.z[i];
+		}
+		return this;
+	}
+
+	/**
+	 * this = a - b
+	 */
+	public Vec3Array sub(Vec3Array a, Vec3Array b) {
+		for (int i = 0; i < length; i++) {
+			x[i] = a.x[i] - b.x[i];
+			y[i] = a.y[i] - b.y[i];
+			z[i] = a.z[i] - b.z[i];
+		}
+		return this;
+	}
+
+	/**
+	 * this += s * a
+	 */
+	public Vec3Array scaleAdd(float s, Vec3Array a) {
+		for (int i = 0; i < length; i++) {
+			x[i] += s * a.x[i];
+			y[i] += s * a.y[i];
+			z[i] += s * a.z[i];
+		}
+		return this;
+	}
+
+	public Vec3Array multiply(float s) {
+		for (int i = 0; i < length; i++) {
+			x[i] *= s;
+			y[i] *= s;
+			z[i] *= s;
+		}
+		return this;
+	}
+
+	/**
+	 * this = a x b
+	 */
+	public Vec3Array cross(Vec3Array a, Vec3Array b) {
+		for (int i = 0; i < length; i++) {
+			final float ax = a.x[i], ay = a.y[i], az = a.z[i];
+			final float bx = b.x[i], by = b.y[i], bz = b.z[i];
+			x[i] = ay * bz - az * by;
+			y[i] = az * bx - ax * bz;
+			z[i] = ax * by - ay * bx;
+		}
+		return this;
+	}
+
+	/**
+	 * Scales every element to unit length. Zero vectors become NaN, as with
+	 * {@link Vector#normalize()}.
+	 */
+	public Vec3Array normalize() {
+		for (int i = 0; i < length; i++) {
+			final float s = 1 / (float) Math.sqrt(x[i] * x[i] + y[i] * y[i] + z[i] * z[i]);
+			x[i] *= s;
+			y[i] *= s;
+			z[i] *= s;
+		}
+		return this;
+	}
+
+	/**
+	 * dest[i] = this[i] . a[i]
+	 */
+	public float[] dot(Vec3Array a, float[] dest) {
+		for (int i = 0; i < length; i++)
+			dest[i] = x[i] * a.x[i] + y[i] * a.y[i] + z[i] * a.z[i];
+		return dest;
+	}
+
+	/**
+	 * dest[i] = |this[i] - a[i]|^2
+	 */
+	public float[] distSquared(Vec3Array a, float[] dest) {
+		for (int i = 0; i < length; i++) {
+			final float dx = x[i] - a.x[i], dy = y[i] - a.y[i], dz = z[i] - a.z[i];
+			dest[i] = dx * dx + dy * dy + dz * dz;
+		}
+		return dest;
+	}
+
+	/**
+	 * dest[i] = |this[i] - p|^2
+	 */
+	public float[] distSquared(float px, float py, float pz, float[] dest) {
+		for (int i = 0; i < length; i++) {
+			final float dx = x[i] - px, dy = y[i] - py, dz = z[i] - pz;
+			dest[i] = dx * dx + dy * dy + dz * dz;
+		}
+		return dest;
+	}
+
+	/**
+	 * @return the component-wise minimum over all elements
+	 */
+	public Vec3f min() {
+		return new Vec3f(min(x, length), min(y, length), min(z, length));
+	}
+
+	/**
+	 * @return the component-wise maximum over all elements
+	 */
+	public Vec3f max() {
+		return new Vec3f(max(x, length), max(y, length), max(z, length));
+	}
+
+	private static float min(float[] a, int n) {
+		float m = Float.POSITIVE_INFINITY;
+		for (int i = 0; i < n; i++)
+			m = Math.min(m, a[i]);
+		return m;
+	}
+
+	private static float max(float[] a, int n) {
+		float m = Float.NEGATIVE_INFINITY;
+		for (int i = 0; i < n; i++)
+			m = Math.max(m, a[i]);
+		return m;
+	}
+
+	/**
+	 * @return a new cursor over this array, positioned at element 0
+	 */
+	public VectorBuff3.Cursor cursor() {
+		return new ArrayCursor(this);
+	}
+
+	private static final class ArrayCursor extends VectorBuff3.Cursor {
+		private final Vec3Array array;
+
+		private ArrayCursor(Vec3Array array) {
+			this.array = array;
+		}
+
+		@Override
+		public ArrayCursor at(int i) {
+			if (i < 0 || i >= array.length)
+				throw new IndexOutOfBoundsException("Index " + i + " out of bounds for length " + array.length);
+			index = i;
+			return this;
+		}
+
+		@Override
+		public float get(int d) {
+			switch (d) {
+			case 0:
+				return array.x[index];
+			case 1:
+				return array.y[index];
+			case 2:
+				return array.z[index];
+			default:
+				throw new IndexOutOfBoundsException("Dimension " + d);
+			}
+		}
+
+		@Override
+		public void set(int d, float f) {
+			switch (d) {
+			case 0:
+				array.x[index] = f;
+				break;
+			case 1:
+				array.y[index] = f;
+				break;
+			case 2:
+				array.z[index] = f;
+				break;
+			default:
+				throw new IndexOutOfBoundsException("Dimension " + d);
+			}
+		}
+
+		@Override
+		public ArrayCursor set(float x, float y, float z) {
+			array.x[index] = x;
+			array.y[index] = y;
+			array.z[index] = z;
+			return this;
+		}
+	}
+}
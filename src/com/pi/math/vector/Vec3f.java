@@ -0,0 +1,115 @@
+package com.pi.math.vector;
+
+import com.pi.math.FastMath;
+
+/**
+ * Immutable 3D vector. Every operation returns a new instance; short-lived
+ * results that don't escape are scalar-replaced by the JIT, so chains of these
+ * need neither {@link com.pi.math.Heap} nor check-in.
+ */
+public final class Vec3f {
+	public static final Vec3f ZERO = new Vec3f(0, 0, 0);
+
+	public final float x, y, z;
+
+	public Vec3f(float x, float y, float z) {
+		this.x = x;
+		this.y = y;
+		this.z = z;
+	}
+
+	/**
+	 * @return the first three components of v
+	 */
+	public static Vec3f of(Vector v) {
+		return new Vec3f(v.get(0), v.get(1), v.get(2));
+	}
+
+	public static Vec3f of(VectorBuff3 v) {
+		return new Vec3f(v.get(0), v.get(1), v.get(2));
+	}
+
+	/**
+	 * Writes this vector into dest.
+	 */
+	public <T extends Vector> T into(T dest) {
+		dest.set(0, x);
+		dest.set(1, y);
+		dest.set(2, z);
+		return dest;
+	}
+
+	public Vec3f add(Vec3f r) {
+		return new Vec3f(x + r.x, y + r.y, z + r.z);
+	}
+
+	public Vec3f sub(Vec3f r) {
+		return new Vec3f(x - r.x, y - r.y, z - r.z);
+	}
+
+	public Vec3f mul(float f) {
+		return new Vec3f(x * f, y * f, z * f);
+	}
+
+	public Vec3f mul(Vec3f r) {
+		return new Vec3f(x * r.x, y * r.y, z * r.z);
+	}
+
+	/**
+	 * @return this + r * f
+	 */
+	public Vec3f addScaled(Vec3f r, float f) {
+		return new Vec3f(x + r.x * f, y + r.y * f, z + r.z * f);
+	}
+
+	public Vec3f negate() {
+		return new Vec3f(-x, -y, -z);
+	}
+
+	public float dot(Vec3f r) {
+		return x * r.x + y * r.y + z * r.z;
+	}
+
+	public Vec3f cross(Vec3f r) {
+		return new Vec3f(y * r.z - z * r.y, z * r.x - x * r.z, x * r.y - y * r.x);
+	}
+
+	public float mag2() {
+		return x * x + y * y + z * z;
+	}
+
+	public float mag() {
+		return (float) Math.sqrt(mag2());
+	}
+
+	public float dist2(Vec3f r) {
+		final float dx = x - r.x, dy = y - r.y, dz = z - r.z;
+		return dx * dx + dy * dy + dz * dz;
+	}
+
+	public Vec3f normalize() {
+		return mul(FastMath.rsqrt(mag2()));
+	}
+
+	public Vec3f lerp(Vec3f to, float t) {
+		return new Vec3f(x + (to.x - x) * t, y + (to.y - y) * t, z + (to.z - z) * t);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof Vec3f))
+			return false;
+		Vec3f v = (Vec3f) o;
+		return Float.compare(x, v.x) == 0 && Float.compare(y, v.y) == 0 && Float.compare(z, v.z) == 0;
+	}
+
+	@Override
+	public int hashCode() {
+		return (Float.floatToIntBits(x) * 31 + Float.floatToIntBits(y)) * 31 + Float.floatToIntBits(z);
+	}
+
+	@Override
+	public String toString() {
+		return "Vec3f[" + x + "," + y + "," + z + "]";
+	}
+}
@@ -0,0 +1,113 @@
+package com.pi.math.vector;
+
+import com.pi.math.FastMath;
+
+/**
+ * Immutable 4D vector; see {@link Vec3f}.
+ */
+public final class Vec4f {
+	public static final Vec4f ZERO = new Vec4f(0, 0, 0, 0);
+
+	public final float x, y, z, w;
+
+	public Vec4f(float x, float y, float z, float w) {
+		this.x = x;
+		this.y = y;
+		this.z = z;
+		this.w = w;
+	}
+
+	public Vec4f(Vec3f v, float w) {
+		this(v.x, v.y, v.z, w);
+	}
+
+	/**
+	 * @return the first four components of v
+	 */
+	public static Vec4f of(Vector v) {
+		return new Vec4f(v.get(0), v.get(1), v.get(2), v.get(3));
+	}
+
+	public static Vec4f of(VectorBuff4 v) {
+		return new Vec4f(v.get(0), v.get(1), v.get(2), v.get(3));
+	}
+
+	/**
+	 * Writes this vector into dest.
+	 */
+	public <T extends Vector> T into(T dest) {
+		dest.set(0, x);
+		dest.set(1, y);
+		dest.set(2, z);
+		dest.set(3, w);
+		return dest;
+	}
+
+	public Vec4f add(Vec4f r) {
+		return new Vec4f(x + r.x, y + r.y, z + r.z, w + r.w);
+	}
+
+	public Vec4f sub(Vec4f r) {
+		return new Vec4f(x - r.x, y - r.y, z - r.z, w - r.w);
+	}
+
+	public Vec4f mul(float f) {
+		return new Vec4f(x * f, y * f, z * f, w * f);
+	}
+
+	public Vec4f mul(Vec4f r) {
+		return new Vec4f(x * r.x, y * r.y, z * r.z, w * r.w);
+	}
+
+	public float dot(Vec4f r) {
+		return x * r.x + y * r.y + z * r.z + w * r.w;
+	}
+
+	public float mag2() {
+		return dot(this);
+	}
+
+	public float mag() {
+		return (float) Math.sqrt(mag2());
+	}
+
+	public Vec4f normalize() {
+		return mul(FastMath.rsqrt(mag2()));
+	}
+
+	public Vec4f lerp(Vec4f to, float t) {
+		return new Vec4f(x + (to.x - x) * t, y + (to.y - y) * t, z + (to.z - z) * t, w + (to.w - w) * t);
+	}
+
+	/**
+	 * @return x, y, z divided by w
+	 */
+	public Vec3f project() {
+		final float iw = 1 / w;
+		return new Vec3f(x * iw, y * iw, z * iw);
+	}
+
+	public Vec3f xyz() {
+		return new Vec3f(x, y, z);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof Vec4f))
+			return false;
+		Vec4f v = (Vec4f) o;
+		return Float.compare(x, v.x) == 0 && Float.compare(y, v.y) == 0 && Float.compare(z, v.z) == 0
+				&& Float.compare(w, v.w) == 0;
+	}
+
+	@Override
+	public int hashCode() {
+		return ((Float.floatToIntBits(x) * 31 + Float.floatToIntBits(y)) * 31 + Float.floatToIntBits(z)) * 31
+				+ Float.floatToIntBits(w);
+	}
+
+	@Override
+	public String toString() {
+		return "Vec4f[" + x + "," + y + "," + z + "," + w + "]";
+	}
+}
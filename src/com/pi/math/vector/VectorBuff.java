@@ -6,6 +6,9 @@ import com.pi.math.BufferProvider;
 
 public class VectorBuff extends Vector {
 	protected final FloatBuffer data;
+	// Backing array and index of element 0 for heap storage, else null.
+	protected final float[] array;
+	protected final int base;
 	private final int dimension;
 
 	public static VectorBuff make(FloatBuffer f, int off, int d) {
@@ -25,19 +28,26 @@ public class VectorBuff extends Vector {
 		return make(BufferProvider.createFloatBuffer(d), 0, d);
 	}
 
+	/**
+	 * @return a vector backed by a plain float array rather than a direct
+	 *         buffer
+	 */
+	public static VectorBuff makeOnHeap(int d) {
+		return make(BufferProvider.createHeapFloatBuffer(d), 0, d);
+	}
+
 	protected VectorBuff(FloatBuffer data, int offset, int dimension) {
 		this.dimension = dimension;
-		int ops = data.position();
-		int ol = data.limit();
-		data.position(offset);
-		data.limit(offset + dimension);
-		this.data = data.slice();
-		data.limit(ol);
-		data.position(ops);
+		// Absolute slice: leaves the source's position and limit alone.
+		this.data = data.slice(offset, dimension);
+		this.array = this.data.hasArray() ? this.data.array() : null;
+		this.base = this.data.hasArray() ? this.data.arrayOffset() : 0;
 	}
 
 	public VectorBuff(VectorBuff f, int dim) {
 		this.data = f.data;
+		this.array = f.array;
+		this.base = f.base;
 		this.dimension = dim;
 	}
 
@@ -48,7 +58,11 @@ public class VectorBuff extends Vector {
 
 	@Override
 	public final float get(int d) {
-		return data.get(d);
+		if (array == null)
+			return data.get(d);
+		if (d < 0 || d >= dimension)
+			throw new IndexOutOfBoundsException("Dimension " + d);
+		return array[base + d];
 	}
 
 	public FloatBuffer getAccessor() {
@@ -58,12 +72,21 @@ public class VectorBuff extends Vector {
 
 	@Override
 	public final void set(int d, float f) {
-		data.put(d, f);
+		if (array == null)
+			data.put(d, f);
+		else if (d < 0 || d >= dimension)
+			throw new IndexOutOfBoundsException("Dimension " + d);
+		else
+			array[base + d] = f;
 	}
 
 	public VectorBuff set(VectorBuff v) {
 		if (v == this)
 			return this;
+		if (array != null && v.array != null) {
+			System.arraycopy(v.array, v.base, array, base, Math.min(dimension, v.dimension));
+			return this;
+		}
 		data.position(0);
 		v.data.position(0);
 		int ol = v.data.limit();
@@ -9,24 +9,32 @@ public class VectorBuff2 extends VectorBuff {
 		this(BufferProvider.createFloatBuffer(2), 0);
 	}
 
+	/**
+	 * @return a vector backed by a plain float array rather than a direct
+	 *         buffer
+	 */
+	public static VectorBuff2 onHeap() {
+		return new VectorBuff2(BufferProvider.createHeapFloatBuffer(2), 0);
+	}
+
 	public VectorBuff2(FloatBuffer data, int offset) {
 		super(data, offset, 2);
 	}
 
 	public VectorBuff2 add(VectorBuff2 r) {
-		data.put(0, data.get(0) + r.data.get(0));
-		data.put(1, data.get(1) + r.data.get(1));
+		set(0, get(0) + r.get(0));
+		set(1, get(1) + r.get(1));
 		return this;
 	}
 
 	public float distSquared(VectorBuff2 t) {
-		float dx = data.get(0) - t.data.get(0);
-		float dy = data.get(1) - t.data.get(1);
+		float dx = get(0) - t.get(0);
+		float dy = get(1) - t.get(1);
 		return dx * dx + dy * dy;
 	}
 
 	public float dot(VectorBuff2 v) {
-		return data.get(0) * v.data.get(0) + data.get(1) * v.data.get(1);
+		return get(0) * v.get(0) + get(1) * v.get(1);
 	}
 
 	public VectorBuff2 linearComb(float aC, VectorBuff2 b, float bC) {
@@ -35,28 +43,141 @@ public class VectorBuff2 extends VectorBuff {
 
 	public VectorBuff2 linearComb(VectorBuff2 a, float aC, VectorBuff2 b,
 			float bC) {
-		data.put(0, aC * a.data.get(0) + bC * b.data.get(0));
-		data.put(1, aC * a.data.get(1) + bC * b.data.get(1));
+		set(0, aC * a.get(0) + bC * b.get(0));
+		set(1, aC * a.get(1) + bC * b.get(1));
 		return this;
 	}
 
 	@Override
 	public float mag2() {
-		float x = data.get(0);
-		float y = data.get(1);
+		float x = get(0);
+		float y = get(1);
 		return x * x + y * y;
 	}
 
 	@Override
 	public VectorBuff2 multiply(float f) {
-		data.put(0, data.get(0) * f);
-		data.put(1, data.get(1) * f);
+		set(0, get(0) * f);
+		set(1, get(1) * f);
 		return this;
 	}
 
 	public VectorBuff2 subtract(VectorBuff2 r) {
-		data.put(0, data.get(0) - r.data.get(0));
-		data.put(1, data.get(1) - r.data.get(1));
+		set(0, get(0) - r.get(0));
+		set(1, get(1) - r.get(1));
+		return this;
+	}
+
+	// Unrolled forms of the Vector operations.
+
+	@Override
+	public VectorBuff2 add(Vector r) {
+		if (r.dimension() < 2) {
+			super.add(r);
+			return this;
+		}
+		set(0, get(0) + r.get(0));
+		set(1, get(1) + r.get(1));
+		return this;
+	}
+
+	@Override
+	public float distSquared(Vector t) {
+		if (t.dimension() < 2)
+			return super.distSquared(t);
+		final float d0 = get(0) - t.get(0);
+		final float d1 = get(1) - t.get(1);
+		return d0 * d0 + d1 * d1;
+	}
+
+	@Override
+	public float dot(Vector v) {
+		return get(0) * v.get(0) + get(1) * v.get(1);
+	}
+
+	@Override
+	public VectorBuff2 linearComb(Vector a, float aC, Vector b, float bC) {
+		if (a.dimension() < 2 || b.dimension() < 2) {
+			super.linearComb(a, aC, b, bC);
+			return this;
+		}
+		set(0, a.get(0) * aC + b.get(0) * bC);
+		set(1, a.get(1) * aC + b.get(1) * bC);
+		return this;
+	}
+
+	@Override
+	public VectorBuff2 linearComb(Vector a, float aC, Vector b, float bC, Vector c, float cC) {
+		if (a.dimension() < 2 || b.dimension() < 2 || c.dimension() < 2) {
+			super.linearComb(a, aC, b, bC, c, cC);
+			return this;
+		}
+		set(0, a.get(0) * aC + b.get(0) * bC + c.get(0) * cC);
+		set(1, a.get(1) * aC + b.get(1) * bC + c.get(1) * cC);
+		return this;
+	}
+
+	@Override
+	public VectorBuff2 linearComb(Vector a, float aC, Vector b, float bC, Vector c, float cC, Vector d, float dC) {
+		if (a.dimension() < 2 || b.dimension() < 2 || c.dimension() < 2 || d.dimension() < 2) {
+			super.linearComb(a, aC, b, bC, c, cC, d, dC);
+			return this;
+		}
+		set(0, a.get(0) * aC + b.get(0) * bC + c.get(0) * cC + d.get(0) * dC);
+		set(1, a.get(1) * aC + b.get(1) * bC + c.get(1) * cC + d.get(1) * dC);
+		return this;
+	}
+
+	@Override
+	public float maxCV() {
+		return Math.max(get(0), get(1));
+	}
+
+	@Override
+	public float minCV() {
+		return Math.min(get(0), get(1));
+	}
+
+	@Override
+	public VectorBuff2 multiplyComponents(Vector r) {
+		if (r.dimension() < 2) {
+			super.multiplyComponents(r);
+			return this;
+		}
+		set(0, get(0) * r.get(0));
+		set(1, get(1) * r.get(1));
+		return this;
+	}
+
+	@Override
+	public VectorBuff2 negate(Vector v) {
+		set(0, -v.get(0));
+		set(1, -v.get(1));
+		return this;
+	}
+
+	@Override
+	public VectorBuff2 scale(float f, Vector v) {
+		set(0, f * v.get(0));
+		set(1, f * v.get(1));
+		return this;
+	}
+
+	@Override
+	public VectorBuff2 set(Vector t) {
+		set(0, t.get(0));
+		set(1, t.get(1));
+		return this;
+	}
+
+	@Override
+	public VectorBuff2 subtract(Vector r) {
+		if (r.dimension() < 2) {
+			super.subtract(r);
+			return this;
+		}
+		set(0, get(0) - r.get(0));
+		set(1, get(1) - r.get(1));
 		return this;
 	}
 }
@@ -9,6 +9,14 @@ public class VectorBuff3 extends VectorBuff {
 		this(BufferProvider.createFloatBuffer(3), 0);
 	}
 
+	/**
+	 * @return a vector backed by a plain float array rather than a direct
+	 *         buffer
+	 */
+	public static VectorBuff3 onHeap() {
+		return new VectorBuff3(BufferProvider.createHeapFloatBuffer(3), 0);
+	}
+
 	public VectorBuff3(FloatBuffer f) {
 		this(f, 0);
 	}
@@ -18,9 +26,9 @@ public class VectorBuff3 extends VectorBuff {
 	}
 
 	public VectorBuff3 add(VectorBuff3 r) {
-		data.put(0, data.get(0) + r.data.get(0));
-		data.put(1, data.get(1) + r.data.get(1));
-		data.put(2, data.get(2) + r.data.get(2));
+		set(0, get(0) + r.get(0));
+		set(1, get(1) + r.get(1));
+		set(2, get(2) + r.get(2));
 		return this;
 	}
 
@@ -28,32 +36,32 @@ public class VectorBuff3 extends VectorBuff {
 		if (this == a) {
 			final float a0 = a.get(0);
 			final float a1 = a.get(1);
-			data.put(0, (a.get(1) * b.get(2)) - (a.get(2) * b.get(1)));
-			data.put(1, (a.get(2) * b.get(0)) - (a0 * b.get(2)));
-			data.put(2, (a.get(0) * b.get(1)) - (a1 * b.get(0)));
+			set(0, (a.get(1) * b.get(2)) - (a.get(2) * b.get(1)));
+			set(1, (a.get(2) * b.get(0)) - (a0 * b.get(2)));
+			set(2, (a.get(0) * b.get(1)) - (a1 * b.get(0)));
 		} else if (this == b) {
 			final float b0 = b.get(0);
 			final float b1 = b.get(1);
-			data.put(0, (a.get(1) * b.get(2)) - (a.get(2) * b.get(1)));
-			data.put(1, (a.get(2) * b0) - (a.get(0) * b.get(2)));
-			data.put(2, (a.get(0) * b1) - (a.get(1) * b.get(0)));
+			set(0, (a.get(1) * b.get(2)) - (a.get(2) * b.get(1)));
+			set(1, (a.get(2) * b0) - (a.get(0) * b.get(2)));
+			set(2, (a.get(0) * b1) - (a.get(1) * b.get(0)));
 		} else {
-			data.put(0, (a.get(1) * b.get(2)) - (a.get(2) * b.get(1)));
-			data.put(1, (a.get(2) * b.get(0)) - (a.get(0) * b.get(2)));
-			data.put(2, (a.get(0) * b.get(1)) - (a.get(1) * b.get(0)));
+			set(0, (a.get(1) * b.get(2)) - (a.get(2) * b.get(1)));
+			set(1, (a.get(2) * b.get(0)) - (a.get(0) * b.get(2)));
+			set(2, (a.get(0) * b.get(1)) - (a.get(1) * b.get(0)));
 		}
 		return this;
 	}
 
 	public float distSquared(VectorBuff3 t) {
-		float dx = data.get(0) - t.data.get(0);
-		float dy = data.get(1) - t.data.get(1);
-		float dz = data.get(2) - t.data.get(2);
+		float dx = get(0) - t.get(0);
+		float dy = get(1) - t.get(1);
+		float dz = get(2) - t.get(2);
 		return dx * dx + dy * dy + dz * dz;
 	}
 
 	public float dot(VectorBuff3 v) {
-		return data.get(0) * v.data.get(0) + data.get(1) * v.data.get(1) + data.get(2) * v.data.get(2);
+		return get(0) * v.get(0) + get(1) * v.get(1) + get(2) * v.get(2);
 	}
 
 	public VectorBuff3 linearComb(float aC, VectorBuff3 b, float bC) {
@@ -61,25 +69,25 @@ public class VectorBuff3 extends VectorBuff {
 	}
 
 	public VectorBuff3 linearComb(VectorBuff3 a, float aC, VectorBuff3 b, float bC) {
-		data.put(0, aC * a.data.get(0) + bC * b.data.get(0));
-		data.put(1, aC * a.data.get(1) + bC * b.data.get(1));
-		data.put(2, aC * a.data.get(2) + bC * b.data.get(2));
+		set(0, aC * a.get(0) + bC * b.get(0));
+		set(1, aC * a.get(1) + bC * b.get(1));
+		set(2, aC * a.get(2) + bC * b.get(2));
 		return this;
 	}
 
 	@Override
 	public float mag2() {
-		float x = data.get(0);
-		float y = data.get(1);
-		float z = data.get(2);
+		float x = get(0);
+		float y = get(1);
+		float z = get(2);
 		return x * x + y * y + z * z;
 	}
 
 	@Override
 	public VectorBuff3 multiply(float f) {
-		data.put(0, data.get(0) * f);
-		data.put(1, data.get(1) * f);
-		data.put(2, data.get(2) * f);
+		set(0, get(0) * f);
+		set(1, get(1) * f);
+		set(2, get(2) * f);
 		return this;
 	}
 
@@ -96,9 +104,238 @@ public class VectorBuff3 extends VectorBuff {
 	}
 
 	public VectorBuff3 sub(VectorBuff3 r) {
-		data.put(0, data.get(0) - r.data.get(0));
-		data.put(1, data.get(1) - r.data.get(1));
-		data.put(2, data.get(2) - r.data.get(2));
+		set(0, get(0) - r.get(0));
+		set(1, get(1) - r.get(1));
+		set(2, get(2) - r.get(2));
+		return this;
+	}
+
+	// Unrolled forms of the Vector operations.
+
+	@Override
+	public VectorBuff3 add(Vector r) {
+		if (r.dimension() < 3) {
+			super.add(r);
+			return this;
+		}
+		set(0, get(0) + r.get(0));
+		set(1, get(1) + r.get(1));
+		set(2, get(2) + r.get(2));
+		return this;
+	}
+
+	@Override
+	public float distSquared(Vector t) {
+		if (t.dimension() < 3)
+			return super.distSquared(t);
+		final float d0 = get(0) - t.get(0);
+		final float d1 = get(1) - t.get(1);
+		final float d2 = get(2) - t.get(2);
+		return d0 * d0 + d1 * d1 + d2 * d2;
+	}
+
+	@Override
+	public float dot(Vector v) {
+		return get(0) * v.get(0) + get(1) * v.get(1) + get(2) * v.get(2);
+	}
+
+	@Override
+	public VectorBuff3 linearComb(Vector a, float aC, Vector b, float bC) {
+		if (a.dimension() < 3 || b.dimension() < 3) {
+			super.linearComb(a, aC, b, bC);
+			return this;
+		}
+		set(0, a.get(0) * aC + b.get(0) * bC);
+		set(1, a.get(1) * aC + b.get(1) * bC);
+		set(2, a.get(2) * aC + b.get(2) * bC);
+		return this;
+	}
+
+	@Override
+	public VectorBuff3 linearComb(Vector a, float aC, Vector b, float bC, Vector c, float cC) {
+		if (a.dimension() < 3 || b.dimension() < 3 || c.dimension() < 3) {
+			super.linearComb(a, aC, b, bC, c, cC);
+			return this;
+		}
+		set(0, a.get(0) * aC + b.get(0) * bC + c.get(0) * cC);
+		set(1, a.get(1) * aC + b.get(1) * bC + c.get(1) * cC);
+		set(2, a.get(2) * aC + b.get(2) * bC + c.get(2) * cC);
+		return this;
+	}
+
+	@Override
+	public VectorBuff3 linearComb(Vector a, float aC, Vector b, float bC, Vector c, float cC, Vector d, float dC) {
+		if (a.dimension() < 3 || b.dimension() < 3 || c.dimension() < 3 || d.dimension() < 3) {
+			super.linearComb(a, aC, b, bC, c, cC, d, dC);
+			return this;
+		}
+		set(0, a.get(0) * aC + b.get(0) * bC + c.get(0) * cC + d.get(0) * dC);
+		set(1, a.get(1) * aC + b.get(1) * bC + c.get(1) * cC + d.get(1) * dC);
+		set(2, a.get(2) * aC + b.get(2) * bC + c.get(2) * cC + d.get(2) * dC);
+		return this;
+	}
+
+	@Override
+	public float maxCV() {
+		return Math.max(Math.max(get(0), get(1)), get(2));
+	}
+
+	@Override
+	public float minCV() {
+		return Math.min(Math.min(get(0), get(1)), get(2));
+	}
+
+	@Override
+	public VectorBuff3 multiplyComponents(Vector r) {
+		if (r.dimension() < 3) {
+			super.multiplyComponents(r);
+			return this;
+		}
+		set(0, get(0) * r.get(0));
+		set(1, get(1) * r.get(1));
+		set(2, get(2) * r.get(2));
+		return this;
+	}
+
+	@Override
+	public VectorBuff3 negate(Vector v) {
+		set(0, -v.get(0));
+		set(1, -v.get(1));
+		set(2, -v.get(2));
 		return this;
 	}
+
+	@Override
+	public VectorBuff3 scale(float f, Vector v) {
+		set(0, f * v.get(0));
+		set(1, f * v.get(1));
+		set(2, f * v.get(2));
+		return this;
+	}
+
+	@Override
+	public VectorBuff3 set(Vector t) {
+		set(0, t.get(0));
+		set(1, t.get(1));
+		set(2, t.get(2));
+		return this;
+	}
+
+	@Override
+	public VectorBuff3 subtract(Vector r) {
+		if (r.dimension() < 3) {
+			super.subtract(r);
+			return this;
+		}
+		set(0, get(0) - r.get(0));
+		set(1, get(1) - r.get(1));
+		set(2, get(2) - r.get(2));
+		return this;
+	}
+
+	/**
+	 * A re-pointable 3D {@link Vector} view of element i of a larger store.
+	 * Keep one per loop (or thread) and move it with {@link #at(int)}; nothing
+	 * is allocated per element. {@link #over(FloatBuffer, int, int)} walks
+	 * interleaved vectors in a shared buffer, {@link Vec3Array#cursor()} a
+	 * structure-of-arrays container.
+	 */
+	public static abstract class Cursor extends Vector {
+		protected int index;
+
+		Cursor() {
+		}
+
+		/**
+		 * A cursor over interleaved vectors, element i at
+		 * {@code offset + i * stride}. It reads and writes with absolute
+		 * indices and never touches the buffer's position or limit, so any
+		 * number of cursors (one per thread) can walk the same buffer.
+		 */
+		public static Cursor over(FloatBuffer data, int offset, int stride) {
+			if (stride < 3)
+				throw new IllegalArgumentException("Stride must be at least 3: " + stride);
+			return new BufferCursor(data, offset, stride);
+		}
+
+		/**
+		 * Packed vectors, stride 3 from the start of the buffer.
+		 */
+		public static Cursor over(FloatBuffer data) {
+			return over(data, 0, 3);
+		}
+
+		/**
+		 * Points this cursor at element i.
+		 */
+		public abstract Cursor at(int i);
+
+		public final int index() {
+			return index;
+		}
+
+		@Override
+		public final int dimension() {
+			return 3;
+		}
+
+		public Cursor set(float x, float y, float z) {
+			set(0, x);
+			set(1, y);
+			set(2, z);
+			return this;
+		}
+	}
+
+	private static final class BufferCursor extends Cursor {
+		private final FloatBuffer data;
+		private final int offset, stride;
+		private int base;
+
+		private BufferCursor(FloatBuffer data, int offset, int stride) {
+			this.data = data;
+			this.offset = offset;
+			this.stride = stride;
+			this.base = offset;
+		}
+
+		@Override
+		public Cursor at(int i) {
+			index = i;
+			base = offset + i * stride;
+			return this;
+		}
+
+		@Override
+		public float get(int d) {
+			return data.get(base + d);
+		}
+
+		@Override
+		public void set(int d, float f) {
+			data.put(base + d, f);
+		}
+
+		@Override
+		public Cursor set(float x, float y, float z) {
+			data.put(base, x);
+			data.put(base + 1, y);
+			data.put(base + 2, z);
+			return this;
+		}
+
+		@Override
+		public float mag2() {
+			final float x = data.get(base), y = data.get(base + 1), z = data.get(base + 2);
+			return x * x + y * y + z * z;
+		}
+
+		@Override
+		public Cursor multiply(float f) {
+			data.put(base, data.get(base) * f);
+			data.put(base + 1, data.get(base + 1) * f);
+			data.put(base + 2, data.get(base + 2) * f);
+			return this;
+		}
+	}
 }
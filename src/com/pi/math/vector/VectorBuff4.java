@@ -9,6 +9,14 @@ public class VectorBuff4 extends VectorBuff {
 		this(BufferProvider.createFloatBuffer(4), 0);
 	}
 
+	/**
+	 * @return a vector backed by a plain float array rather than a direct
+	 *         buffer
+	 */
+	public static VectorBuff4 onHeap() {
+		return new VectorBuff4(BufferProvider.createHeapFloatBuffer(4), 0);
+	}
+
 	public VectorBuff4(FloatBuffer f) {
 		this(f, 0);
 	}
@@ -18,24 +26,24 @@ public class VectorBuff4 extends VectorBuff {
 	}
 
 	public VectorBuff4 add(VectorBuff4 r) {
-		data.put(0, data.get(0) + r.data.get(0));
-		data.put(1, data.get(1) + r.data.get(1));
-		data.put(2, data.get(2) + r.data.get(2));
-		data.put(3, data.get(3) + r.data.get(3));
+		set(0, get(0) + r.get(0));
+		set(1, get(1) + r.get(1));
+		set(2, get(2) + r.get(2));
+		set(3, get(3) + r.get(3));
 		return this;
 	}
 
 	public float distSquared(VectorBuff4 t) {
-		float dx = data.get(0) - t.data.get(0);
-		float dy = data.get(1) - t.data.get(1);
-		float dz = data.get(2) - t.data.get(2);
-		float dw = data.get(3) - t.data.get(3);
+		float dx = get(0) - t.get(0);
+		float dy = get(1) - t.get(1);
+		float dz = get(2) - t.get(2);
+		float dw = get(3) - t.get(3);
 		return dx * dx + dy * dy + dz * dz + dw * dw;
 	}
 
 	public float dot(VectorBuff4 v) {
-		return data.get(0) * v.data.get(0) + data.get(1) * v.data.get(1) + data.get(2) * v.data.get(2)
-				+ data.get(3) * v.data.get(3);
+		return get(0) * v.get(0) + get(1) * v.get(1) + get(2) * v.get(2)
+				+ get(3) * v.get(3);
 	}
 
 	public VectorBuff4 linearComb(float aC, VectorBuff4 b, float bC) {
@@ -43,36 +51,169 @@ public class VectorBuff4 extends VectorBuff {
 	}
 
 	public VectorBuff4 linearComb(VectorBuff4 a, float aC, VectorBuff4 b, float bC) {
-		data.put(0, aC * a.data.get(0) + bC * b.data.get(0));
-		data.put(1, aC * a.data.get(1) + bC * b.data.get(1));
-		data.put(2, aC * a.data.get(2) + bC * b.data.get(2));
-		data.put(3, aC * a.data.get(3) + bC * b.data.get(3));
+		set(0, aC * a.get(0) + bC * b.get(0));
+		set(1, aC * a.get(1) + bC * b.get(1));
+		set(2, aC * a.get(2) + bC * b.get(2));
+		set(3, aC * a.get(3) + bC * b.get(3));
 		return this;
 	}
 
 	@Override
 	public float mag2() {
-		float x = data.get(0);
-		float y = data.get(1);
-		float z = data.get(2);
-		float w = data.get(3);
+		float x = get(0);
+		float y = get(1);
+		float z = get(2);
+		float w = get(3);
 		return x * x + y * y + z * z + w * w;
 	}
 
 	@Override
 	public VectorBuff4 multiply(float f) {
-		data.put(0, data.get(0) * f);
-		data.put(1, data.get(1) * f);
-		data.put(2, data.get(2) * f);
-		data.put(3, data.get(3) * f);
+		set(0, get(0) * f);
+		set(1, get(1) * f);
+		set(2, get(2) * f);
+		set(3, get(3) * f);
 		return this;
 	}
 
 	public VectorBuff4 subtract(VectorBuff4 r) {
-		data.put(0, data.get(0) - r.data.get(0));
-		data.put(1, data.get(1) - r.data.get(1));
-		data.put(2, data.get(2) - r.data.get(2));
-		data.put(3, data.get(3) - r.data.get(3));
+		set(0, get(0) - r.get(0));
+		set(1, get(1) - r.get(1));
+		set(2, get(2) - r.get(2));
+		set(3, get(3) - r.get(3));
+		return this;
+	}
+
+	// Unrolled forms of the Vector operations.
+
+	@Override
+	public VectorBuff4 add(Vector r) {
+		if (r.dimension() < 4) {
+			super.add(r);
+			return this;
+		}
+		set(0, get(0) + r.get(0));
+		set(1, get(1) + r.get(1));
+		set(2, get(2) + r.get(2));
+		set(3, get(3) + r.get(3));
+		return this;
+	}
+
+	@Override
+	public float distSquared(Vector t) {
+		if (t.dimension() < 4)
+			return super.distSquared(t);
+		final float d0 = get(0) - t.get(0);
+		final float d1 = get(1) - t.get(1);
+		final float d2 = get(2) - t.get(2);
+		final float d3 = get(3) - t.get(3);
+		return d0 * d0 + d1 * d1 + d2 * d2 + d3 * d3;
+	}
+
+	@Override
+	public float dot(Vector v) {
+		return get(0) * v.get(0) + get(1) * v.get(1) + get(2) * v.get(2) + get(3) * v.get(3);
+	}
+
+	@Override
+	public VectorBuff4 linearComb(Vector a, float aC, Vector b, float bC) {
+		if (a.dimension() < 4 || b.dimension() < 4) {
+			super.linearComb(a, aC, b, bC);
+			return this;
+		}
+		set(0, a.get(0) * aC + b.get(0) * bC);
+		set(1, a.get(1) * aC + b.get(1) * bC);
+		set(2, a.get(2) * aC + b.get(2) * bC);
+		set(3, a.get(3) * aC + b.get(3) * bC);
+		return this;
+	}
+
+	@Override
+	public VectorBuff4 linearComb(Vector a, float aC, Vector b, float bC, Vector c, float cC) {
+		if (a.dimension() < 4 || b.dimension() < 4 || c.dimension() < 4) {
+			super.linearComb(a, aC, b, bC, c, cC);
+			return this;
+		}
+		set(0, a.get(0) * aC + b.get(0) * bC + c.get(0) * cC);
+		set(1, a.get(1) * aC + b.get(1) * bC + c.get(1) * cC);
+		set(2, a.get(2) * aC + b.get(2) * bC + c.get(2) * cC);
+		set(3, a.get(3) * aC + b.get(3) * bC + c.get(3) * cC);
+		return this;
+	}
+
+	@Override
+	public VectorBuff4 linearComb(Vector a, float aC, Vector b, float bC, Vector c, float cC, Vector d, float dC) {
+		if (a.dimension() < 4 || b.dimension() < 4 || c.dimension() < 4 || d.dimension() < 4) {
+			super.linearComb(a, aC, b, bC, c, cC, d, dC);
+			return this;
+		}
+		set(0, a.get(0) * aC + b.get(0) * bC + c.get(0) * cC + d.get(0) * dC);
+		set(1, a.get(1) * aC + b.get(1) * bC + c.get(1) * cC + d.get(1) * dC);
+		set(2, a.get(2) * aC + b.get(2) * bC + c.get(2) * cC + d.get(2) * dC);
+		set(3, a.get(3) * aC + b.get(3) * bC + c.get(3) * cC + d.get(3) * dC);
+		return this;
+	}
+
+	@Override
+	public float maxCV() {
+		return Math.max(Math.max(Math.max(get(0), get(1)), get(2)), get(3));
+	}
+
+	@Override
+	public float minCV() {
+		return Math.min(Math.min(Math.min(get(0), get(1)), get(2)), get(3));
+	}
+
+	@Override
+	public VectorBuff4 multiplyComponents(Vector r) {
+		if (r.dimension() < 4) {
+			super.multiplyComponents(r);
+			return this;
+		}
+		set(0, get(0) * r.get(0));
+		set(1, get(1) * r.get(1));
+		set(2, get(2) * r.get(2));
+		set(3, get(3) * r.get(3));
+		return this;
+	}
+
+	@Override
+	public VectorBuff4 negate(Vector v) {
+		set(0, -v.get(0));
+		set(1, -v.get(1));
+		set(2, -v.get(2));
+		set(3, -v.get(3));
+		return this;
+	}
+
+	@Override
+	public VectorBuff4 scale(float f, Vector v) {
+		set(0, f * v.get(0));
+		set(1, f * v.get(1));
+		set(2, f * v.get(2));
+		set(3, f * v.get(3));
+		return this;
+	}
+
+	@Override
+	public VectorBuff4 set(Vector t) {
+		set(0, t.get(0));
+		set(1, t.get(1));
+		set(2, t.get(2));
+		set(3, t.get(3));
+		return this;
+	}
+
+	@Override
+	public VectorBuff4 subtract(Vector r) {
+		if (r.dimension() < 4) {
+			super.subtract(r);
+			return this;
+		}
+		set(0, get(0) - r.get(0));
+		set(1, get(1) - r.get(1));
+		set(2, get(2) - r.get(2));
+		set(3, get(3) - r.get(3));
 		return this;
 	}
 }
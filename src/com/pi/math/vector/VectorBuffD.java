@@ -0,0 +1,148 @@
+package com.pi.math.vector;
+
+import java.nio.DoubleBuffer;
+
+import com.pi.math.BufferProvider;
+
+/**
+ * Double-precision counterpart of {@link VectorBuff}, for coordinates that
+ * need more than float's ~7 significant digits (e.g. world positions far from
+ * the origin). Convert to float near the point of use, e.g. with
+ * {@link VectorBuffD3#relativeTo(Vector, VectorBuffD3)}.
+ */
+public class VectorBuffD {
+	protected final DoubleBuffer data;
+	private final int dimension;
+
+	public static VectorBuffD make(DoubleBuffer f, int off, int d) {
+		switch (d) {
+		case 4:
+			return new VectorBuffD4(f, off);
+		case 3:
+			return new VectorBuffD3(f, off);
+		default:
+			return new VectorBuffD(f, off, d);
+		}
+	}
+
+	public static VectorBuffD make(int d) {
+		return make(BufferProvider.createDoubleBuffer(d), 0, d);
+	}
+
+	protected VectorBuffD(DoubleBuffer data, int offset, int dimension) {
+		this.dimension = dimension;
+		this.data = data.slice(offset, dimension);
+	}
+
+	public final int dimension() {
+		return dimension;
+	}
+
+	public final double get(int d) {
+		return data.get(d);
+	}
+
+	public final void set(int d, double v) {
+		data.put(d, v);
+	}
+
+	public DoubleBuffer getAccessor() {
+		data.position(0);
+		return data;
+	}
+
+	public VectorBuffD set(VectorBuffD v) {
+		for (int i = 0; i < Math.min(dimension, v.dimension); i++)
+			data.put(i, v.data.get(i));
+		return this;
+	}
+
+	/**
+	 * Widens the first components of v into this vector.
+	 */
+	public VectorBuffD set(Vector v) {
+		for (int i = 0; i < Math.min(dimension, v.dimension()); i++)
+			data.put(i, v.get(i));
+		return this;
+	}
+
+	public VectorBuffD setV(double... v) {
+		for (int i = 0; i < Math.min(dimension, v.length); i++)
+			data.put(i, v[i]);
+		return this;
+	}
+
+	public VectorBuffD add(VectorBuffD r) {
+		for (int i = 0; i < Math.min(dimension, r.dimension); i++)
+			data.put(i, data.get(i) + r.data.get(i));
+		return this;
+	}
+
+	public VectorBuffD subtract(VectorBuffD r) {
+		for (int i = 0; i < Math.min(dimension, r.dimension); i++)
+			data.put(i, data.get(i) - r.data.get(i));
+		return this;
+	}
+
+	public VectorBuffD multiply(double f) {
+		for (int i = 0; i < dimension; i++)
+			data.put(i, data.get(i) * f);
+		return this;
+	}
+
+	public VectorBuffD linearComb(VectorBuffD a, double aC, VectorBuffD b, double bC) {
+		for (int i = 0; i < Math.min(dimension, Math.min(a.dimension, b.dimension)); i++)
+			data.put(i, a.data.get(i) * aC + b.data.get(i) * bC);
+		return this;
+	}
+
+	public double dot(VectorBuffD v) {
+		double r = 0;
+		for (int i = 0; i < dimension; i++)
+			r += data.get(i) * v.data.get(i);
+		return r;
+	}
+
+	public double mag2() {
+		return dot(this);
+	}
+
+	public final double magnitude() {
+		return Math.sqrt(mag2());
+	}
+
+	public double distSquared(VectorBuffD t) {
+		double r = 0;
+		for (int i = 0; i < Math.min(dimension, t.dimension); i++) {
+			final double d = data.get(i) - t.data.get(i);
+			r += d * d;
+		}
+		return r;
+	}
+
+	public final VectorBuffD normalize() {
+		return multiply(1 / magnitude());
+	}
+
+	/**
+	 * Narrows this vector into dest.
+	 */
+	public <T extends Vector> T toFloat(T dest) {
+		for (int i = 0; i < Math.min(dimension, dest.dimension()); i++)
+			dest.set(i, (float) data.get(i));
+		return dest;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder b = new StringBuilder();
+		b.append('[');
+		for (int i = 0; i < dimension; i++) {
+			if (i > 0)
+				b.append(", ");
+			b.append(get(i));
+		}
+		b.append(']');
+		return b.toString();
+	}
+}
@@ -0,0 +1,82 @@
+package com.pi.math.vector;
+
+import java.nio.DoubleBuffer;
+
+import com.pi.math.BufferProvider;
+
+public class VectorBuffD3 extends VectorBuffD {
+	public VectorBuffD3() {
+		this(BufferProvider.createDoubleBuffer(3), 0);
+	}
+
+	public VectorBuffD3(DoubleBuffer data, int offset) {
+		super(data, offset, 3);
+	}
+
+	public VectorBuffD3 set(double x, double y, double z) {
+		data.put(0, x);
+		data.put(1, y);
+		data.put(2, z);
+		return this;
+	}
+
+	public VectorBuffD3 add(VectorBuffD3 r) {
+		data.put(0, data.get(0) + r.data.get(0));
+		data.put(1, data.get(1) + r.data.get(1));
+		data.put(2, data.get(2) + r.data.get(2));
+		return this;
+	}
+
+	public VectorBuffD3 cross(VectorBuffD3 a, VectorBuffD3 b) {
+		final double ax = a.get(0), ay = a.get(1), az = a.get(2);
+		final double bx = b.get(0), by = b.get(1), bz = b.get(2);
+		data.put(0, ay * bz - az * by);
+		data.put(1, az * bx - ax * bz);
+		data.put(2, ax * by - ay * bx);
+		return this;
+	}
+
+	public double distSquared(VectorBuffD3 t) {
+		final double dx = data.get(0) - t.data.get(0);
+		final double dy = data.get(1) - t.data.get(1);
+		final double dz = data.get(2) - t.data.get(2);
+		return dx * dx + dy * dy + dz * dz;
+	}
+
+	public double dot(VectorBuffD3 v) {
+		return data.get(0) * v.data.get(0) + data.get(1) * v.data.get(1) + data.get(2) * v.data.get(2);
+	}
+
+	@Override
+	public double mag2() {
+		final double x = data.get(0), y = data.get(1), z = data.get(2);
+		return x * x + y * y + z * z;
+	}
+
+	@Override
+	public VectorBuffD3 multiply(double f) {
+		data.put(0, data.get(0) * f);
+		data.put(1, data.get(1) * f);
+		data.put(2, data.get(2) * f);
+		return this;
+	}
+
+	/**
+	 * Writes this - eye into dest in float precision. The difference is taken
+	 * in double, so nearby points keep full float precision however far both
+	 * are from the origin.
+	 */
+	public <T extends Vector> T relativeTo(T dest, VectorBuffD3 eye) {
+		dest.set(0, (float) (data.get(0) - eye.data.get(0)));
+		dest.set(1, (float) (data.get(1) - eye.data.get(1)));
+		dest.set(2, (float) (data.get(2) - eye.data.get(2)));
+		return dest;
+	}
+
+	public VectorBuffD3 subtract(VectorBuffD3 r) {
+		data.put(0, data.get(0) - r.data.get(0));
+		data.put(1, data.get(1) - r.data.get(1));
+		data.put(2, data.get(2) - r.data.get(2));
+		return this;
+	}
+}
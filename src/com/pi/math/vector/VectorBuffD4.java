@@ -0,0 +1,43 @@
+package com.pi.math.vector;
+
+import java.nio.DoubleBuffer;
+
+import com.pi.math.BufferProvider;
+
+public class VectorBuffD4 extends VectorBuffD {
+	public VectorBuffD4() {
+		this(BufferProvider.createDoubleBuffer(4), 0);
+	}
+
+	public VectorBuffD4(DoubleBuffer data, int offset) {
+		super(data, offset, 4);
+	}
+
+	public VectorBuffD4 set(double x, double y, double z, double w) {
+		data.put(0, x);
+		data.put(1, y);
+		data.put(2, z);
+		data.put(3, w);
+		return this;
+	}
+
+	public double dot(VectorBuffD4 v) {
+		return data.get(0) * v.data.get(0) + data.get(1) * v.data.get(1) + data.get(2) * v.data.get(2)
+				+ data.get(3) * v.data.get(3);
+	}
+
+	@Override
+	public double mag2() {
+		final double x = data.get(0), y = data.get(1), z = data.get(2), w = data.get(3);
+		return x * x + y * y + z * z + w * w;
+	}
+
+	@Override
+	public VectorBuffD4 multiply(double f) {
+		data.put(0, data.get(0) * f);
+		data.put(1, data.get(1) * f);
+		data.put(2, data.get(2) * f);
+		data.put(3, data.get(3) * f);
+		return this;
+	}
+}
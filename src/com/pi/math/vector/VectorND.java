@@ -1,9 +1,11 @@
 package com.pi.math.vector;
 
+import java.nio.FloatBuffer;
 import java.util.Arrays;
 
 public final class VectorND extends Vector {
 	private final float[] v;
+	private FloatBuffer access;
 
 	public VectorND(float... values) {
 		this.v = values;
@@ -24,6 +26,17 @@ public final class VectorND extends Vector {
 		return v[d];
 	}
 
+	/**
+	 * @return a buffer view over the components, made on first use and shared
+	 *         after that
+	 */
+	public FloatBuffer getAccessor() {
+		if (access == null)
+			access = FloatBuffer.wrap(v);
+		access.position(0);
+		return access;
+	}
+
 	@Override
 	public void set(int d, float f) {
 		v[d] = f;